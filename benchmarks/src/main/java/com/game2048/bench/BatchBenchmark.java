@@ -0,0 +1,84 @@
+package com.game2048.bench;
+
+import com.game2048.batch.BatchEngine;
+import com.game2048.core.Direction;
+import com.game2048.core.GameState;
+import com.game2048.core.XoroshiroRandomSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// 一批对局各走一步：结构数组的 BatchEngine 对比每局一个 GameState 对象
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+
+    @Param({"1024", "65536"})
+    public int lanes;
+
+    private BatchEngine batch;
+    private GameState[] states;
+    private XoroshiroRandomSource[] randoms;
+    private byte[] directions;
+    private int[] delta;
+    private boolean[] changed;
+    private boolean[] terminal;
+
+    @Setup
+    public void setup() {
+        batch = new BatchEngine(lanes, 2048);
+        states = new GameState[lanes];
+        randoms = new XoroshiroRandomSource[lanes];
+        for (int i = 0; i < lanes; i++) {
+            states[i] = new GameState();
+            randoms[i] = new XoroshiroRandomSource(2048 + i);
+            states[i].spawn(randoms[i]);
+            states[i].spawn(randoms[i]);
+        }
+        directions = new byte[lanes];
+        delta = new int[lanes];
+        changed = new boolean[lanes];
+        terminal = new boolean[lanes];
+    }
+
+    // 方向轮流换，对局结束就重开，保持各路一直有棋可走
+    @Benchmark
+    public int batchStep() {
+        for (int i = 0; i < lanes; i++) directions[i] = (byte) ((directions[i] + 1) & 3);
+        batch.step(directions, delta, changed, terminal);
+        batch.resetTerminal(terminal);
+        return delta[0];
+    }
+
+    @Benchmark
+    public int batchStepParallel() {
+        for (int i = 0; i < lanes; i++) directions[i] = (byte) ((directions[i] + 1) & 3);
+        batch.stepParallel(directions, delta, changed, terminal);
+        batch.resetTerminal(terminal);
+        return delta[0];
+    }
+
+    @Benchmark
+    public int gameStateStep() {
+        int sum = 0;
+        for (int i = 0; i < lanes; i++) {
+            directions[i] = (byte) ((directions[i] + 1) & 3);
+            GameState state = states[i];
+            int d = state.move(Direction.of(directions[i]));
+            if (d >= 0) {
+                state.spawn(randoms[i]);
+                sum += d;
+            }
+            if (state.isTerminal()) {
+                state.reset();
+                state.spawn(randoms[i]);
+                state.spawn(randoms[i]);
+            }
+        }
+        return sum;
+    }
+}
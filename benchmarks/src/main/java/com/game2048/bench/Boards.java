@@ -0,0 +1,33 @@
+package com.game2048.bench;
+
+import com.game2048.core.BitBoard;
+
+// 基准用的固定局面，行从上到下、列从左到右写指数
+final class Boards {
+    // 只有 3 个方块
+    static final long SPARSE = of(
+            0, 0, 0, 1,
+            0, 0, 0, 0,
+            0, 2, 0, 0,
+            0, 0, 0, 1);
+
+    // 14 个方块，四个方向都有合并
+    static final long DENSE = of(
+            1, 1, 3, 4,
+            2, 3, 3, 5,
+            1, 0, 4, 5,
+            6, 7, 0, 2);
+
+    private Boards() {
+    }
+
+    static long of(int... exponents) {
+        long board = 0;
+        for (int i = 0; i < BitBoard.CELLS; i++) board = BitBoard.withExponent(board, i, exponents[i]);
+        return board;
+    }
+
+    static long byName(String name) {
+        return "dense".equals(name) ? DENSE : SPARSE;
+    }
+}
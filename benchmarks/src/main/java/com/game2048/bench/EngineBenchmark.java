@@ -0,0 +1,77 @@
+package com.game2048.bench;
+
+import com.game2048.model.GameEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// GameEngine 热路径：每次调用先 loadBoard 回到同一局面，loadOnly 给出这部分的基线
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+
+    @Param({"sparse", "dense"})
+    public String board;
+
+    private long packed;
+    private GameEngine engine;
+
+    @Setup
+    public void setup() {
+        packed = Boards.byName(board);
+        engine = new GameEngine(4, 2048, 2048L);
+        engine.loadBoard(packed, 0);
+    }
+
+    @Benchmark
+    public GameEngine loadOnly() {
+        engine.loadBoard(packed, 0);
+        return engine;
+    }
+
+    @Benchmark
+    public boolean moveLeft() {
+        engine.loadBoard(packed, 0);
+        return engine.moveLeft();
+    }
+
+    @Benchmark
+    public boolean moveRight() {
+        engine.loadBoard(packed, 0);
+        return engine.moveRight();
+    }
+
+    @Benchmark
+    public boolean moveUp() {
+        engine.loadBoard(packed, 0);
+        return engine.moveUp();
+    }
+
+    @Benchmark
+    public boolean moveDown() {
+        engine.loadBoard(packed, 0);
+        return engine.moveDown();
+    }
+
+    @Benchmark
+    public GameEngine spawnNewTileImmediately() {
+        engine.loadBoard(packed, 0);
+        engine.spawnNewTileImmediately();
+        return engine;
+    }
+
+    // 以下两个不改局面，不需要重置
+    @Benchmark
+    public boolean canUserMove() {
+        return engine.canUserMove();
+    }
+
+    @Benchmark
+    public int getMaxTileValue() {
+        return engine.getMaxTileValue();
+    }
+}
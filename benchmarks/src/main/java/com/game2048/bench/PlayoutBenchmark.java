@@ -0,0 +1,55 @@
+package com.game2048.bench;
+
+import com.game2048.core.Direction;
+import com.game2048.core.GameState;
+import com.game2048.core.SplittableRandomSource;
+import com.game2048.model.GameEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// 一整局随机对局：core 层纯规则，以及带 Tile 动画视图的 GameEngine
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayoutBenchmark {
+
+    private final SplittableRandomSource random = new SplittableRandomSource(2048);
+    private final GameState state = new GameState();
+    private GameEngine engine;
+
+    @Setup
+    public void setup() {
+        engine = new GameEngine(4, 2048, 2048L);
+    }
+
+    @Benchmark
+    public int gameStatePlayout() {
+        state.reset();
+        state.spawn(random);
+        state.spawn(random);
+        while (!state.isTerminal()) {
+            state.move(Direction.ALL[random.nextInt(4)]);
+            state.spawn(random);
+        }
+        return state.score();
+    }
+
+    // 每步都跑完动画再生成新块，与界面下的真实节奏一致
+    @Benchmark
+    public int gameEnginePlayout() {
+        engine.createGame();
+        while (engine.canUserMove()) {
+            if (engine.move(Direction.ALL[random.nextInt(4)])) {
+                do {
+                    engine.updateAnimations();
+                } while (!engine.areAnimationsDone());
+                engine.updateAnimations();
+            }
+        }
+        return engine.score;
+    }
+}
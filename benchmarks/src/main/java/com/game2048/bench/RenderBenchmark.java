@@ -0,0 +1,49 @@
+package com.game2048.bench;
+
+import com.game2048.model.GameEngine;
+import com.game2048.ui.GamePanel;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// 离屏绘制一帧 GamePanel 到 BufferedImage；动画定时器先停掉，避免和基准线程抢着改状态
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+    @Param({"sparse", "dense"})
+    public String board;
+
+    private GamePanel panel;
+    private BufferedImage image;
+    private Graphics2D g;
+
+    @Setup
+    public void setup() {
+        GameEngine engine = new GameEngine(4, 2048, 2048L);
+        engine.loadBoard(Boards.byName(board), 0);
+        panel = new GamePanel(engine);
+        panel.dispose();
+        Dimension size = panel.getPreferredSize();
+        panel.setSize(size);
+        image = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
+        g = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paintComponent() {
+        panel.paint(g);
+        return image;
+    }
+}
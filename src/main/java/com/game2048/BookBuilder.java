@@ -0,0 +1,62 @@
+package com.game2048;
+
+import com.game2048.ai.SearchConfig;
+import com.game2048.ai.book.OpeningBook;
+import com.game2048.ai.book.Tablebase;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+// 离线生成开局库 / 残局库
+// 用法: BookBuilder tablebase [--goal 32] [--max-sum 40] --out FILE
+//       BookBuilder opening [--max-sum 64] [--cutoff 0.0001] [--depth 4] --out FILE
+// 残局库：牌面总和不超过 max-sum 的所有可达局面里，合成 goal 的精确概率；规模随 max-sum 指数增长
+// 开局库：按库自己的走法推进，出现概率不低于 cutoff 的局面逐个做 depth 层搜索
+public class BookBuilder {
+    private static final String USAGE = "用法: BookBuilder tablebase [--goal 32] [--max-sum 40] --out FILE\n"
+            + "      BookBuilder opening [--max-sum 64] [--cutoff 0.0001] [--depth 4] --out FILE";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || !("tablebase".equals(args[0]) || "opening".equals(args[0]))) usage(null);
+        boolean tablebase = "tablebase".equals(args[0]);
+        int goal = 32;
+        int maxSum = tablebase ? 40 : 64;
+        double cutoff = 0.0001;
+        int depth = 4;
+        String out = null;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--goal":    goal = Integer.parseInt(args[++i]); break;
+                case "--max-sum": maxSum = Integer.parseInt(args[++i]); break;
+                case "--cutoff":  cutoff = Double.parseDouble(args[++i]); break;
+                case "--depth":   depth = Integer.parseInt(args[++i]); break;
+                case "--out":     out = args[++i]; break;
+                default: usage(args[i]);
+            }
+        }
+        if (out == null) usage(null);
+
+        long start = System.nanoTime();
+        if (tablebase) {
+            if (Integer.bitCount(goal) != 1) usage("--goal " + goal);
+            Tablebase tb = new Tablebase(Integer.numberOfTrailingZeros(goal), maxSum);
+            tb.build();
+            tb.write(Paths.get(out));
+            System.out.printf("tablebase goal=%d max-sum=%d: %d positions%n", goal, maxSum, tb.positions());
+        } else {
+            SearchConfig config = new SearchConfig();
+            config.depth = depth;
+            OpeningBook book = new OpeningBook(maxSum, cutoff, config);
+            book.build();
+            book.write(Paths.get(out));
+            System.out.printf("opening book max-sum=%d cutoff=%g depth=%d: %d positions%n", maxSum, cutoff, depth, book.positions());
+        }
+        System.out.printf("%.2fs -> %s%n", (System.nanoTime() - start) / 1e9, out);
+    }
+
+    private static void usage(String bad) {
+        if (bad != null) System.err.println("未知参数: " + bad);
+        System.err.println(USAGE);
+        System.exit(2);
+    }
+}
@@ -1,22 +1,237 @@
 package com.game2048;
 
+import com.game2048.ai.book.BookIndex;
+import com.game2048.ai.ntuple.NTupleNetwork;
+import com.game2048.config.Config;
+import com.game2048.core.Rules;
+import com.game2048.core.Snapshot;
+import com.game2048.metrics.StartupTimer;
+import com.game2048.model.GameEngine;
+import com.game2048.persist.GameRecorder;
+import com.game2048.persist.PersistentStore;
+import com.game2048.persist.ReplayRecorder;
+import com.game2048.spectate.BroadcastServer;
+import com.game2048.spectate.SpectatorClient;
+import com.game2048.spectate.StreamEncoder;
 import com.game2048.ui.GamePanel;
 import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
+// 用法: Main [--side N] [--target T] [--seed S] [--player NAME] [--data DIR] [--no-save] [--book FILE]... [--weights FILE]
+//            [--broadcast PORT | --spectate HOST:PORT] [--record FILE]
+// 默认把最高分、统计和未完成的对局存在 ~/.game2048，下次启动自动续玩 (指定 --seed 时不续玩)
+// --book 可以给多次，供 H 键提示和 AI 使用 (由 BookBuilder 生成)：开局库命中直接走，残局库只在搜索持平时挑方向
+// --weights 让 AI 的搜索叶子用训练好的 n 元组网络估值 (由 Trainer 生成)
+// --record 把每一局录成回放 (仅 4x4)：第一局写到 FILE，之后是 FILE-2、FILE-3 ... (扩展名保留在最后)
+// --broadcast 把本局实时广播给观众；--spectate 连接到广播方只看不玩 (不存档)
+// 启动耗时见 StartupTimer (-Dgame2048.startup=true)；CDS 归档和精简运行时见 pom.xml 的 startup profile
 public class Main {
     public static void main(String[] args) {
+        StartupTimer.mark("main");
+        int side = Config.SIDE;
+        int target = Rules.WIN_TILE;
+        Long seed = null;
+        String player = System.getProperty("user.name", "player");
+        Path dataDir = Paths.get(System.getProperty("user.home"), ".game2048");
+        boolean save = true;
+        List<BookIndex> books = new ArrayList<>();
+        NTupleNetwork network = null;
+        int broadcastPort = -1;
+        String spectate = null;
+        Path record = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--side":   side = Integer.parseInt(args[++i]); break;
+                case "--target": target = Integer.parseInt(args[++i]); break;
+                case "--seed":   seed = Long.parseLong(args[++i]); break;
+                case "--player": player = args[++i]; break;
+                case "--data":   dataDir = Paths.get(args[++i]); break;
+                case "--no-save": save = false; break;
+                case "--book":   openBook(Paths.get(args[++i]), books); break;
+                case "--weights": network = loadNetwork(Paths.get(args[++i])); break;
+                case "--broadcast": broadcastPort = Integer.parseInt(args[++i]); break;
+                case "--spectate": spectate = args[++i]; break;
+                case "--record": record = Paths.get(args[++i]); break;
+                default:
+                    System.err.println("未知参数: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        // 观战时棋盘尺寸和目标以广播方为准，先等到第一个关键帧
+        final SpectatorClient spectator = spectate != null ? connect(spectate) : null;
+        if (spectator != null) {
+            side = awaitKeyframe(spectator).side;
+            target = spectator.targetTile();
+            save = false;
+        }
+        // 指定种子时对局可完全复现，便于提交 bug 和回归测试
+        final GameEngine engine = seed != null ? new GameEngine(side, target, seed) : new GameEngine(side, target);
+        final PersistentStore store = save ? openStore(dataDir) : null;
+        final NTupleNetwork evaluator = network;
+        if (broadcastPort >= 0 && spectator == null) startBroadcast(engine, broadcastPort);
+        if (store != null) {
+            Snapshot saved = store.savedGame();
+            // 尺寸或目标变了、放不进当前引擎的存档不续玩，第一步之后就被新局面覆盖
+            if (seed == null && saved != null && engine.accepts(saved)) engine.resume(saved);
+            engine.addListener(new GameRecorder(engine, store, player));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    System.err.println("存档关闭失败: " + e.getMessage());
+                }
+            }));
+        }
+
+        if (record != null && spectator == null) startRecording(engine, record);
+        StartupTimer.mark("engine");
+
         SwingUtilities.invokeLater(() -> {
+            // 加载 UI 面板
+            GamePanel panel = new GamePanel(engine);
+            if (store != null) panel.setBestScore(store::bestScore);
+            panel.setBooks(books.toArray(new BookIndex[0]));
+            if (evaluator != null) panel.setEvaluator(evaluator);
+            if (spectator != null) panel.spectate(spectator);
+            StartupTimer.mark("panel");
+
+            // 无显示器的 CDS 训练运行：画到离屏图像上，同样走完第一帧的全部代码
+            if (StartupTimer.EXIT_AFTER_FIRST_FRAME && GraphicsEnvironment.isHeadless()) {
+                paintOffscreen(panel);
+                return;
+            }
+
             JFrame frame = new JFrame("2048 - Java Project Edition");
             frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
             frame.setResizable(false);
-
-            // 加载 UI 面板
-            GamePanel panel = new GamePanel();
             frame.add(panel);
 
             frame.pack();
             frame.setLocationRelativeTo(null);
             frame.setVisible(true);
+            StartupTimer.mark("visible");
         });
+        // 主线程此后空闲，顺手把引擎和 AI 的查表初始化掉，免得第一次移动或提示时在 EDT 上做
+        prewarm();
+    }
+
+    private static void prewarm() {
+        String[] classes = {
+                "com.game2048.core.BitBoard",
+                "com.game2048.core.Symmetry",
+                "com.game2048.ai.Heuristic",
+        };
+        for (String name : classes) {
+            try {
+                Class.forName(name, true, Main.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                System.err.println("预热失败: " + name);
+            }
+        }
+        StartupTimer.mark("prewarm");
+    }
+
+    private static void paintOffscreen(GamePanel panel) {
+        Dimension size = panel.getPreferredSize();
+        panel.setSize(size);
+        BufferedImage image = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            panel.paint(g);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private static SpectatorClient connect(String hostPort) {
+        int colon = hostPort.lastIndexOf(':');
+        try {
+            if (colon < 0) throw new IOException("需要 HOST:PORT");
+            return new SpectatorClient(new InetSocketAddress(hostPort.substring(0, colon),
+                    Integer.parseInt(hostPort.substring(colon + 1))));
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("无法连接广播方 " + hostPort + ": " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
+
+    private static Snapshot awaitKeyframe(SpectatorClient client) {
+        try {
+            return client.awaitKeyframe();
+        } catch (IOException e) {
+            System.err.println("观战连接中断: " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
+
+    // 在续玩之后调用，续上的这一局从当前局面开始录
+    private static void startRecording(GameEngine engine, Path file) {
+        if (!engine.isPacked()) {
+            System.err.println("回放只支持 4x4 且目标不超过 32768 的棋盘，不录制");
+            return;
+        }
+        ReplayRecorder recorder = new ReplayRecorder(engine, file);
+        engine.addListener(recorder);
+        recorder.start();
+        // 退出时把缓冲里的回合写出去
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                System.err.println("回放关闭失败: " + e.getMessage());
+            }
+        }));
+    }
+
+    // 广播起不来时照常游戏
+    private static void startBroadcast(GameEngine engine, int port) {
+        try {
+            BroadcastServer server = new BroadcastServer(new InetSocketAddress(port));
+            server.start();
+            StreamEncoder encoder = new StreamEncoder(engine, server::publish);
+            engine.addListener(encoder);
+            encoder.keyframe();
+            System.out.println("正在广播，端口 " + server.port());
+        } catch (IOException e) {
+            System.err.println("广播启动失败: " + e.getMessage());
+        }
+    }
+
+    // 权重文件打不开时退回默认启发式
+    private static NTupleNetwork loadNetwork(Path path) {
+        try {
+            return NTupleNetwork.load(path);
+        } catch (IOException e) {
+            System.err.println("网络权重加载失败: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // 库文件打不开时只是没有提示
+    private static void openBook(Path path, List<BookIndex> books) {
+        try {
+            books.add(new BookIndex(path));
+        } catch (IOException e) {
+            System.err.println("开局库加载失败: " + e.getMessage());
+        }
+    }
+
+    // 存档不可用时照常游戏，只是不保存
+    private static PersistentStore openStore(Path dir) {
+        try {
+            return new PersistentStore(dir);
+        } catch (IOException e) {
+            System.err.println("存档目录不可用，本次不保存: " + e.getMessage());
+            return null;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,43 @@
+package com.game2048;
+
+import com.game2048.server.GameServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+// 无界面对局服务入口，协议见 server.LineProtocol
+// 用法: Server [--host H] [--port P] [--loops N] [--max-sessions M] [--idle-seconds S]
+public class Server {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String host = "0.0.0.0";
+        int port = 2048;
+        int loops = Runtime.getRuntime().availableProcessors();
+        int maxSessions = 200_000;
+        long idleSeconds = 300;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--host":         host = args[++i]; break;
+                case "--port":         port = Integer.parseInt(args[++i]); break;
+                case "--loops":        loops = Integer.parseInt(args[++i]); break;
+                case "--max-sessions": maxSessions = Integer.parseInt(args[++i]); break;
+                case "--idle-seconds": idleSeconds = Long.parseLong(args[++i]); break;
+                default:
+                    System.err.println("未知参数: " + args[i]);
+                    System.err.println("用法: Server [--host H] [--port P] [--loops N] [--max-sessions M] [--idle-seconds S]");
+                    System.exit(2);
+            }
+        }
+
+        GameServer server = new GameServer(new InetSocketAddress(host, port), loops, maxSessions, idleSeconds * 1000);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException ignored) {
+            }
+        }));
+        System.out.printf("2048 server listening on %s:%d, %d loops, idle timeout %ds%n", host, server.port(), loops, idleSeconds);
+        Thread.currentThread().join();
+    }
+}
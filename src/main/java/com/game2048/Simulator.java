@@ -0,0 +1,86 @@
+package com.game2048;
+
+import com.game2048.core.RandomSource;
+import com.game2048.core.SplittableRandomSource;
+import com.game2048.core.XoroshiroRandomSource;
+import com.game2048.dataset.DatasetWriter;
+import com.game2048.sim.Policies;
+import com.game2048.sim.Policy;
+import com.game2048.sim.SimulationRunner;
+import com.game2048.sim.SimulationStats;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+// 无界面批量模拟入口
+// 用法: Simulator [--games N] [--threads T] [--policy random|greedy|expectimax] [--seed S] [--rng splittable|xoroshiro]
+//                  [--dataset FILE [--canonical]]
+// 指定 --dataset 时单线程运行，每一步写成一行训练数据；--canonical 把棋盘换成对称代表元
+public class Simulator {
+    public static void main(String[] args) throws InterruptedException, IOException {
+        long games = 100_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String policy = "random";
+        long seed = System.nanoTime();
+        String rng = "splittable";
+        String dataset = null;
+        boolean canonical = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games":   games = Long.parseLong(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--policy":  policy = args[++i]; break;
+                case "--seed":    seed = Long.parseLong(args[++i]); break;
+                case "--rng":     rng = args[++i]; break;
+                case "--dataset": dataset = args[++i]; break;
+                case "--canonical": canonical = true; break;
+                default:
+                    System.err.println("未知参数: " + args[i]);
+                    usage();
+            }
+        }
+        if (threads < 1) {
+            System.err.println("线程数至少为 1: " + threads);
+            usage();
+        }
+
+        RandomSource root = "xoroshiro".equals(rng) ? new XoroshiroRandomSource(seed) : new SplittableRandomSource(seed);
+        long start = System.nanoTime();
+        SimulationStats stats;
+        if (dataset != null) {
+            threads = 1;
+            try (DatasetWriter out = new DatasetWriter(Paths.get(dataset), canonical);
+                 Policy chosen = Policies.byName(policy).get()) {
+                stats = SimulationRunner.recordGames(games, root, chosen, out);
+                System.out.printf("dataset %s: %d rows%n", dataset, out.rows());
+            }
+        } else {
+            stats = new SimulationRunner(threads, Policies.byName(policy), root).run(games);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("policy=%s games=%d threads=%d seed=%d rng=%s%n", policy, stats.games, threads, seed, rng);
+        System.out.printf("%.2fs, %.0f games/s, %.0f moves/s%n", seconds, stats.games / seconds, stats.moves / seconds);
+        System.out.printf("avg score %.1f, best %d, avg moves %.1f%n",
+                (double) stats.totalScore / stats.games, stats.bestScore, (double) stats.moves / stats.games);
+
+        System.out.println("score histogram:");
+        for (int i = 0; i < stats.scoreHistogram.length; i++) {
+            if (stats.scoreHistogram[i] == 0) continue;
+            long lo = i == 0 ? 0 : 1L << (i - 1);
+            System.out.printf("  [%d, %d) %d%n", lo, 1L << i, stats.scoreHistogram[i]);
+        }
+        System.out.println("max tile:");
+        for (int i = 1; i < stats.maxTileHistogram.length; i++) {
+            if (stats.maxTileHistogram[i] == 0) continue;
+            System.out.printf("  %6d %d (%.2f%%)%n", 1 << i, stats.maxTileHistogram[i],
+                    100.0 * stats.maxTileHistogram[i] / stats.games);
+        }
+    }
+
+    private static void usage() {
+        System.err.println("用法: Simulator [--games N] [--threads T] [--policy random|greedy|expectimax] [--seed S] [--rng splittable|xoroshiro] [--dataset FILE [--canonical]]");
+        System.exit(2);
+    }
+}
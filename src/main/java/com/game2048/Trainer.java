@@ -0,0 +1,67 @@
+package com.game2048;
+
+import com.game2048.ai.ntuple.NTupleNetwork;
+import com.game2048.ai.ntuple.TDTrainer;
+import com.game2048.core.SplittableRandomSource;
+import com.game2048.sim.SimulationStats;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// n 元组网络的离线训练入口，每轮结束打印进度并保存一次权重
+// 用法: Trainer --out FILE [--games N] [--rounds R] [--threads T] [--tuples 6|4] [--alpha A] [--tc] [--seed S]
+// --out 已存在时接着训练；--tc 开启时间一致性学习
+public class Trainer {
+    private static final String USAGE = "用法: Trainer --out FILE [--games N] [--rounds R] [--threads T] [--tuples 6|4] [--alpha A] [--tc] [--seed S]";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String out = null;
+        long games = 100_000;
+        int rounds = 10;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String tuples = "6";
+        float alpha = 0.1f;
+        boolean coherence = false;
+        long seed = System.nanoTime();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--out":     out = args[++i]; break;
+                case "--games":   games = Long.parseLong(args[++i]); break;
+                case "--rounds":  rounds = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--tuples":  tuples = args[++i]; break;
+                case "--alpha":   alpha = Float.parseFloat(args[++i]); break;
+                case "--tc":      coherence = true; break;
+                case "--seed":    seed = Long.parseLong(args[++i]); break;
+                default:
+                    System.err.println("未知参数: " + args[i]);
+                    System.err.println(USAGE);
+                    System.exit(2);
+            }
+        }
+        if (out == null) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        Path path = Paths.get(out);
+        NTupleNetwork network = Files.exists(path) ? NTupleNetwork.load(path) : new NTupleNetwork(NTupleNetwork.patterns(tuples));
+        if (coherence) network.enableCoherence();
+        TDTrainer trainer = new TDTrainer(network, alpha, threads, new SplittableRandomSource(seed));
+        System.out.printf("training %s: %d rounds x %d games, threads=%d alpha=%g tc=%b seed=%d%n",
+                out, rounds, games / rounds, threads, alpha, coherence, seed);
+
+        for (int round = 1; round <= rounds; round++) {
+            long start = System.nanoTime();
+            SimulationStats stats = trainer.train(games / rounds);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            network.save(path);
+            System.out.printf("round %d: avg score %.0f, best %d, 2048 %.1f%%, 8192 %.1f%%, %.0f moves/s%n",
+                    round, (double) stats.totalScore / stats.games, stats.bestScore,
+                    100 * stats.rateAtLeast(2048), 100 * stats.rateAtLeast(8192), stats.moves / seconds);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.game2048.ai;
+
+// 叶子局面的估值函数，搜索在深度用尽或概率过低时调用；实现必须线程安全且不分配对象
+// 置换表按对称代表元共享，所以估值也应当对 8 种对称不变
+@FunctionalInterface
+public interface Evaluator {
+    float evaluate(long board);
+}
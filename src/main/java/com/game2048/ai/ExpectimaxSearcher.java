@@ -0,0 +1,242 @@
+package com.game2048.ai;
+
+import com.game2048.ai.book.BookIndex;
+import com.game2048.core.BitBoard;
+import com.game2048.core.Direction;
+import com.game2048.core.Rules;
+import com.game2048.core.Symmetry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+// 期望最大化搜索：玩家节点取最大，生成节点按 2/4 的出现概率取期望
+// 根节点的每个方向、以及其后的每个生成位置都作为独立的 fork-join 任务并行计算
+// 置换表按棋盘共享，所有线程无锁读写
+public class ExpectimaxSearcher {
+    private static final double SPAWN_TWO = 1.0 - Rules.SPAWN_FOUR_PROBABILITY;
+    private static final double SPAWN_FOUR = Rules.SPAWN_FOUR_PROBABILITY;
+    // 每展开这么多节点检查一次时间
+    private static final int DEADLINE_CHECK_MASK = 0x3FF;
+    // 根节点两个方向的估值相差不到这个比例就算持平，交给残局库挑
+    private static final float TIE_TOLERANCE = 1e-5f;
+
+    private final SearchConfig config;
+    private final TranspositionTable table;
+
+    private long totalNodes;
+    private long totalNanos;
+
+    public ExpectimaxSearcher(SearchConfig config) {
+        this.config = config;
+        this.table = new TranspositionTable(config.tableBits);
+    }
+
+    public ExpectimaxSearcher() {
+        this(new SearchConfig());
+    }
+
+    public SearchResult search(long board) {
+        long start = System.nanoTime();
+        // 开局库命中时深度记为 0
+        for (BookIndex book : config.books) {
+            if (book.kind() != BookIndex.KIND_OPENING) continue;
+            Direction move = book.bestMove(board);
+            if (move != null) return new SearchResult(move, book.value(board), 0, 0, System.nanoTime() - start, true);
+        }
+        long deadline = config.timeBudgetMillis > 0 ? start + config.timeBudgetMillis * 1_000_000L : Long.MAX_VALUE;
+        int maxDepth = config.depth > 0 ? config.depth : autoDepth(board);
+
+        Direction best = null;
+        float bestValue = 0;
+        float[] bestValues = null;
+        int reached = 0;
+        long nodes = 0;
+        // 迭代加深：有时间预算时先保证浅层结果可用
+        int firstDepth = config.timeBudgetMillis > 0 ? 1 : maxDepth;
+        for (int depth = firstDepth; depth <= maxDepth; depth++) {
+            RootTask root = new RootTask(board, depth, deadline);
+            float[] values = config.pool.invoke(root);
+            nodes += root.nodes;
+            if (root.aborted) break;
+
+            best = null;
+            bestValue = 0;
+            for (Direction d : Direction.ALL) {
+                float v = values[d.code];
+                if (!Float.isNaN(v) && (best == null || v > bestValue)) {
+                    best = d;
+                    bestValue = v;
+                }
+            }
+            bestValues = values;
+            reached = depth;
+            if (best == null || System.nanoTime() >= deadline) break;
+        }
+
+        // 时间太紧、连第一层都没算完时，退回到任意一个合法方向
+        if (reached == 0) {
+            int legal = BitBoard.legalMoves(board);
+            if (legal != 0) best = Direction.of(Integer.numberOfTrailingZeros(legal));
+        }
+
+        if (best != null) best = breakTie(board, best, bestValue, bestValues);
+
+        long elapsed = System.nanoTime() - start;
+        synchronized (this) {
+            totalNodes += nodes;
+            totalNanos += elapsed;
+        }
+        return new SearchResult(best, bestValue, reached, nodes, elapsed);
+    }
+
+    // 残局库给出的方向与搜索的最优值持平时改用残局库的方向
+    private Direction breakTie(long board, Direction best, float bestValue, float[] values) {
+        for (BookIndex book : config.books) {
+            if (book.kind() != BookIndex.KIND_TABLEBASE) continue;
+            Direction move = book.bestMove(board);
+            if (move == null || move == best) continue;
+            float v = values[move.code];
+            if (!Float.isNaN(v) && bestValue - v <= TIE_TOLERANCE * Math.abs(bestValue)) return move;
+        }
+        return best;
+    }
+
+    // 累计吞吐，便于在多核机器上调参
+    public synchronized double nodesPerSecond() {
+        return totalNanos == 0 ? 0 : totalNodes * 1e9 / totalNanos;
+    }
+
+    public void clearTable() {
+        table.clear();
+    }
+
+    // 不同数字越多，局面越复杂，搜得越深
+    static int autoDepth(long board) {
+        int seen = 0;
+        for (int i = 0; i < BitBoard.CELLS; i++) seen |= 1 << BitBoard.exponentAt(board, i);
+        int distinct = Integer.bitCount(seen & ~1);
+        return Math.max(3, distinct - 2);
+    }
+
+    // --- fork-join 任务 ---
+
+    @SuppressWarnings("serial")
+    private final class RootTask extends RecursiveTask<float[]> {
+        final long board;
+        final int depth;
+        final long deadline;
+        long nodes;
+        boolean aborted;
+
+        RootTask(long board, int depth, long deadline) {
+            this.board = board;
+            this.depth = depth;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected float[] compute() {
+            float[] values = new float[Direction.ALL.length];
+            List<List<SpawnTask>> perMove = new ArrayList<>();
+            for (Direction d : Direction.ALL) {
+                List<SpawnTask> tasks = new ArrayList<>();
+                long next = Rules.move(board, d);
+                if (next != board) {
+                    // 生成节点的概率在各个空格间平分
+                    double prob = 1.0 / BitBoard.countEmpty(next);
+                    for (int i = 0; i < BitBoard.CELLS; i++) {
+                        if (BitBoard.exponentAt(next, i) != 0) continue;
+                        SpawnTask t = new SpawnTask(next, i, depth - 1, prob, deadline);
+                        t.fork();
+                        tasks.add(t);
+                    }
+                }
+                perMove.add(tasks);
+            }
+
+            for (Direction d : Direction.ALL) {
+                List<SpawnTask> tasks = perMove.get(d.code);
+                if (tasks.isEmpty()) {
+                    values[d.code] = Float.NaN;
+                    continue;
+                }
+                double sum = 0;
+                for (SpawnTask t : tasks) {
+                    sum += t.join();
+                    nodes += t.search.nodes;
+                    aborted |= t.search.aborted;
+                }
+                values[d.code] = (float) (sum / tasks.size());
+            }
+            return values;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private final class SpawnTask extends RecursiveTask<Double> {
+        final long board;
+        final int cell;
+        final int depth;
+        final double prob;
+        final Search search;
+
+        SpawnTask(long board, int cell, int depth, double prob, long deadline) {
+            this.board = board;
+            this.cell = cell;
+            this.depth = depth;
+            this.prob = prob;
+            this.search = new Search(deadline);
+        }
+
+        @Override
+        protected Double compute() {
+            double two = search.maxNode(BitBoard.withExponent(board, cell, 1), depth, prob * SPAWN_TWO);
+            double four = search.maxNode(BitBoard.withExponent(board, cell, 2), depth, prob * SPAWN_FOUR);
+            return two * SPAWN_TWO + four * SPAWN_FOUR;
+        }
+    }
+
+    // 单线程递归部分，每个任务一份，计数器不共享
+    private final class Search {
+        final long deadline;
+        long nodes;
+        boolean aborted;
+
+        Search(long deadline) {
+            this.deadline = deadline;
+        }
+
+        double maxNode(long board, int depth, double prob) {
+            double best = 0;
+            for (int dir = 0; dir < 4; dir++) {
+                long next = BitBoard.move(board, dir);
+                if (next == board) continue;
+                best = Math.max(best, chanceNode(next, depth, prob));
+            }
+            return best;
+        }
+
+        double chanceNode(long board, int depth, double prob) {
+            if ((++nodes & DEADLINE_CHECK_MASK) == 0 && System.nanoTime() >= deadline) aborted = true;
+            if (aborted || depth <= 0 || prob < config.probabilityCutoff) return config.evaluator.evaluate(board);
+
+            // 估值对 8 种对称不变，置换表按代表元存取，对称的局面共用一项
+            long key = Symmetry.canonical(board);
+            float cached = table.probe(key, depth);
+            if (!Float.isNaN(cached)) return cached;
+
+            int empty = BitBoard.countEmpty(board);
+            double cellProb = prob / empty;
+            double sum = 0;
+            for (int i = 0; i < BitBoard.CELLS; i++) {
+                if (BitBoard.exponentAt(board, i) != 0) continue;
+                sum += maxNode(BitBoard.withExponent(board, i, 1), depth - 1, cellProb * SPAWN_TWO) * SPAWN_TWO;
+                sum += maxNode(BitBoard.withExponent(board, i, 2), depth - 1, cellProb * SPAWN_FOUR) * SPAWN_FOUR;
+            }
+            double value = sum / empty;
+            if (!aborted) table.store(key, depth, (float) value);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.game2048.ai;
+
+import com.game2048.core.BitBoard;
+
+// 局面估值：逐行查表，行和列各算一遍再相加
+// 每行考虑空格数、可合并数、单调性，并惩罚大数过多
+public final class Heuristic {
+    private static final float LOST_PENALTY = 200000.0f;
+    private static final float MONOTONICITY_POWER = 4.0f;
+    private static final float MONOTONICITY_WEIGHT = 47.0f;
+    private static final float SUM_POWER = 3.5f;
+    private static final float SUM_WEIGHT = 11.0f;
+    private static final float MERGES_WEIGHT = 700.0f;
+    private static final float EMPTY_WEIGHT = 270.0f;
+
+    private static final float[] ROW_SCORE = new float[65536];
+
+    static {
+        int[] line = new int[BitBoard.SIDE];
+        for (int row = 0; row < 65536; row++) {
+            for (int i = 0; i < BitBoard.SIDE; i++) line[i] = (row >>> (4 * i)) & 0xF;
+
+            float sum = 0;
+            int empty = 0;
+            int merges = 0;
+            int prev = 0;
+            int counter = 0;
+            for (int rank : line) {
+                sum += Math.pow(rank, SUM_POWER);
+                if (rank == 0) {
+                    empty++;
+                } else {
+                    if (prev == rank) {
+                        counter++;
+                    } else if (counter > 0) {
+                        merges += 1 + counter;
+                        counter = 0;
+                    }
+                    prev = rank;
+                }
+            }
+            if (counter > 0) merges += 1 + counter;
+
+            float monoLeft = 0;
+            float monoRight = 0;
+            for (int i = 1; i < BitBoard.SIDE; i++) {
+                double a = Math.pow(line[i - 1], MONOTONICITY_POWER);
+                double b = Math.pow(line[i], MONOTONICITY_POWER);
+                if (line[i - 1] > line[i]) {
+                    monoLeft += a - b;
+                } else {
+                    monoRight += b - a;
+                }
+            }
+
+            ROW_SCORE[row] = LOST_PENALTY + EMPTY_WEIGHT * empty + MERGES_WEIGHT * merges
+                    - MONOTONICITY_WEIGHT * Math.min(monoLeft, monoRight) - SUM_WEIGHT * sum;
+        }
+    }
+
+    private Heuristic() {
+    }
+
+    public static float evaluate(long board) {
+        return rows(board) + rows(BitBoard.transpose(board));
+    }
+
+    private static float rows(long board) {
+        return ROW_SCORE[(int) (board & 0xFFFF)]
+                + ROW_SCORE[(int) ((board >>> 16) & 0xFFFF)]
+                + ROW_SCORE[(int) ((board >>> 32) & 0xFFFF)]
+                + ROW_SCORE[(int) ((board >>> 48) & 0xFFFF)];
+    }
+}
@@ -0,0 +1,23 @@
+package com.game2048.ai;
+
+import com.game2048.ai.book.BookIndex;
+
+import java.util.concurrent.ForkJoinPool;
+
+// 搜索参数，直接改字段即可
+public class SearchConfig {
+    // 最大搜索深度 (玩家步数)；0 表示按棋盘上不同数字的个数自动决定
+    public int depth = 0;
+    // 单步时间预算，超时后返回已完成的最深一层结果；0 表示不限时
+    public long timeBudgetMillis = 0;
+    // 置换表大小为 2^tableBits 项
+    public int tableBits = 20;
+    // 出现概率低于此值的分支直接估值，不再展开
+    public double probabilityCutoff = 0.0001;
+    public ForkJoinPool pool = ForkJoinPool.commonPool();
+    // 叶子估值，默认手工启发式；也可以换成训练好的 n 元组网络
+    public Evaluator evaluator = Heuristic::evaluate;
+    // 开局库命中时直接用库里的方向，不再搜索 (按顺序查)
+    // 残局库的估值是"在数字和上限内合成目标"的概率，与搜索的估值不是一回事，只在搜索结果持平时用来挑方向
+    public BookIndex[] books = new BookIndex[0];
+}
@@ -0,0 +1,37 @@
+package com.game2048.ai;
+
+import com.game2048.core.Direction;
+
+// 一次搜索的结果和统计，direction 为 null 表示已无路可走
+// fromBook 为 true 时方向直接取自开局库，value 是建库时的搜索估值，不是本次搜索算出来的
+public class SearchResult {
+    public final Direction direction;
+    public final float value;
+    public final boolean fromBook;
+    public final int depth;
+    public final long nodes;
+    public final long elapsedNanos;
+
+    public SearchResult(Direction direction, float value, int depth, long nodes, long elapsedNanos) {
+        this(direction, value, depth, nodes, elapsedNanos, false);
+    }
+
+    public SearchResult(Direction direction, float value, int depth, long nodes, long elapsedNanos, boolean fromBook) {
+        this.direction = direction;
+        this.value = value;
+        this.fromBook = fromBook;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public double nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s depth=%d value=%.0f nodes=%d %.2fms %.0f nodes/s%s",
+                direction, depth, value, nodes, elapsedNanos / 1e6, nodesPerSecond(), fromBook ? " (book)" : "");
+    }
+}
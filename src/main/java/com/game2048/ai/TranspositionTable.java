@@ -0,0 +1,46 @@
+package com.game2048.ai;
+
+import java.util.Arrays;
+
+// 定长、无锁的置换表，按棋盘哈希直接寻址，冲突时覆盖
+// 写入时 key 与数据异或后存放，读到被并发写坏的槽位会校验失败，当作未命中处理
+public final class TranspositionTable {
+    private final long[] keys;
+    private final long[] data;
+    private final int shift;
+
+    public TranspositionTable(int bits) {
+        if (bits < 1 || bits > 30) throw new IllegalArgumentException("bits: " + bits);
+        keys = new long[1 << bits];
+        data = new long[1 << bits];
+        shift = 64 - bits;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+    }
+
+    // 命中且搜索深度不低于 depth 时返回估值，否则返回 NaN
+    public float probe(long board, int depth) {
+        int slot = slot(board);
+        long d = data[slot];
+        if ((keys[slot] ^ d) != board || (int) (d & 0xFF) < depth) return Float.NaN;
+        return Float.intBitsToFloat((int) (d >>> 32));
+    }
+
+    public void store(long board, int depth, float value) {
+        int slot = slot(board);
+        long d = ((long) Float.floatToRawIntBits(value) << 32) | (depth & 0xFF);
+        data[slot] = d;
+        keys[slot] = board ^ d;
+    }
+
+    private int slot(long board) {
+        return (int) ((board * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+}
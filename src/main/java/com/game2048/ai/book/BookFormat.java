@@ -0,0 +1,33 @@
+package com.game2048.ai.book;
+
+// 开局库 / 残局库文件格式 (小端)：
+//   文件头 32 字节: int MAGIC | int VERSION | int 种类 | int 目标指数 | long 条目数 | 其余补零
+//   long[n] 局面 (对称代表元，按有符号数升序) | float[n] 估值 | byte[n] 代表元下的最佳方向
+// 三列定长，第 i 条的位置只由 i 算出；查询就是在局面列上二分
+final class BookFormat {
+    static final int MAGIC = 0x32303442; // "204B"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+
+    // 没有合法方向 (死局)
+    static final byte NO_MOVE = -1;
+
+    private BookFormat() {
+    }
+
+    static long keysOffset() {
+        return HEADER_BYTES;
+    }
+
+    static long valuesOffset(long entries) {
+        return HEADER_BYTES + 8 * entries;
+    }
+
+    static long movesOffset(long entries) {
+        return HEADER_BYTES + 12 * entries;
+    }
+
+    static long fileBytes(long entries) {
+        return HEADER_BYTES + 13 * entries;
+    }
+}
@@ -0,0 +1,103 @@
+package com.game2048.ai.book;
+
+import com.game2048.core.Direction;
+import com.game2048.core.Symmetry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.game2048.ai.book.BookFormat.*;
+
+// 只读打开开局库或残局库：整个文件映射进内存，一次查询是代表元变换加一次二分，不在堆上分配
+// 库里只存对称代表元和代表元下的方向，查询时再用逆变换换回原局面的方向
+// 所有读取都是绝对位置访问，可以多线程同时查
+public final class BookIndex implements Closeable {
+    // 开局库：估值是搜索得到的启发式分数
+    public static final int KIND_OPENING = 0;
+    // 残局库：估值是在牌面总和不超过上限的前提下合成目标数字的精确概率
+    public static final int KIND_TABLEBASE = 1;
+
+    private final FileChannel channel;
+    private final ByteBuffer data;
+    private final int kind;
+    private final int goalExponent;
+    private final int size;
+
+    public BookIndex(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("not a 2048 book: " + path);
+        }
+        data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("not a 2048 book: " + path);
+        }
+        kind = data.getInt(8);
+        goalExponent = data.getInt(12);
+        long entries = data.getLong(16);
+        if (fileBytes(entries) != channel.size()) {
+            channel.close();
+            throw new IOException("truncated book: " + path);
+        }
+        size = (int) entries;
+    }
+
+    public int kind() {
+        return kind;
+    }
+
+    // 残局库的目标数字指数；开局库为 0
+    public int goalExponent() {
+        return goalExponent;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // 代表元在库中的下标，没有时返回 -1
+    public int indexOf(long canonical) {
+        int lo = 0, hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long key = data.getLong(HEADER_BYTES + 8 * mid);
+            if (key < canonical) lo = mid + 1;
+            else if (key > canonical) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    public boolean contains(long board) {
+        return indexOf(Symmetry.canonical(board)) >= 0;
+    }
+
+    // 局面估值 (对称不变)，库里没有时返回 NaN
+    public float value(long board) {
+        int i = indexOf(Symmetry.canonical(board));
+        return i < 0 ? Float.NaN : data.getFloat((int) valuesOffset(size) + 4 * i);
+    }
+
+    // 原局面下的最佳方向；库里没有或已是死局时返回 null
+    public Direction bestMove(long board) {
+        int symmetry = Symmetry.canonicalSymmetry(board);
+        int i = indexOf(Symmetry.apply(board, symmetry));
+        if (i < 0) return null;
+        byte move = data.get((int) movesOffset(size) + i);
+        if (move == NO_MOVE) return null;
+        return Symmetry.apply(Direction.of(move), Symmetry.inverse(symmetry));
+    }
+
+    // 映射会在 GC 回收缓冲时解除，这里只关闭文件
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
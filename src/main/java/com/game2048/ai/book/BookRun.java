@@ -0,0 +1,90 @@
+package com.game2048.ai.book;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static com.game2048.ai.book.BookFormat.*;
+
+// 一段按局面升序排好的条目，生成器按层产出若干段，最后归并成一个文件
+final class BookRun {
+    // 写文件时的缓冲大小
+    private static final int WRITE_CHUNK = 1 << 20;
+
+    final long[] keys;
+    final float[] values;
+    final byte[] moves;
+
+    BookRun(long[] keys, float[] values, byte[] moves) {
+        this.keys = keys;
+        this.values = values;
+        this.moves = moves;
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    // 两两归并，共 log(段数) 轮；各段之间的局面互不重复
+    static BookRun merge(List<BookRun> runs) {
+        if (runs.isEmpty()) return new BookRun(new long[0], new float[0], new byte[0]);
+        return merge(runs, 0, runs.size());
+    }
+
+    private static BookRun merge(List<BookRun> runs, int from, int to) {
+        if (to - from == 1) return runs.get(from);
+        int mid = (from + to) >>> 1;
+        BookRun a = merge(runs, from, mid);
+        BookRun b = merge(runs, mid, to);
+        int n = a.size() + b.size();
+        BookRun out = new BookRun(new long[n], new float[n], new byte[n]);
+        int i = 0, j = 0;
+        for (int k = 0; k < n; k++) {
+            if (j == b.size() || (i < a.size() && a.keys[i] < b.keys[j])) {
+                out.keys[k] = a.keys[i];
+                out.values[k] = a.values[i];
+                out.moves[k] = a.moves[i++];
+            } else {
+                out.keys[k] = b.keys[j];
+                out.values[k] = b.values[j];
+                out.moves[k] = b.moves[j++];
+            }
+        }
+        return out;
+    }
+
+    void write(Path path, int kind, int goalExponent) throws IOException {
+        long n = size();
+        if (fileBytes(n) > Integer.MAX_VALUE) throw new IOException("book too large: " + n + " entries");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(WRITE_CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putInt(VERSION).putInt(kind).putInt(goalExponent).putLong(n);
+            while (buf.position() < HEADER_BYTES) buf.put((byte) 0);
+            for (long key : keys) {
+                if (buf.remaining() < 8) drain(channel, buf);
+                buf.putLong(key);
+            }
+            for (float value : values) {
+                if (buf.remaining() < 4) drain(channel, buf);
+                buf.putFloat(value);
+            }
+            for (byte move : moves) {
+                if (!buf.hasRemaining()) drain(channel, buf);
+                buf.put(move);
+            }
+            drain(channel, buf);
+            channel.force(true);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) channel.write(buf);
+        buf.clear();
+    }
+}
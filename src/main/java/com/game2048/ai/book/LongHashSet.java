@@ -0,0 +1,55 @@
+package com.game2048.ai.book;
+
+// 开放寻址的 long 集合，只给生成器去重用；0 是空槽标记 (合法局面至少有两块，不会是 0)
+final class LongHashSet {
+    private long[] slots;
+    private int mask;
+    private int size;
+
+    LongHashSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        slots = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    void add(long key) {
+        int i = slot(key);
+        while (slots[i] != 0) {
+            if (slots[i] == key) return;
+            i = (i + 1) & mask;
+        }
+        slots[i] = key;
+        // 负载超过一半就翻倍
+        if (++size * 2 > slots.length) grow();
+    }
+
+    int size() {
+        return size;
+    }
+
+    long[] toArray() {
+        long[] out = new long[size];
+        int n = 0;
+        for (long key : slots) {
+            if (key != 0) out[n++] = key;
+        }
+        return out;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E37_79B9_7F4A_7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        mask = slots.length - 1;
+        for (long key : old) {
+            if (key == 0) continue;
+            int i = slot(key);
+            while (slots[i] != 0) i = (i + 1) & mask;
+            slots[i] = key;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.game2048.ai.book;
+
+import com.game2048.ai.ExpectimaxSearcher;
+import com.game2048.ai.SearchConfig;
+import com.game2048.ai.SearchResult;
+import com.game2048.core.BitBoard;
+import com.game2048.core.Rules;
+import com.game2048.core.Symmetry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 开局库生成器：沿着库自己的走法往前推，直到牌面总和达到 maxSum，记下出现概率不低于 cutoff 的局面及其搜索结果
+// 概率按生成规则精确累加 (对称局面合并)，所以收进库的正是实际对局中最常见的开局
+// 每个局面的搜索本身在 SearchConfig.pool 上并行
+public final class OpeningBook {
+    private static final double SPAWN_TWO = 1.0 - Rules.SPAWN_FOUR_PROBABILITY;
+    private static final double SPAWN_FOUR = Rules.SPAWN_FOUR_PROBABILITY;
+
+    private final int maxSum;
+    private final double cutoff;
+    private final ExpectimaxSearcher searcher;
+    private final List<BookRun> runs = new ArrayList<>();
+
+    public OpeningBook(int maxSum, double cutoff, SearchConfig config) {
+        this.maxSum = maxSum;
+        this.cutoff = cutoff;
+        this.searcher = new ExpectimaxSearcher(config);
+    }
+
+    public void build() {
+        runs.clear();
+        // 按牌面总和分层：每回合总和增加 2 或 4，同一局面在一局里至多出现一次，
+        // 一层的所有来路都处理完后，累加出的概率就是对局经过该局面的概率
+        List<Map<Long, Double>> pending = new ArrayList<>();
+        for (int layer = 0; layer <= maxSum / 2 + 2; layer++) pending.add(new HashMap<>());
+        for (Map.Entry<Long, Double> e : starts().entrySet()) {
+            pending.get(Tablebase.tileSum(e.getKey()) / 2).put(e.getKey(), e.getValue());
+        }
+
+        for (int layer = 0; layer <= maxSum / 2; layer++) {
+            Map<Long, Double> frontier = pending.get(layer);
+            pending.set(layer, null);
+            long[] keys = frontier.entrySet().stream()
+                    .filter(e -> e.getValue() >= cutoff)
+                    .mapToLong(Map.Entry::getKey)
+                    .toArray();
+            if (keys.length == 0) continue;
+            Arrays.sort(keys);
+            float[] values = new float[keys.length];
+            byte[] moves = new byte[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                // 库里存的就是代表元，搜出的方向直接是代表元下的方向
+                SearchResult result = searcher.search(keys[i]);
+                values[i] = result.value;
+                moves[i] = result.direction == null ? BookFormat.NO_MOVE : (byte) result.direction.code;
+                if (result.direction == null) continue;
+                long after = BitBoard.move(keys[i], result.direction.code);
+                int empty = BitBoard.emptyMask(after);
+                double prob = frontier.get(keys[i]) / Integer.bitCount(empty);
+                for (int m = empty; m != 0; m &= m - 1) {
+                    int cell = Integer.numberOfTrailingZeros(m);
+                    pending.get(layer + 1).merge(Symmetry.canonical(BitBoard.withExponent(after, cell, 1)),
+                            prob * SPAWN_TWO, Double::sum);
+                    pending.get(layer + 2).merge(Symmetry.canonical(BitBoard.withExponent(after, cell, 2)),
+                            prob * SPAWN_FOUR, Double::sum);
+                }
+            }
+            runs.add(new BookRun(keys, values, moves));
+        }
+    }
+
+    public int positions() {
+        int n = 0;
+        for (BookRun run : runs) n += run.size();
+        return n;
+    }
+
+    public void write(Path path) throws IOException {
+        // 各层牌面总和不同，局面不会重复
+        BookRun.merge(runs).write(path, BookIndex.KIND_OPENING, 0);
+    }
+
+    // 开局两块：先在 16 格中任选一格，再在剩下 15 格中任选一格，各自 90% 是 2
+    private static Map<Long, Double> starts() {
+        Map<Long, Double> starts = new HashMap<>();
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            for (int j = 0; j < BitBoard.CELLS; j++) {
+                if (i == j) continue;
+                for (int a = 1; a <= 2; a++) {
+                    for (int b = 1; b <= 2; b++) {
+                        double prob = (a == 1 ? SPAWN_TWO : SPAWN_FOUR) * (b == 1 ? SPAWN_TWO : SPAWN_FOUR)
+                                / (BitBoard.CELLS * (BitBoard.CELLS - 1));
+                        long board = BitBoard.withExponent(BitBoard.withExponent(0, i, a), j, b);
+                        starts.merge(Symmetry.canonical(board), prob, Double::sum);
+                    }
+                }
+            }
+        }
+        return starts;
+    }
+}
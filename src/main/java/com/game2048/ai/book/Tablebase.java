@@ -0,0 +1,215 @@
+package com.game2048.ai.book;
+
+import com.game2048.core.BitBoard;
+import com.game2048.core.Rules;
+import com.game2048.core.Symmetry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// 残局库生成器：对所有牌面都小于目标数字、总和不超过 maxSum 的局面，算出合成目标数字的精确概率和最佳方向
+// 每回合牌面总和恰好增加 2 或 4，局面按总和分层后构成一张无环图：
+//   1. 正向：从开局的两块出发逐层展开，得到每层所有可达局面 (对称代表元，排序去重)
+//   2. 逆向：从最高层往下，每个局面的值 = 各合法方向中 "生成节点的期望值" 的最大者；超出上限的后继记为 0
+// 每层内部的局面互相独立，按块交给 fork-join 公共池并行
+public final class Tablebase {
+    private static final double SPAWN_TWO = 1.0 - Rules.SPAWN_FOUR_PROBABILITY;
+    private static final double SPAWN_FOUR = Rules.SPAWN_FOUR_PROBABILITY;
+    // 每个并行任务处理的局面数
+    private static final int CHUNK = 1 << 12;
+    private static final long[] EMPTY = new long[0];
+
+    private final int goalExponent;
+    // 层号 = 牌面总和 / 2
+    private final int maxLayer;
+    private final long[][] layers;
+    private final float[][] values;
+    private final byte[][] moves;
+
+    public Tablebase(int goalExponent, int maxSum) {
+        // 目标至少是 8，否则开局就可能已经达成
+        if (goalExponent < 3 || goalExponent > BitBoard.MAX_EXPONENT) {
+            throw new IllegalArgumentException("goal exponent out of range: " + goalExponent);
+        }
+        if (maxSum < 4) throw new IllegalArgumentException("max sum too small: " + maxSum);
+        this.goalExponent = goalExponent;
+        this.maxLayer = maxSum / 2;
+        this.layers = new long[maxLayer + 1][];
+        this.values = new float[maxLayer + 1][];
+        this.moves = new byte[maxLayer + 1][];
+    }
+
+    public void build() {
+        enumerate();
+        for (int layer = maxLayer; layer >= 0; layer--) solve(layer);
+    }
+
+    public long positions() {
+        long n = 0;
+        for (long[] layer : layers) n += layer.length;
+        return n;
+    }
+
+    // 某一层的局面数，便于观察规模
+    public int layerSize(int sum) {
+        return layers[sum / 2].length;
+    }
+
+    // 代表元的精确值；不在库里 (不可达或超出上限) 时返回 NaN
+    public float value(long board) {
+        int sum = tileSum(board);
+        if (sum / 2 > maxLayer) return Float.NaN;
+        int i = Arrays.binarySearch(layers[sum / 2], Symmetry.canonical(board));
+        return i < 0 ? Float.NaN : values[sum / 2][i];
+    }
+
+    public void write(Path path) throws IOException {
+        List<BookRun> runs = new ArrayList<>();
+        for (int layer = 0; layer <= maxLayer; layer++) {
+            runs.add(new BookRun(layers[layer], values[layer], moves[layer]));
+        }
+        BookRun.merge(runs).write(path, BookIndex.KIND_TABLEBASE, goalExponent);
+    }
+
+    static int tileSum(long board) {
+        int sum = 0;
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            int e = BitBoard.exponentAt(board, i);
+            if (e != 0) sum += 1 << e;
+        }
+        return sum;
+    }
+
+    // --- 正向展开 ---
+
+    private void enumerate() {
+        List<List<long[]>> pending = new ArrayList<>();
+        for (int layer = 0; layer <= maxLayer + 2; layer++) pending.add(new ArrayList<>());
+
+        // 开局：任意两个格子各放一个 2 或 4
+        LongHashSet starts = new LongHashSet(1024);
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            for (int j = i + 1; j < BitBoard.CELLS; j++) {
+                for (int a = 1; a <= 2; a++) {
+                    for (int b = 1; b <= 2; b++) {
+                        starts.add(Symmetry.canonical(BitBoard.withExponent(BitBoard.withExponent(0, i, a), j, b)));
+                    }
+                }
+            }
+        }
+        for (long board : starts.toArray()) pending.get(tileSum(board) / 2).add(new long[]{board});
+
+        for (int layer = 0; layer <= maxLayer; layer++) {
+            layers[layer] = unique(pending.get(layer));
+            pending.set(layer, null);
+            long[] states = layers[layer];
+            int chunks = (states.length + CHUNK - 1) / CHUNK;
+            final int current = layer;
+            List<long[][]> children = IntStream.range(0, chunks).parallel()
+                    .mapToObj(c -> expand(states, c * CHUNK, Math.min(states.length, (c + 1) * CHUNK), current))
+                    .collect(Collectors.toList());
+            for (long[][] c : children) {
+                pending.get(layer + 1).add(c[0]);
+                pending.get(layer + 2).add(c[1]);
+            }
+        }
+    }
+
+    // 一块局面的所有后继，分别是生成 2 (总和 +2) 和生成 4 (总和 +4) 的
+    private long[][] expand(long[] states, int from, int to, int layer) {
+        LongHashSet two = new LongHashSet(to - from);
+        LongHashSet four = new LongHashSet(to - from);
+        boolean twoFits = layer + 1 <= maxLayer;
+        boolean fourFits = layer + 2 <= maxLayer;
+        for (int k = from; k < to; k++) {
+            long board = states[k];
+            int legal = BitBoard.legalMoves(board);
+            for (int dir = 0; dir < 4; dir++) {
+                if ((legal & (1 << dir)) == 0) continue;
+                long next = BitBoard.move(board, dir);
+                // 合出目标数字就结束了，不再往下展开
+                if (BitBoard.containsExponent(next, goalExponent)) continue;
+                for (int empty = BitBoard.emptyMask(next); empty != 0; empty &= empty - 1) {
+                    int cell = Integer.numberOfTrailingZeros(empty);
+                    if (twoFits) two.add(Symmetry.canonical(BitBoard.withExponent(next, cell, 1)));
+                    if (fourFits) four.add(Symmetry.canonical(BitBoard.withExponent(next, cell, 2)));
+                }
+            }
+        }
+        return new long[][]{two.toArray(), four.toArray()};
+    }
+
+    private static long[] unique(List<long[]> parts) {
+        int total = 0;
+        for (long[] p : parts) total += p.length;
+        if (total == 0) return EMPTY;
+        long[] all = new long[total];
+        int n = 0;
+        for (long[] p : parts) {
+            System.arraycopy(p, 0, all, n, p.length);
+            n += p.length;
+        }
+        Arrays.parallelSort(all);
+        int w = 1;
+        for (int r = 1; r < all.length; r++) {
+            if (all[r] != all[w - 1]) all[w++] = all[r];
+        }
+        return w == all.length ? all : Arrays.copyOf(all, w);
+    }
+
+    // --- 逆向求值 ---
+
+    private void solve(int layer) {
+        long[] states = layers[layer];
+        values[layer] = new float[states.length];
+        moves[layer] = new byte[states.length];
+        int chunks = (states.length + CHUNK - 1) / CHUNK;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int to = Math.min(states.length, (c + 1) * CHUNK);
+            for (int k = c * CHUNK; k < to; k++) solve(layer, k);
+        });
+    }
+
+    private void solve(int layer, int k) {
+        long board = layers[layer][k];
+        int legal = BitBoard.legalMoves(board);
+        double best = 0;
+        byte bestMove = BookFormat.NO_MOVE;
+        for (int dir = 0; dir < 4; dir++) {
+            if ((legal & (1 << dir)) == 0) continue;
+            long next = BitBoard.move(board, dir);
+            double value;
+            if (BitBoard.containsExponent(next, goalExponent)) {
+                value = 1;
+            } else {
+                int empty = BitBoard.emptyMask(next);
+                double sum = 0;
+                for (int m = empty; m != 0; m &= m - 1) {
+                    int cell = Integer.numberOfTrailingZeros(m);
+                    sum += SPAWN_TWO * lookup(layer + 1, BitBoard.withExponent(next, cell, 1));
+                    sum += SPAWN_FOUR * lookup(layer + 2, BitBoard.withExponent(next, cell, 2));
+                }
+                value = sum / Integer.bitCount(empty);
+            }
+            if (bestMove == BookFormat.NO_MOVE || value > best) {
+                best = value;
+                bestMove = (byte) dir;
+            }
+        }
+        values[layer][k] = (float) best;
+        moves[layer][k] = bestMove;
+    }
+
+    // 已求解的高层局面的值；超出总和上限视为没能合成
+    private double lookup(int layer, long board) {
+        if (layer > maxLayer) return 0;
+        int i = Arrays.binarySearch(layers[layer], Symmetry.canonical(board));
+        if (i < 0) throw new IllegalStateException("unreachable successor " + Long.toHexString(board));
+        return values[layer][i];
+    }
+}
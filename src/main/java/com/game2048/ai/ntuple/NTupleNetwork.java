@@ -0,0 +1,265 @@
+package com.game2048.ai.ntuple;
+
+import com.game2048.ai.Evaluator;
+import com.game2048.core.BitBoard;
+import com.game2048.core.Symmetry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// n 元组网络：每个形状 (若干格子) 对应一张 16^n 项的 float 表，下标就是这些格子的半字节依次拼起来
+// 每个形状在 8 种对称下各取一次，共用同一张表，所以估值对称不变，可以直接配合按代表元共享的置换表
+// 估值和更新都只做移位、查表和加法，不分配对象；多线程训练时不加锁 (Hogwild)，偶尔丢一次更新无关紧要
+// 所有表放在一个扁平数组里，各特征在对称下的格子位置预先算好，估值时不用变换棋盘
+public final class NTupleNetwork implements Evaluator {
+    // 6 格元组 (两条 2x3 的 "长条" 加两个 "拐角")，每张表 16^6 项，四张共约 256MB
+    public static final int[][] SIX_TUPLES = {
+            {0, 1, 2, 3, 4, 5},
+            {4, 5, 6, 7, 8, 9},
+            {0, 1, 2, 4, 5, 6},
+            {4, 5, 6, 8, 9, 10},
+    };
+    // 4 格元组：边行、中间行和三个 2x2 方块，每张表 64K 项，训练快、占内存小
+    public static final int[][] FOUR_TUPLES = {
+            {0, 1, 2, 3},
+            {4, 5, 6, 7},
+            {0, 1, 4, 5},
+            {1, 2, 5, 6},
+            {5, 6, 9, 10},
+    };
+
+    static final int MAGIC = 0x3230344E; // "204N"
+    static final int VERSION = 1;
+    // 每张表按稠密还是稀疏存，取较小的那种
+    private static final byte DENSE = 0;
+    private static final byte SPARSE = 1;
+    // 单张表最多 16^7 项
+    private static final int MAX_TUPLE = 7;
+
+    private final int[][] cells;
+    // 所有表首尾相接放在一个数组里，第 p 张表从 tableOffsets[p] 开始
+    private final float[] weights;
+    private final int[] tableOffsets;
+    // 特征 = (对称, 形状)：对称直接折算进格子位置，估值时不用变换棋盘
+    // 第 f 个特征读 featureLengths[f] 个半字节，移位量依次放在 shifts 里，查 featureOffsets[f] 开始的表
+    private final int features;
+    private final int[] featureLengths;
+    private final int[] featureOffsets;
+    private final int[] featureStarts;
+    private final int[] shifts;
+    // 所有形状一样长 (4 或 6) 时走手工展开的分支，否则为 0
+    private final int uniformLength;
+    // 时间一致性学习 (TC) 的累计误差和累计绝对误差，不开启时为 null
+    private float[] errors;
+    private float[] absErrors;
+
+    public NTupleNetwork(int[][] patterns) {
+        cells = new int[patterns.length][];
+        tableOffsets = new int[patterns.length];
+        long total = 0;
+        int cellCount = 0;
+        for (int p = 0; p < patterns.length; p++) {
+            int[] pattern = patterns[p];
+            if (pattern.length == 0 || pattern.length > MAX_TUPLE) {
+                throw new IllegalArgumentException("tuple length out of range: " + pattern.length);
+            }
+            for (int cell : pattern) {
+                if (cell < 0 || cell >= BitBoard.CELLS) throw new IllegalArgumentException("bad cell: " + cell);
+            }
+            cells[p] = pattern.clone();
+            tableOffsets[p] = (int) total;
+            total += 1L << (4 * pattern.length);
+            cellCount += pattern.length;
+            if (total > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("weight tables too large");
+        }
+        weights = new float[(int) total];
+
+        features = patterns.length * Symmetry.COUNT;
+        featureLengths = new int[features];
+        featureOffsets = new int[features];
+        featureStarts = new int[features];
+        shifts = new int[cellCount * Symmetry.COUNT];
+        int f = 0;
+        int k = 0;
+        for (int s = 0; s < Symmetry.COUNT; s++) {
+            int inverse = Symmetry.inverse(s);
+            for (int p = 0; p < patterns.length; p++) {
+                featureLengths[f] = cells[p].length;
+                featureStarts[f] = k;
+                featureOffsets[f++] = tableOffsets[p];
+                // 对称像的格子 c 上的数，来自原棋盘上逆变换后的那个格子
+                for (int cell : cells[p]) {
+                    long source = Symmetry.apply(BitBoard.withExponent(0, cell, 1), inverse);
+                    shifts[k++] = Long.numberOfTrailingZeros(source) & ~3;
+                }
+            }
+        }
+        int length = cells.length == 0 ? 0 : cells[0].length;
+        for (int[] pattern : cells) {
+            if (pattern.length != length) length = 0;
+        }
+        uniformLength = length == 4 || length == 6 ? length : 0;
+    }
+
+    public static int[][] patterns(String name) {
+        switch (name) {
+            case "6": return SIX_TUPLES;
+            case "4": return FOUR_TUPLES;
+            default: throw new IllegalArgumentException("unknown tuple set: " + name);
+        }
+    }
+
+    public int[][] patterns() {
+        int[][] copy = new int[cells.length][];
+        for (int p = 0; p < cells.length; p++) copy[p] = cells[p].clone();
+        return copy;
+    }
+
+    // 开启 TC 学习：每个权重按 |累计误差| / 累计绝对误差 自适应缩放步长，需要额外两倍内存
+    public void enableCoherence() {
+        if (errors != null) return;
+        errors = new float[weights.length];
+        absErrors = new float[weights.length];
+    }
+
+    public boolean isCoherent() {
+        return errors != null;
+    }
+
+    @Override
+    public float evaluate(long board) {
+        float sum = 0;
+        for (int f = 0; f < features; f++) sum += weights[weightIndex(board, f)];
+        return sum;
+    }
+
+    // 把 board 的估值往 error 的方向挪 alpha 倍；步长在所有特征间平摊
+    public void update(long board, float error, float alpha) {
+        float step = alpha * error / features;
+        float absError = Math.abs(error);
+        for (int f = 0; f < features; f++) {
+            int i = weightIndex(board, f);
+            if (errors == null) {
+                weights[i] += step;
+            } else {
+                float a = absErrors[i];
+                weights[i] += a == 0 ? step : step * Math.abs(errors[i]) / a;
+                errors[i] += error;
+                absErrors[i] = a + absError;
+            }
+        }
+    }
+
+    // 第 f 个特征在扁平数组里对应的权重下标；循环次数不是常量时 JIT 不展开，常见长度单独写开
+    private int weightIndex(long board, int f) {
+        int k = featureStarts[f];
+        int index;
+        switch (uniformLength) {
+            case 4:
+                index = nibble(board, k) | nibble(board, k + 1) << 4 | nibble(board, k + 2) << 8
+                        | nibble(board, k + 3) << 12;
+                break;
+            case 6:
+                index = nibble(board, k) | nibble(board, k + 1) << 4 | nibble(board, k + 2) << 8
+                        | nibble(board, k + 3) << 12 | nibble(board, k + 4) << 16 | nibble(board, k + 5) << 20;
+                break;
+            default:
+                index = 0;
+                for (int j = 0, n = featureLengths[f]; j < n; j++) index |= nibble(board, k + j) << (j << 2);
+        }
+        return featureOffsets[f] + index;
+    }
+
+    private int nibble(long board, int k) {
+        return (int) (board >>> shifts[k]) & 0xF;
+    }
+
+    // --- 文件格式 (小端) ---
+    //   int MAGIC | int VERSION | int 形状数 | 每个形状: int 长度, int[长度] 格子
+    //   每张表: byte DENSE 后跟 float[16^n]，或 byte SPARSE 后跟 int 非零个数和 (int 下标, float 值) 对
+    // 没访问过的权重都是 0，训练早期的表大多按稀疏存，文件远小于内存
+
+    public void save(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putInt(VERSION).putInt(cells.length);
+            for (int[] pattern : cells) {
+                buf.putInt(pattern.length);
+                for (int cell : pattern) buf.putInt(cell);
+            }
+            for (int p = 0; p < cells.length; p++) {
+                int from = tableOffsets[p];
+                int to = from + (1 << (4 * cells[p].length));
+                int nonZero = 0;
+                for (int i = from; i < to; i++) {
+                    if (weights[i] != 0) nonZero++;
+                }
+                if (buf.remaining() < 5) drain(channel, buf);
+                if ((long) nonZero * 8 < (long) (to - from) * 4) {
+                    buf.put(SPARSE).putInt(nonZero);
+                    for (int i = from; i < to; i++) {
+                        if (weights[i] == 0) continue;
+                        if (buf.remaining() < 8) drain(channel, buf);
+                        buf.putInt(i - from).putFloat(weights[i]);
+                    }
+                } else {
+                    buf.put(DENSE);
+                    for (int i = from; i < to; i++) {
+                        if (buf.remaining() < 4) drain(channel, buf);
+                        buf.putFloat(weights[i]);
+                    }
+                }
+            }
+            drain(channel, buf);
+            channel.force(true);
+        }
+    }
+
+    public static NTupleNetwork load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("weights file too large: " + path);
+            ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            try {
+                if (buf.getInt() != MAGIC || buf.getInt() != VERSION) throw new IOException("not a 2048 n-tuple network: " + path);
+                int[][] patterns = new int[buf.getInt()][];
+                for (int p = 0; p < patterns.length; p++) {
+                    patterns[p] = new int[buf.getInt()];
+                    for (int k = 0; k < patterns[p].length; k++) patterns[p][k] = buf.getInt();
+                }
+                NTupleNetwork net = new NTupleNetwork(patterns);
+                for (int p = 0; p < patterns.length; p++) {
+                    int from = net.tableOffsets[p];
+                    int size = 1 << (4 * patterns[p].length);
+                    byte encoding = buf.get();
+                    if (encoding == DENSE) {
+                        buf.asFloatBuffer().get(net.weights, from, size);
+                        buf.position(buf.position() + 4 * size);
+                    } else if (encoding == SPARSE) {
+                        for (int n = buf.getInt(); n > 0; n--) {
+                            int i = buf.getInt();
+                            if (i < 0 || i >= size) throw new IOException("bad weight index " + i + ": " + path);
+                            net.weights[from + i] = buf.getFloat();
+                        }
+                    } else {
+                        throw new IOException("bad table encoding " + encoding + ": " + path);
+                    }
+                }
+                return net;
+            } catch (RuntimeException e) {
+                // 截断或下标越界的文件
+                throw new IOException("corrupt n-tuple network: " + path, e);
+            }
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) channel.write(buf);
+        buf.clear();
+    }
+}
@@ -0,0 +1,102 @@
+package com.game2048.ai.ntuple;
+
+import com.game2048.core.BitBoard;
+import com.game2048.core.Direction;
+import com.game2048.core.GameState;
+import com.game2048.core.RandomSource;
+import com.game2048.sim.SimulationStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// 自我对弈的 TD(0) 训练 (后继状态版本，Szubert & Jaśkowski 2014)：
+//   每步选 "得分 + V(移动后的局面)" 最大的方向，再把上一步移动后局面的估值往 r + V(这一步移动后) 拉
+// 规则就是 GameState；多个线程各自对弈、共享同一个网络且不加锁 (Hogwild)
+// 网络开启 TC 时每个权重的步长再乘上各自的一致性系数
+public class TDTrainer {
+    private final NTupleNetwork network;
+    private final float alpha;
+    private final int threads;
+    private final RandomSource root;
+
+    // 每个线程从 root 依次 split 一份随机源
+    public TDTrainer(NTupleNetwork network, float alpha, int threads, RandomSource root) {
+        this.network = network;
+        this.alpha = alpha;
+        this.threads = threads;
+        this.root = root;
+    }
+
+    // 训练 games 局，返回这些对局的统计 (贪心策略下的表现，可以直接看学习进度)
+    public SimulationStats train(long games) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "2048-td");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<SimulationStats>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                long share = games / threads + (i < games % threads ? 1 : 0);
+                RandomSource random = root.split();
+                futures.add(pool.submit(() -> playGames(share, random)));
+            }
+            SimulationStats total = new SimulationStats();
+            for (Future<SimulationStats> f : futures) total.merge(f.get());
+            return total;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("training worker failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private SimulationStats playGames(long games, RandomSource random) {
+        SimulationStats stats = new SimulationStats();
+        GameState state = new GameState();
+        for (long g = 0; g < games; g++) {
+            state.reset();
+            state.spawn(random);
+            state.spawn(random);
+            int moves = 0;
+            long previous = 0;
+            float previousValue = 0;
+            while (true) {
+                long board = state.board();
+                int legal = state.legalMoves();
+                if (legal == 0) break;
+
+                int bestDir = -1;
+                float bestTotal = 0;
+                float bestValue = 0;
+                for (int dir = 0; dir < 4; dir++) {
+                    if ((legal & (1 << dir)) == 0) continue;
+                    float value = network.evaluate(BitBoard.move(board, dir));
+                    float total = BitBoard.scoreOf(board, dir) + value;
+                    if (bestDir < 0 || total > bestTotal) {
+                        bestDir = dir;
+                        bestTotal = total;
+                        bestValue = value;
+                    }
+                }
+
+                int reward = state.move(Direction.of(bestDir));
+                long after = state.board();
+                if (moves > 0) network.update(previous, reward + bestValue - previousValue, alpha);
+                previous = after;
+                // 下一步更新时的 V(previous) 直接用选方向时算过的值，省一次估值
+                previousValue = bestValue;
+                state.spawn(random);
+                moves++;
+            }
+            // 最后一个移动后局面之后再无得分
+            if (moves > 0) network.update(previous, -network.evaluate(previous), alpha);
+            stats.record(state.score(), BitBoard.maxExponent(state.board()), moves);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,187 @@
+package com.game2048.batch;
+
+import com.game2048.core.BitBoard;
+import com.game2048.core.Rules;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// N 局互相独立的游戏同步推进：棋盘、分数、每路的 xoroshiro128+ 状态各是一个原始类型数组 (结构数组)
+// step 把一组方向一次作用到所有路上，结果写进调用方复用的输出数组，整个过程不分配对象
+// 第 i 路与 new GameState() 配 new XoroshiroRandomSource(seed + i) 逐步一致，可以用单局引擎复现任何一路
+// 内循环拆成几遍只读写数组的简单循环，便于 JIT 展开和向量化；也可以按路区间拆给 fork-join 池
+public final class BatchEngine {
+    // 并行时每个任务至少处理这么多路
+    private static final int SPLIT_LANES = 4096;
+    private static final double SPAWN_TWO = 1.0 - Rules.SPAWN_FOUR_PROBABILITY;
+
+    public final int lanes;
+    private final long[] boards;
+    private final int[] scores;
+    private final long[] rng0;
+    private final long[] rng1;
+    // 第一遍移动的结果，按路区间分片使用，多个任务同时写互不重叠
+    private final long[] moved;
+
+    public BatchEngine(int lanes, long seed) {
+        if (lanes <= 0) throw new IllegalArgumentException("lanes must be positive: " + lanes);
+        this.lanes = lanes;
+        boards = new long[lanes];
+        scores = new int[lanes];
+        rng0 = new long[lanes];
+        rng1 = new long[lanes];
+        moved = new long[lanes];
+        for (int i = 0; i < lanes; i++) {
+            seed(i, seed + i);
+            reset(i);
+        }
+    }
+
+    public long board(int lane) {
+        return boards[lane];
+    }
+
+    public int score(int lane) {
+        return scores[lane];
+    }
+
+    // 所有棋盘的只读视图，step 之间可以直接当观测值读，不要修改
+    public long[] boards() {
+        return boards;
+    }
+
+    // 空棋盘上生成两块，分数清零；随机序列接着用，不重新播种
+    public void reset(int lane) {
+        boards[lane] = 0;
+        scores[lane] = 0;
+        boards[lane] = spawn(lane, spawn(lane, 0));
+    }
+
+    // 把 terminal 为 true 的路重开，配合 step 的输出做自动重置
+    public void resetTerminal(boolean[] terminal) {
+        for (int i = 0; i < lanes; i++) {
+            if (terminal[i]) reset(i);
+        }
+    }
+
+    // 每路的合法方向掩码 (第 d 位对应 Direction.code == d)，供策略屏蔽非法动作
+    public void legalMoves(byte[] out) {
+        for (int i = 0; i < lanes; i++) out[i] = (byte) BitBoard.legalMoves(boards[i]);
+    }
+
+    // 每路按 directions[i] (Direction.code) 走一步；非法方向或已结束的路原样不动，changed 为 false
+    public void step(byte[] directions, int[] deltaOut, boolean[] changedOut, boolean[] terminalOut) {
+        step(0, lanes, directions, deltaOut, changedOut, terminalOut);
+    }
+
+    // 同 step，按路区间拆成 fork-join 任务
+    public void stepParallel(ForkJoinPool pool, byte[] directions, int[] deltaOut, boolean[] changedOut,
+                             boolean[] terminalOut) {
+        pool.invoke(new StepTask(0, lanes, directions, deltaOut, changedOut, terminalOut));
+    }
+
+    public void stepParallel(byte[] directions, int[] deltaOut, boolean[] changedOut, boolean[] terminalOut) {
+        stepParallel(ForkJoinPool.commonPool(), directions, deltaOut, changedOut, terminalOut);
+    }
+
+    // [from, to) 区间上的一步
+    public void step(int from, int to, byte[] directions, int[] deltaOut, boolean[] changedOut, boolean[] terminalOut) {
+        // 第一遍：查表移动和计分，没有分支
+        for (int i = from; i < to; i++) {
+            long board = boards[i];
+            int dir = directions[i];
+            moved[i] = BitBoard.move(board, dir);
+            deltaOut[i] = BitBoard.scoreOf(board, dir);
+        }
+        // 第二遍：比较和累加，纯数组运算；非法方向没有合并，得分本来就是 0
+        for (int i = from; i < to; i++) {
+            changedOut[i] = moved[i] != boards[i];
+            scores[i] += deltaOut[i];
+        }
+        // 第三遍：变化的路生成新块，然后判定是否结束
+        for (int i = from; i < to; i++) {
+            if (changedOut[i]) boards[i] = spawn(i, moved[i]);
+            terminalOut[i] = BitBoard.legalMoves(boards[i]) == 0;
+        }
+    }
+
+    // --- 每路的随机数：播种和序列都与 XoroshiroRandomSource 相同，只是状态放在数组里 ---
+
+    // 在随机空格生成 2 或 4；调用方保证至少有一个空格 (棋盘刚变过或是空棋盘)
+    private long spawn(int lane, long board) {
+        int cell = Rules.nthEmptyCell(board, nextInt(lane, BitBoard.countEmpty(board)));
+        int exponent = nextDouble(lane) < SPAWN_TWO ? 1 : 2;
+        return BitBoard.withExponent(board, cell, exponent);
+    }
+
+    private void seed(int lane, long seed) {
+        long x = seed + 0x9E3779B97F4A7C15L;
+        rng0[lane] = mix64(x);
+        x += 0x9E3779B97F4A7C15L;
+        rng1[lane] = mix64(x);
+        if ((rng0[lane] | rng1[lane]) == 0) rng1[lane] = 1;
+    }
+
+    private long nextLong(int lane) {
+        long a = rng0[lane];
+        long b = rng1[lane];
+        long result = a + b;
+        b ^= a;
+        rng0[lane] = Long.rotateLeft(a, 24) ^ b ^ (b << 16);
+        rng1[lane] = Long.rotateLeft(b, 37);
+        return result;
+    }
+
+    private int nextInt(int lane, int bound) {
+        long m = (nextLong(lane) >>> 32) * bound;
+        long low = m & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold) {
+                m = (nextLong(lane) >>> 32) * bound;
+                low = m & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    private double nextDouble(int lane) {
+        return (nextLong(lane) >>> 11) * 0x1.0p-53;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @SuppressWarnings("serial")
+    private final class StepTask extends RecursiveAction {
+        final int from;
+        final int to;
+        final byte[] directions;
+        final int[] deltaOut;
+        final boolean[] changedOut;
+        final boolean[] terminalOut;
+
+        StepTask(int from, int to, byte[] directions, int[] deltaOut, boolean[] changedOut, boolean[] terminalOut) {
+            this.from = from;
+            this.to = to;
+            this.directions = directions;
+            this.deltaOut = deltaOut;
+            this.changedOut = changedOut;
+            this.terminalOut = terminalOut;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_LANES) {
+                step(from, to, directions, deltaOut, changedOut, terminalOut);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new StepTask(from, mid, directions, deltaOut, changedOut, terminalOut),
+                    new StepTask(mid, to, directions, deltaOut, changedOut, terminalOut));
+        }
+    }
+}
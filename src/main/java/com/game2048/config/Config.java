@@ -14,22 +14,33 @@ public class Config {
     public static final int WIDTH = (TILE_SIZE + MARGIN) * SIDE + MARGIN;
     public static final int HEIGHT = WIDTH + HEADER_HEIGHT;
 
+    // 颜色常量：绘制时直接复用，不在每帧里 new
+    public static final Color BACKGROUND_COLOR = new Color(0xbbada0);
+    public static final Color EMPTY_TILE_COLOR = new Color(0xcdc1b5);
+    public static final Color DARK_TEXT_COLOR = new Color(0x776e65);
+    public static final Color LIGHT_TEXT_COLOR = new Color(0xf9f6f2);
+    public static final Color OVERLAY_COLOR = new Color(255, 255, 255, 150);
+
+    private static final Color[] TILE_COLORS = {
+            EMPTY_TILE_COLOR,    // 0
+            new Color(0xeee4da), // 2
+            new Color(0xede0c8), // 4
+            new Color(0xf2b179), // 8
+            new Color(0xf59563), // 16
+            new Color(0xf67c5f), // 32
+            new Color(0xf65e3b), // 64
+            new Color(0xedcf72), // 128
+            new Color(0xedcc61), // 256
+            new Color(0xedc850), // 512
+            new Color(0xedc53f), // 1024
+            new Color(0xedc22e), // 2048
+    };
+    private static final Color SUPER_TILE_COLOR = new Color(0x3c3a32);
+
     // 颜色工具方法 (保留你原来的逻辑，提取为静态方法)
     public static Color getColorByValue(int value) {
-        switch (value) {
-            case 0:    return new Color(0xcdc1b5);
-            case 2:    return new Color(0xeee4da);
-            case 4:    return new Color(0xede0c8);
-            case 8:    return new Color(0xf2b179);
-            case 16:   return new Color(0xf59563);
-            case 32:   return new Color(0xf67c5f);
-            case 64:   return new Color(0xf65e3b);
-            case 128:  return new Color(0xedcf72);
-            case 256:  return new Color(0xedcc61);
-            case 512:  return new Color(0xedc850);
-            case 1024: return new Color(0xedc53f);
-            case 2048: return new Color(0xedc22e);
-            default:   return new Color(0x3c3a32);
-        }
+        if (value == 0) return TILE_COLORS[0];
+        int exponent = Integer.numberOfTrailingZeros(value);
+        return exponent < TILE_COLORS.length ? TILE_COLORS[exponent] : SUPER_TILE_COLOR;
     }
 }
\ No newline at end of file
@@ -0,0 +1,240 @@
+package com.game2048.core;
+
+// 4x4 棋盘的位压缩表示：16 个 4-bit 半字节装进一个 long
+// 每个半字节存 log2(value)，0 表示空格；第 row 行占 [16*row, 16*row+15] 位，第 col 列在行内偏移 4*col
+// 四个方向的移动全部查表完成，表在类加载时一次性生成
+public final class BitBoard {
+    public static final int LEFT = 0;
+    public static final int RIGHT = 1;
+    public static final int UP = 2;
+    public static final int DOWN = 3;
+
+    public static final int SIDE = 4;
+    public static final int CELLS = SIDE * SIDE;
+    // 半字节能表示的最大指数 (2^15 = 32768)，两个 15 不再合并，避免溢出
+    public static final int MAX_EXPONENT = 15;
+
+    private static final long ROW_MASK = 0xFFFFL;
+    private static final long COL_MASK = 0x000F_000F_000F_000FL;
+    private static final long NIBBLE_ONES = 0x1111_1111_1111_1111L;
+
+    // 行查表：下标是一行的 16 位编码，值是移动后的行
+    private static final char[] ROW_LEFT = new char[65536];
+    private static final char[] ROW_RIGHT = new char[65536];
+    // 列查表：同一张行表，只是结果按列展开 (半字节间隔 16 位)
+    private static final long[] COL_UP = new long[65536];
+    private static final long[] COL_DOWN = new long[65536];
+    // 合并得分与方向无关，左右/上下共用一张
+    private static final int[] ROW_SCORE = new int[65536];
+    // 一行能否向左 (bit 0) / 向右 (bit 1) 移动；转置后同一张表给出上 / 下
+    private static final byte[] ROW_LEGAL = new byte[65536];
+
+    static {
+        int[] out = new int[SIDE];
+        for (int row = 0; row < 65536; row++) {
+            int score = 0;
+            int n = 0;
+            boolean lastMerged = false;
+            for (int i = 0; i < SIDE; i++) {
+                int e = (row >>> (4 * i)) & 0xF;
+                if (e == 0) continue;
+                if (n > 0 && !lastMerged && out[n - 1] == e && e < MAX_EXPONENT) {
+                    out[n - 1]++;
+                    score += 1 << out[n - 1];
+                    lastMerged = true;
+                } else {
+                    out[n++] = e;
+                    lastMerged = false;
+                }
+            }
+
+            int left = 0;
+            for (int i = 0; i < n; i++) left |= out[i] << (4 * i);
+
+            // 向右移动 = 反转行 -> 向左移动 -> 再反转
+            ROW_LEFT[row] = (char) left;
+            ROW_RIGHT[reverseRow(row)] = (char) reverseRow(left);
+            COL_UP[row] = unpackCol(left);
+            COL_DOWN[reverseRow(row)] = unpackCol(reverseRow(left));
+            ROW_SCORE[row] = score;
+        }
+        for (int row = 0; row < 65536; row++) {
+            int legal = 0;
+            if (ROW_LEFT[row] != row) legal |= 1 << LEFT;
+            if (ROW_RIGHT[row] != row) legal |= 1 << RIGHT;
+            ROW_LEGAL[row] = (byte) legal;
+        }
+    }
+
+    private long board;
+
+    public BitBoard() {
+    }
+
+    public BitBoard(long board) {
+        this.board = board;
+    }
+
+    public long get() { return board; }
+    public void set(long board) { this.board = board; }
+
+    public int getExponent(int row, int col) {
+        return exponentAt(board, row * SIDE + col);
+    }
+
+    public void setExponent(int row, int col, int exponent) {
+        board = withExponent(board, row * SIDE + col, exponent);
+    }
+
+    // 执行一次移动，返回本次得分增量；棋盘没有变化时返回 -1
+    public int move(int direction) {
+        long next = move(board, direction);
+        if (next == board) return -1;
+        int delta = scoreOf(board, direction);
+        board = next;
+        return delta;
+    }
+
+    public boolean canMove() {
+        return canMove(board);
+    }
+
+    // --- 静态工具：供热路径直接操作 long ---
+
+    public static long move(long board, int direction) {
+        switch (direction) {
+            case LEFT:  return moveLeft(board);
+            case RIGHT: return moveRight(board);
+            case UP:    return moveUp(board);
+            case DOWN:  return moveDown(board);
+            default: throw new IllegalArgumentException("direction: " + direction);
+        }
+    }
+
+    public static long moveLeft(long board) {
+        long res = 0;
+        for (int r = 0; r < SIDE; r++) {
+            res |= (long) ROW_LEFT[(int) ((board >>> (16 * r)) & ROW_MASK)] << (16 * r);
+        }
+        return res;
+    }
+
+    public static long moveRight(long board) {
+        long res = 0;
+        for (int r = 0; r < SIDE; r++) {
+            res |= (long) ROW_RIGHT[(int) ((board >>> (16 * r)) & ROW_MASK)] << (16 * r);
+        }
+        return res;
+    }
+
+    public static long moveUp(long board) {
+        long t = transpose(board);
+        long res = 0;
+        for (int c = 0; c < SIDE; c++) {
+            res |= COL_UP[(int) ((t >>> (16 * c)) & ROW_MASK)] << (4 * c);
+        }
+        return res;
+    }
+
+    public static long moveDown(long board) {
+        long t = transpose(board);
+        long res = 0;
+        for (int c = 0; c < SIDE; c++) {
+            res |= COL_DOWN[(int) ((t >>> (16 * c)) & ROW_MASK)] << (4 * c);
+        }
+        return res;
+    }
+
+    // 移动产生的得分，与 move(board, direction) 配套使用
+    public static int scoreOf(long board, int direction) {
+        long b = (direction == UP || direction == DOWN) ? transpose(board) : board;
+        return ROW_SCORE[(int) (b & ROW_MASK)]
+                + ROW_SCORE[(int) ((b >>> 16) & ROW_MASK)]
+                + ROW_SCORE[(int) ((b >>> 32) & ROW_MASK)]
+                + ROW_SCORE[(int) ((b >>> 48) & ROW_MASK)];
+    }
+
+    public static boolean canMove(long board) {
+        return legalMoves(board) != 0;
+    }
+
+    // 合法方向的位掩码：第 direction 位为 1 表示该方向会改变棋盘；8 次查表，不做真正的移动
+    public static int legalMoves(long board) {
+        int rows = ROW_LEGAL[(int) (board & ROW_MASK)]
+                | ROW_LEGAL[(int) ((board >>> 16) & ROW_MASK)]
+                | ROW_LEGAL[(int) ((board >>> 32) & ROW_MASK)]
+                | ROW_LEGAL[(int) ((board >>> 48) & ROW_MASK)];
+        long t = transpose(board);
+        int cols = ROW_LEGAL[(int) (t & ROW_MASK)]
+                | ROW_LEGAL[(int) ((t >>> 16) & ROW_MASK)]
+                | ROW_LEGAL[(int) ((t >>> 32) & ROW_MASK)]
+                | ROW_LEGAL[(int) ((t >>> 48) & ROW_MASK)];
+        return rows | (cols << UP);
+    }
+
+    // 行列互换：(r, c) <-> (c, r)
+    public static long transpose(long x) {
+        long a1 = x & 0xF0F00F0FF0F00F0FL;
+        long a2 = x & 0x0000F0F00000F0F0L;
+        long a3 = x & 0x0F0F00000F0F0000L;
+        long a = a1 | (a2 << 12) | (a3 >>> 12);
+        long b1 = a & 0xFF00FF0000FF00FFL;
+        long b2 = a & 0x00FF00FF00000000L;
+        long b3 = a & 0x00000000FF00FF00L;
+        return b1 | (b2 >>> 24) | (b3 << 24);
+    }
+
+    public static int exponentAt(long board, int index) {
+        return (int) ((board >>> (4 * index)) & 0xF);
+    }
+
+    public static long withExponent(long board, int index, int exponent) {
+        int shift = 4 * index;
+        return (board & ~(0xFL << shift)) | ((long) exponent << shift);
+    }
+
+    public static int countEmpty(long board) {
+        return CELLS - Long.bitCount(occupiedNibbles(board));
+    }
+
+    // 空格集合：第 i 位为 1 表示格子 i 为空
+    public static int emptyMask(long board) {
+        // 把间隔 4 位的标志逐级收拢成连续的 16 位
+        long x = occupiedNibbles(board);
+        x = (x | (x >>> 3)) & 0x0303_0303_0303_0303L;
+        x = (x | (x >>> 6)) & 0x000F_000F_000F_000FL;
+        x = (x | (x >>> 12)) & 0x0000_00FF_0000_00FFL;
+        x = (x | (x >>> 24)) & 0xFFFFL;
+        return (int) x ^ 0xFFFF;
+    }
+
+    // 棋盘上是否有指数为 exponent 的格子 (经典的 "有零半字节" 判定)；exponent 只能是 0..15
+    public static boolean containsExponent(long board, int exponent) {
+        long x = board ^ (exponent * NIBBLE_ONES);
+        return ((x - NIBBLE_ONES) & ~x & 0x8888_8888_8888_8888L) != 0;
+    }
+
+    // 每个半字节压成 1 位 (放在半字节最低位)：非零为 1
+    private static long occupiedNibbles(long board) {
+        long x = board | (board >>> 1);
+        x |= x >>> 2;
+        return x & NIBBLE_ONES;
+    }
+
+    public static int maxExponent(long board) {
+        int max = 0;
+        for (int i = 0; i < CELLS; i++) {
+            max = Math.max(max, exponentAt(board, i));
+        }
+        return max;
+    }
+
+    private static int reverseRow(int row) {
+        return ((row & 0xF) << 12) | ((row & 0xF0) << 4) | ((row >>> 4) & 0xF0) | ((row >>> 12) & 0xF);
+    }
+
+    private static long unpackCol(int row) {
+        long r = row;
+        return (r | (r << 12) | (r << 24) | (r << 36)) & COL_MASK;
+    }
+}
@@ -0,0 +1,47 @@
+package com.game2048.core;
+
+
+// 四个移动方向，code 与 BitBoard 的方向常量一一对应
+public enum Direction {
+    LEFT(BitBoard.LEFT),
+    RIGHT(BitBoard.RIGHT),
+    UP(BitBoard.UP),
+    DOWN(BitBoard.DOWN);
+
+    // values() 每次都会复制数组，热路径用这个
+    public static final Direction[] ALL = values();
+
+    public final int code;
+
+    Direction(int code) {
+        this.code = code;
+    }
+
+    public static Direction of(int code) {
+        return ALL[code];
+    }
+
+    // 在 side x side 的一维棋盘上描述这个方向：第 line 条线的最前端格子是 leadCell + line * lineStep，
+    // 沿线往回 (逆着移动方向) 每步下标加 cellStep；四个方向借此共用一个滑动核心
+    public int leadCell(int side) {
+        switch (this) {
+            case LEFT:  return 0;
+            case RIGHT: return side - 1;
+            case UP:    return 0;
+            default:    return (side - 1) * side;
+        }
+    }
+
+    public int lineStep(int side) {
+        return this == LEFT || this == RIGHT ? side : 1;
+    }
+
+    public int cellStep(int side) {
+        switch (this) {
+            case LEFT:  return 1;
+            case RIGHT: return -1;
+            case UP:    return side;
+            default:    return -side;
+        }
+    }
+}
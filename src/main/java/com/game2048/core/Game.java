@@ -0,0 +1,34 @@
+package com.game2048.core;
+
+// 规则层的通用接口：4x4 用位压缩的 GameState，其它尺寸用 GridState
+// 格子下标按行优先：index = row * side() + col，格子里存 log2(value)，0 为空
+public interface Game {
+    int side();
+
+    // 返回本步得分；棋盘不变时返回 Rules.ILLEGAL
+    int move(Direction direction);
+
+    // 在随机空格生成 2 或 4，返回格子下标；没有空格时返回 -1
+    int spawn(RandomSource random);
+
+    // 以下查询都由实现增量维护，O(1)
+    boolean isTerminal();
+
+    // 合法方向的位掩码，第 direction.code 位为 1 表示该方向可走
+    int legalMoves();
+
+    int emptyCount();
+
+    int score();
+
+    int exponentAt(int index);
+
+    int maxExponent();
+
+    void reset();
+
+    Snapshot snapshot();
+
+    // 快照的尺寸必须与当前棋盘一致
+    void restore(Snapshot snapshot);
+}
@@ -0,0 +1,127 @@
+package com.game2048.core;
+
+
+// 无界面的游戏状态：一个 long 棋盘加分数，所有操作都不分配对象
+// 不依赖 java.awt，可在 -Djava.awt.headless=true 的服务器上直接使用
+// 空格集合和最大指数随移动/生成一起更新；合法方向在棋盘变化后第一次查询时查表算出并缓存
+public final class GameState implements Game {
+    private static final int STALE = -1;
+
+    private long board;
+    private int score;
+    private int legal = STALE;
+    private int emptyMask = 0xFFFF;
+    private int maxExponent;
+
+    public GameState() {
+    }
+
+    public GameState(long board, int score) {
+        set(board, score);
+    }
+
+    @Override
+    public int side() {
+        return BitBoard.SIDE;
+    }
+
+    @Override
+    public void reset() {
+        set(0L, 0);
+    }
+
+    // 返回本步得分；棋盘不变时返回 Rules.ILLEGAL，状态不动
+    @Override
+    public int move(Direction direction) {
+        if (legal != STALE && !Rules.isLegal(legal, direction)) return Rules.ILLEGAL;
+        long next = BitBoard.move(board, direction.code);
+        if (next == board) return Rules.ILLEGAL;
+        int delta = BitBoard.scoreOf(board, direction.code);
+        board = next;
+        score += delta;
+        // 一次移动每个方块最多合并一次，最大指数最多 +1；到 15 后不再合并，也放不下 16 这个半字节
+        if (delta > 0 && maxExponent < BitBoard.MAX_EXPONENT && BitBoard.containsExponent(next, maxExponent + 1)) {
+            maxExponent++;
+        }
+        emptyMask = BitBoard.emptyMask(next);
+        legal = STALE;
+        return delta;
+    }
+
+    // 在随机空格生成 2 或 4，返回格子下标；棋盘已满时返回 -1
+    @Override
+    public int spawn(RandomSource random) {
+        int empty = Integer.bitCount(emptyMask);
+        if (empty == 0) return -1;
+        int index = Rules.nthSetBit(emptyMask, random.nextInt(empty));
+        int exponent = Rules.spawnExponent(random);
+        board = BitBoard.withExponent(board, index, exponent);
+        emptyMask &= ~(1 << index);
+        maxExponent = Math.max(maxExponent, exponent);
+        legal = STALE;
+        return index;
+    }
+
+    @Override
+    public boolean isTerminal() {
+        return legalMoves() == 0;
+    }
+
+    @Override
+    public int legalMoves() {
+        if (legal == STALE) legal = BitBoard.legalMoves(board);
+        return legal;
+    }
+
+    @Override
+    public int emptyCount() {
+        return Integer.bitCount(emptyMask);
+    }
+
+    // 空格集合，第 i 位为 1 表示格子 i 为空
+    public int emptyMask() {
+        return emptyMask;
+    }
+
+    @Override
+    public int score() {
+        return score;
+    }
+
+    public long board() {
+        return board;
+    }
+
+    @Override
+    public int exponentAt(int index) {
+        return BitBoard.exponentAt(board, index);
+    }
+
+    @Override
+    public int maxExponent() {
+        return maxExponent;
+    }
+
+    public int maxTile() {
+        return maxExponent == 0 ? 0 : 1 << maxExponent;
+    }
+
+    @Override
+    public Snapshot snapshot() {
+        return new Snapshot(board, score);
+    }
+
+    @Override
+    public void restore(Snapshot snapshot) {
+        if (!snapshot.isPacked()) throw new IllegalArgumentException("snapshot side " + snapshot.side + " != 4");
+        set(snapshot.board, snapshot.score);
+    }
+
+    public void set(long board, int score) {
+        this.board = board;
+        this.score = score;
+        legal = STALE;
+        emptyMask = BitBoard.emptyMask(board);
+        maxExponent = BitBoard.maxExponent(board);
+    }
+}
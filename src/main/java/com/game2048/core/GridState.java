@@ -0,0 +1,223 @@
+package com.game2048.core;
+
+import java.util.Arrays;
+
+// 任意边长 (2..16) 的棋盘：一维 byte[] 存指数，移动和生成都是 O(格子数)
+// 指数上限 30 (2^30)，远超 4x4 位压缩能表示的 2^15
+// 空格集合、最大指数和相邻格子对的计数随棋盘一起维护：生成是 O(1)，结束/合法方向判断只读计数
+public final class GridState implements Game {
+    public static final int MIN_SIDE = 2;
+    public static final int MAX_SIDE = 16;
+    public static final int MAX_EXPONENT = 30;
+
+    private final int side;
+    private final byte[] cells;
+    private int score;
+
+    // 空格集合：emptyCells[0..emptyCount) 是空格下标，emptySlot[index] 是它在集合里的位置 (非空为 -1)
+    private final int[] emptyCells;
+    private final int[] emptySlot;
+    private int emptyCount;
+    private int maxExponent;
+
+    // 相邻格子对计数：(空, 非空) 说明能往空的一侧滑，相等的一对说明能合并
+    // 例如 leftGaps 数的是 "左边空、右边有方块" 的横向相邻对，>0 即可向左
+    private int leftGaps, rightGaps, upGaps, downGaps;
+    private int rowPairs, colPairs;
+
+    public GridState(int side) {
+        if (side < MIN_SIDE || side > MAX_SIDE) throw new IllegalArgumentException("side: " + side);
+        this.side = side;
+        this.cells = new byte[side * side];
+        this.emptyCells = new int[cells.length];
+        this.emptySlot = new int[cells.length];
+        recount();
+    }
+
+    @Override
+    public int side() {
+        return side;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(cells, (byte) 0);
+        score = 0;
+        recount();
+    }
+
+    @Override
+    public int move(Direction direction) {
+        // 每条线的起点和沿移动反方向的步长，四个方向共用一个滑动核心
+        int first = direction.leadCell(side);
+        int lineStep = direction.lineStep(side);
+        int cellStep = direction.cellStep(side);
+
+        int delta = 0;
+        boolean changed = false;
+        for (int line = 0; line < side; line++) {
+            int start = first + line * lineStep;
+            int write = start;
+            int last = -1;       // 最近一次写入的位置
+            boolean lastMerged = false;
+            for (int k = 0, idx = start; k < side; k++, idx += cellStep) {
+                int e = cells[idx];
+                if (e == 0) continue;
+                cells[idx] = 0;
+                if (last >= 0 && !lastMerged && cells[last] == e && e < MAX_EXPONENT) {
+                    cells[last] = (byte) (e + 1);
+                    delta += 1 << (e + 1);
+                    lastMerged = true;
+                    changed = true;
+                } else {
+                    cells[write] = (byte) e;
+                    if (write != idx) changed = true;
+                    last = write;
+                    write += cellStep;
+                    lastMerged = false;
+                }
+            }
+        }
+        if (!changed) return Rules.ILLEGAL;
+        score += delta;
+        // 移动本身已经是 O(格子数)，顺手整体重算一遍
+        recount();
+        return delta;
+    }
+
+    // 从空格集合里直接抽一个，O(1)
+    @Override
+    public int spawn(RandomSource random) {
+        if (emptyCount == 0) return -1;
+        int index = emptyCells[random.nextInt(emptyCount)];
+        setCell(index, Rules.spawnExponent(random));
+        return index;
+    }
+
+    @Override
+    public boolean isTerminal() {
+        return legalMoves() == 0;
+    }
+
+    @Override
+    public int legalMoves() {
+        int legal = 0;
+        if (leftGaps > 0 || rowPairs > 0) legal |= 1 << Direction.LEFT.code;
+        if (rightGaps > 0 || rowPairs > 0) legal |= 1 << Direction.RIGHT.code;
+        if (upGaps > 0 || colPairs > 0) legal |= 1 << Direction.UP.code;
+        if (downGaps > 0 || colPairs > 0) legal |= 1 << Direction.DOWN.code;
+        return legal;
+    }
+
+    @Override
+    public int emptyCount() {
+        return emptyCount;
+    }
+
+    @Override
+    public int score() {
+        return score;
+    }
+
+    @Override
+    public int exponentAt(int index) {
+        return cells[index];
+    }
+
+    @Override
+    public int maxExponent() {
+        return maxExponent;
+    }
+
+    @Override
+    public Snapshot snapshot() {
+        return new Snapshot(side, cells, score);
+    }
+
+    @Override
+    public void restore(Snapshot snapshot) {
+        if (snapshot.isPacked() || snapshot.side != side) {
+            throw new IllegalArgumentException("snapshot side " + snapshot.side + " != " + side);
+        }
+        snapshot.copyCells(cells);
+        score = snapshot.score;
+        recount();
+    }
+
+    public void setExponent(int index, int exponent) {
+        setCell(index, exponent);
+    }
+
+    // 改一个格子：只有它和四个邻居组成的相邻对需要重新计数
+    private void setCell(int index, int exponent) {
+        int old = cells[index];
+        if (old == exponent) return;
+        countNeighbours(index, -1);
+        cells[index] = (byte) exponent;
+        countNeighbours(index, 1);
+
+        if (old == 0) {
+            // 从空格集合里换位删除
+            int slot = emptySlot[index];
+            int last = emptyCells[--emptyCount];
+            emptyCells[slot] = last;
+            emptySlot[last] = slot;
+            emptySlot[index] = -1;
+        } else if (exponent == 0) {
+            emptySlot[index] = emptyCount;
+            emptyCells[emptyCount++] = index;
+        }
+
+        if (exponent > maxExponent) {
+            maxExponent = exponent;
+        } else if (old == maxExponent) {
+            maxExponent = 0;
+            for (byte c : cells) maxExponent = Math.max(maxExponent, c);
+        }
+    }
+
+    private void countNeighbours(int index, int sign) {
+        int row = index / side;
+        int col = index % side;
+        if (col > 0) countPair(index - 1, index, true, sign);
+        if (col + 1 < side) countPair(index, index + 1, true, sign);
+        if (row > 0) countPair(index - side, index, false, sign);
+        if (row + 1 < side) countPair(index, index + side, false, sign);
+    }
+
+    // a 在 b 的左边 (horizontal) 或上边
+    private void countPair(int a, int b, boolean horizontal, int sign) {
+        int ea = cells[a];
+        int eb = cells[b];
+        if (ea == 0) {
+            if (eb == 0) return;
+            if (horizontal) leftGaps += sign; else upGaps += sign;
+        } else if (eb == 0) {
+            if (horizontal) rightGaps += sign; else downGaps += sign;
+        } else if (ea == eb && ea < MAX_EXPONENT) {
+            if (horizontal) rowPairs += sign; else colPairs += sign;
+        }
+    }
+
+    private void recount() {
+        leftGaps = rightGaps = upGaps = downGaps = rowPairs = colPairs = 0;
+        emptyCount = 0;
+        maxExponent = 0;
+        for (int index = 0; index < cells.length; index++) {
+            int e = cells[index];
+            if (e == 0) {
+                emptySlot[index] = emptyCount;
+                emptyCells[emptyCount++] = index;
+            } else {
+                emptySlot[index] = -1;
+                maxExponent = Math.max(maxExponent, e);
+            }
+            if ((index + 1) % side != 0) countPair(index, index + 1, true, 1);
+            if (index + side < cells.length) countPair(index, index + side, false, 1);
+        }
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+}
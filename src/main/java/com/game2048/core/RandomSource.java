@@ -0,0 +1,16 @@
+package com.game2048.core;
+
+// 规则层唯一的随机数入口；同一种子 + 同样的输入序列必须得到完全相同的对局
+// 实例本身不要求线程安全，多线程时每个线程 split() 出自己的一份
+public interface RandomSource {
+    // [0, bound)
+    int nextInt(int bound);
+
+    // [0, 1)
+    double nextDouble();
+
+    long nextLong();
+
+    // 派生一个统计上独立的新随机源，派生过程本身也是确定性的
+    RandomSource split();
+}
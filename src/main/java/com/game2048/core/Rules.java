@@ -0,0 +1,46 @@
+package com.game2048.core;
+
+
+// 2048 的规则常量和纯函数，全部作用在打包后的 long 棋盘上
+public final class Rules {
+    public static final int WIN_TILE = 2048;
+    public static final double SPAWN_FOUR_PROBABILITY = 0.1;
+    // move 返回值：这一步不合法 (棋盘不变)
+    public static final int ILLEGAL = -1;
+
+    private Rules() {
+    }
+
+    public static long move(long board, Direction direction) {
+        return BitBoard.move(board, direction.code);
+    }
+
+    public static int scoreOf(long board, Direction direction) {
+        return BitBoard.scoreOf(board, direction.code);
+    }
+
+    public static boolean isTerminal(long board) {
+        return BitBoard.legalMoves(board) == 0;
+    }
+
+    // legalMoves 掩码里是否包含该方向
+    public static boolean isLegal(int legalMoves, Direction direction) {
+        return (legalMoves & (1 << direction.code)) != 0;
+    }
+
+    // 按 0.9 / 0.1 的概率返回 2 或 4 的指数
+    public static int spawnExponent(RandomSource random) {
+        return random.nextDouble() < 1.0 - SPAWN_FOUR_PROBABILITY ? 1 : 2;
+    }
+
+    // 第 k 个空格的下标，没有那么多空格时返回 -1
+    public static int nthEmptyCell(long board, int k) {
+        return nthSetBit(BitBoard.emptyMask(board), k);
+    }
+
+    // 掩码中第 k 个 (从 0 数) 为 1 的位，按下标从小到大
+    static int nthSetBit(int mask, int k) {
+        for (; k > 0 && mask != 0; k--) mask &= mask - 1;
+        return mask == 0 ? -1 : Integer.numberOfTrailingZeros(mask);
+    }
+}
@@ -0,0 +1,36 @@
+package com.game2048.core;
+
+// 不可变的局面快照：4x4 只有一个 long 加分数，其它尺寸额外带一份格子副本
+public final class Snapshot {
+    public final int side;
+    public final long board;
+    public final int score;
+    private final byte[] cells;
+
+    public Snapshot(long board, int score) {
+        this.side = 4;
+        this.board = board;
+        this.score = score;
+        this.cells = null;
+    }
+
+    public Snapshot(int side, byte[] cells, int score) {
+        this.side = side;
+        this.board = 0L;
+        this.score = score;
+        this.cells = cells.clone();
+    }
+
+    public boolean isPacked() {
+        return cells == null;
+    }
+
+    public int exponentAt(int index) {
+        return cells == null ? (int) ((board >>> (4 * index)) & 0xF) : cells[index];
+    }
+
+    // 拷贝到调用方的数组里，快照本身保持不变
+    public void copyCells(byte[] dest) {
+        System.arraycopy(cells, 0, dest, 0, cells.length);
+    }
+}
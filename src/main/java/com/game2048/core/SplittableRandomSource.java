@@ -0,0 +1,36 @@
+package com.game2048.core;
+
+import java.util.SplittableRandom;
+
+// 基于 SplittableRandom 的随机源：无锁、无竞争，每个线程 split 一份各用各的
+public final class SplittableRandomSource implements RandomSource {
+    private final SplittableRandom random;
+
+    public SplittableRandomSource(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private SplittableRandomSource(SplittableRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public SplittableRandomSource split() {
+        return new SplittableRandomSource(random.split());
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    @Override
+    public long nextLong() {
+        return random.nextLong();
+    }
+}
@@ -0,0 +1,92 @@
+package com.game2048.core;
+
+
+// 4x4 棋盘的 8 种对称 (二面体群 D4)：旋转和翻转
+// 对称 s 的编号按位表示依次施加的变换：bit 2 先转置，bit 0 左右翻转，bit 1 上下翻转；8 个编号恰好覆盖 8 种对称
+// 局面 b 沿 d 移动，等价于 apply(b, s) 沿 apply(d, s) 移动，所以估值、开局库等都可以按代表元共享
+public final class Symmetry {
+    public static final int COUNT = 8;
+    public static final int IDENTITY = 0;
+
+    private static final int FLIP_COLUMNS = 1;
+    private static final int FLIP_ROWS = 2;
+    private static final int TRANSPOSE = 4;
+
+    // DIRECTION_MAP[s][d.code]：对称 s 下方向 d 变成哪个方向
+    private static final Direction[][] DIRECTION_MAP = new Direction[COUNT][];
+
+    static {
+        for (int s = 0; s < COUNT; s++) {
+            DIRECTION_MAP[s] = new Direction[Direction.ALL.length];
+            for (Direction d : Direction.ALL) {
+                Direction m = d;
+                if ((s & TRANSPOSE) != 0) m = transposed(m);
+                if ((s & FLIP_COLUMNS) != 0) m = m == Direction.LEFT ? Direction.RIGHT : m == Direction.RIGHT ? Direction.LEFT : m;
+                if ((s & FLIP_ROWS) != 0) m = m == Direction.UP ? Direction.DOWN : m == Direction.DOWN ? Direction.UP : m;
+                DIRECTION_MAP[s][d.code] = m;
+            }
+        }
+    }
+
+    private Symmetry() {
+    }
+
+    public static long apply(long board, int symmetry) {
+        if ((symmetry & TRANSPOSE) != 0) board = BitBoard.transpose(board);
+        if ((symmetry & FLIP_COLUMNS) != 0) board = flipColumns(board);
+        if ((symmetry & FLIP_ROWS) != 0) board = flipRows(board);
+        return board;
+    }
+
+    public static Direction apply(Direction direction, int symmetry) {
+        return DIRECTION_MAP[symmetry][direction.code];
+    }
+
+    // 逆变换：不含转置时就是自身；含转置时，转置把左右翻转和上下翻转互换
+    public static int inverse(int symmetry) {
+        if ((symmetry & TRANSPOSE) == 0) return symmetry;
+        return TRANSPOSE | ((symmetry & FLIP_COLUMNS) << 1) | ((symmetry & FLIP_ROWS) >>> 1);
+    }
+
+    // 代表元：8 个像里数值最小的那个 (按无符号比较)
+    public static long canonical(long board) {
+        return apply(board, canonicalSymmetry(board));
+    }
+
+    // 把 board 变成代表元的那个对称
+    public static int canonicalSymmetry(long board) {
+        long t = BitBoard.transpose(board);
+        long best = board;
+        int bestSymmetry = IDENTITY;
+        for (int s = 1; s < COUNT; s++) {
+            long b = (s & TRANSPOSE) != 0 ? t : board;
+            if ((s & FLIP_COLUMNS) != 0) b = flipColumns(b);
+            if ((s & FLIP_ROWS) != 0) b = flipRows(b);
+            if (Long.compareUnsigned(b, best) < 0) {
+                best = b;
+                bestSymmetry = s;
+            }
+        }
+        return bestSymmetry;
+    }
+
+    // 每行内部左右颠倒：先交换相邻半字节，再交换行内两个字节
+    public static long flipColumns(long board) {
+        long x = ((board & 0x0F0F_0F0F_0F0F_0F0FL) << 4) | ((board >>> 4) & 0x0F0F_0F0F_0F0F_0F0FL);
+        return ((x & 0x00FF_00FF_00FF_00FFL) << 8) | ((x >>> 8) & 0x00FF_00FF_00FF_00FFL);
+    }
+
+    // 行的上下顺序颠倒
+    public static long flipRows(long board) {
+        return (board >>> 48) | ((board >>> 16) & 0xFFFF_0000L) | ((board << 16) & 0xFFFF_0000_0000L) | (board << 48);
+    }
+
+    private static Direction transposed(Direction d) {
+        switch (d) {
+            case LEFT:  return Direction.UP;
+            case UP:    return Direction.LEFT;
+            case RIGHT: return Direction.DOWN;
+            default:    return Direction.RIGHT;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.game2048.core;
+
+// xoroshiro128+ (Blackman & Vigna)：128 位状态，比 SplittableRandom 更快
+// 种子经 splitmix64 展开成两个状态字；split() 把当前序列交给新实例，自己跳过 2^64 步，保证两段不重叠
+public final class XoroshiroRandomSource implements RandomSource {
+    private static final long[] JUMP = {0xdf900294d8f554a5L, 0x170865df4b3201fcL};
+
+    private long s0;
+    private long s1;
+
+    public XoroshiroRandomSource(long seed) {
+        long x = seed;
+        x += 0x9E3779B97F4A7C15L;
+        s0 = mix64(x);
+        x += 0x9E3779B97F4A7C15L;
+        s1 = mix64(x);
+        // 全零状态是不动点
+        if ((s0 | s1) == 0) s1 = 1;
+    }
+
+    private XoroshiroRandomSource(long s0, long s1) {
+        this.s0 = s0;
+        this.s1 = s1;
+    }
+
+    @Override
+    public long nextLong() {
+        long a = s0;
+        long b = s1;
+        long result = a + b;
+        b ^= a;
+        s0 = Long.rotateLeft(a, 24) ^ b ^ (b << 16);
+        s1 = Long.rotateLeft(b, 37);
+        return result;
+    }
+
+    // Lemire 的乘法取模，拒绝少量样本以消除偏差
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) throw new IllegalArgumentException("bound must be positive: " + bound);
+        long m = (nextLong() >>> 32) * bound;
+        long low = m & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold) {
+                m = (nextLong() >>> 32) * bound;
+                low = m & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    // xoroshiro128+ 的低位较弱，取高 53 位
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    @Override
+    public XoroshiroRandomSource split() {
+        XoroshiroRandomSource child = new XoroshiroRandomSource(s0, s1);
+        jump();
+        return child;
+    }
+
+    // 等价于调用 2^64 次 nextLong()
+    public void jump() {
+        long a = 0;
+        long b = 0;
+        for (long word : JUMP) {
+            for (int bit = 0; bit < 64; bit++) {
+                if ((word & (1L << bit)) != 0) {
+                    a ^= s0;
+                    b ^= s1;
+                }
+                nextLong();
+            }
+        }
+        s0 = a;
+        s1 = b;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,35 @@
+package com.game2048.dataset;
+
+// 训练数据文件格式 (小端)：
+//   文件头 64 字节: int MAGIC | int VERSION | int 每块行数 | long 总行数 | int 选项位 | 其余补零
+//   之后是若干定长块，每块 BLOCK_ROWS 行，块内按列存放:
+//     long[BLOCK_ROWS] 棋盘 | int[BLOCK_ROWS] 得分增量 | byte[BLOCK_ROWS] 标志
+//   标志: 低 2 位是方向 (Direction.code)，第 7 位是 "这一步之后对局结束"
+// 最后一块也按完整大小占位，行号 i 的位置只由 i 算出，读取时不需要任何索引
+final class DatasetFormat {
+    static final int MAGIC = 0x32303444; // "204D"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+
+    static final int BLOCK_SHIFT = 16;
+    static final int BLOCK_ROWS = 1 << BLOCK_SHIFT;
+    static final int BLOCK_MASK = BLOCK_ROWS - 1;
+
+    static final int BOARDS_OFFSET = 0;
+    static final int DELTAS_OFFSET = BOARDS_OFFSET + 8 * BLOCK_ROWS;
+    static final int FLAGS_OFFSET = DELTAS_OFFSET + 4 * BLOCK_ROWS;
+    static final int BLOCK_BYTES = FLAGS_OFFSET + BLOCK_ROWS;
+
+    // 文件头选项位：棋盘已换成对称代表元，方向也随之变换
+    static final int OPTION_CANONICAL = 0x1;
+
+    static final int DIRECTION_MASK = 0x3;
+    static final int TERMINAL_FLAG = 0x80;
+
+    private DatasetFormat() {
+    }
+
+    static long blockOffset(long block) {
+        return HEADER_BYTES + block * BLOCK_BYTES;
+    }
+}
@@ -0,0 +1,157 @@
+package com.game2048.dataset;
+
+import com.game2048.core.Direction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import static com.game2048.dataset.DatasetFormat.*;
+
+// 以内存映射只读方式打开数据集；按行号随机访问，数据不复制到堆上
+// 单个映射不能超过 2GB，所以按 WINDOW_BLOCKS 个块一段分别映射，段边界总在块边界上
+// 所有读取都是 ByteBuffer 的绝对位置访问，可以多线程同时读
+public final class DatasetReader implements Closeable {
+    // 每段 512 块，约 416MB
+    private static final int WINDOW_SHIFT = 9;
+    private static final int WINDOW_BLOCKS = 1 << WINDOW_SHIFT;
+
+    private final FileChannel channel;
+    private final long rows;
+    private final boolean canonical;
+    private final ByteBuffer[] windows;
+
+    public DatasetReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+        }
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+            channel.close();
+            throw new IOException("not a 2048 dataset: " + path);
+        }
+        int version = header.getInt();
+        int blockRows = header.getInt();
+        if (version != VERSION || blockRows != BLOCK_ROWS) {
+            channel.close();
+            throw new IOException("unsupported dataset version " + version + " / block rows " + blockRows);
+        }
+        rows = header.getLong();
+        canonical = (header.getInt() & OPTION_CANONICAL) != 0;
+
+        long blocks = (rows + BLOCK_ROWS - 1) >>> BLOCK_SHIFT;
+        if (channel.size() < blockOffset(blocks)) {
+            channel.close();
+            throw new IOException("truncated dataset: " + path);
+        }
+        windows = new ByteBuffer[(int) ((blocks + WINDOW_BLOCKS - 1) >>> WINDOW_SHIFT)];
+        for (int w = 0; w < windows.length; w++) {
+            long first = (long) w << WINDOW_SHIFT;
+            long count = Math.min(WINDOW_BLOCKS, blocks - first);
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, blockOffset(first), count * BLOCK_BYTES);
+            windows[w] = map.order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    // 棋盘是否已经换成对称代表元
+    public boolean isCanonical() {
+        return canonical;
+    }
+
+    public long board(long row) {
+        return window(row).getLong(blockBase(row) + BOARDS_OFFSET + 8 * (int) (row & BLOCK_MASK));
+    }
+
+    public int scoreDelta(long row) {
+        return window(row).getInt(blockBase(row) + DELTAS_OFFSET + 4 * (int) (row & BLOCK_MASK));
+    }
+
+    public Direction direction(long row) {
+        return Direction.of(flags(row) & DIRECTION_MASK);
+    }
+
+    public boolean isTerminal(long row) {
+        return (flags(row) & TERMINAL_FLAG) != 0;
+    }
+
+    private int flags(long row) {
+        return window(row).get(blockBase(row) + FLAGS_OFFSET + (int) (row & BLOCK_MASK));
+    }
+
+    private ByteBuffer window(long row) {
+        if (row < 0 || row >= rows) throw new IndexOutOfBoundsException("row " + row + " of " + rows);
+        return windows[(int) (row >>> (BLOCK_SHIFT + WINDOW_SHIFT))];
+    }
+
+    // 行所在块在段内的起始字节
+    private static int blockBase(long row) {
+        return (int) ((row >>> BLOCK_SHIFT) & (WINDOW_BLOCKS - 1)) * BLOCK_BYTES;
+    }
+
+    // 顺序游标，整个扫描只有这一个对象
+    public Cursor cursor() {
+        return new Cursor(0, rows);
+    }
+
+    // 行号流；parallel 为 true 时按行区间二分给 fork-join 公共池
+    public LongStream rowIndices(boolean parallel) {
+        return StreamSupport.longStream(new RowSpliterator(0, rows), parallel);
+    }
+
+    public LongStream boards(boolean parallel) {
+        return rowIndices(parallel).map(this::board);
+    }
+
+    // 映射会在 GC 回收缓冲时解除，这里只关闭文件
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public final class Cursor {
+        private long row;
+        private final long end;
+
+        Cursor(long start, long end) {
+            this.row = start - 1;
+            this.end = end;
+        }
+
+        // 移到下一行，没有更多行时返回 false
+        public boolean next() {
+            return ++row < end;
+        }
+
+        public long row() {
+            return row;
+        }
+
+        public long board() {
+            return DatasetReader.this.board(row);
+        }
+
+        public Direction direction() {
+            return DatasetReader.this.direction(row);
+        }
+
+        public int scoreDelta() {
+            return DatasetReader.this.scoreDelta(row);
+        }
+
+        public boolean isTerminal() {
+            return DatasetReader.this.isTerminal(row);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.game2048.dataset;
+
+import com.game2048.core.Direction;
+import com.game2048.core.Symmetry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.game2048.dataset.DatasetFormat.*;
+
+// 顺序追加 (棋盘, 方向, 得分增量, 是否结束) 记录
+// 当前块在一块堆外缓冲里按列拼好，写满后整块落盘；追加一行只是三次绝对位置写入，不分配对象
+// 非线程安全：多线程生成时每个线程各写一个文件
+// canonical 模式下每行先换成对称代表元 (方向同步变换)，等价局面在数据里是同一个棋盘，便于去重和统计
+public final class DatasetWriter implements Closeable {
+    private final FileChannel channel;
+    private final boolean canonical;
+    private final ByteBuffer block = ByteBuffer.allocateDirect(BLOCK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private long rows;
+    private int inBlock;
+
+    public DatasetWriter(Path path) throws IOException {
+        this(path, false);
+    }
+
+    public DatasetWriter(Path path, boolean canonical) throws IOException {
+        this.canonical = canonical;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        writeHeader();
+    }
+
+    public void append(long board, Direction direction, int scoreDelta, boolean terminal) throws IOException {
+        if (canonical) {
+            int symmetry = Symmetry.canonicalSymmetry(board);
+            board = Symmetry.apply(board, symmetry);
+            direction = Symmetry.apply(direction, symmetry);
+        }
+        block.putLong(BOARDS_OFFSET + 8 * inBlock, board);
+        block.putInt(DELTAS_OFFSET + 4 * inBlock, scoreDelta);
+        block.put(FLAGS_OFFSET + inBlock, (byte) (direction.code | (terminal ? TERMINAL_FLAG : 0)));
+        rows++;
+        if (++inBlock == BLOCK_ROWS) flushBlock();
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    private void flushBlock() throws IOException {
+        long blockIndex = (rows - 1) >>> BLOCK_SHIFT;
+        block.clear();
+        long position = blockOffset(blockIndex);
+        while (block.hasRemaining()) position += channel.write(block, position);
+        // 清零，最后一块没写满的部分读出来是 0
+        block.clear();
+        for (int i = 0; i < BLOCK_BYTES; i += 8) block.putLong(i, 0L);
+        inBlock = 0;
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(BLOCK_ROWS).putLong(rows).putInt(canonical ? OPTION_CANONICAL : 0);
+        header.clear();
+        long position = 0;
+        while (header.hasRemaining()) position += channel.write(header, position);
+    }
+
+    // 写出最后一个不满的块并更新行数
+    @Override
+    public void close() throws IOException {
+        try {
+            if (inBlock > 0) flushBlock();
+            writeHeader();
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.game2048.dataset;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+// [from, to) 行号区间；按块边界对半切分，让每个任务顺序扫连续的内存
+final class RowSpliterator implements Spliterator.OfLong {
+    private long from;
+    private final long to;
+
+    RowSpliterator(long from, long to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public OfLong trySplit() {
+        long mid = ((from + to) >>> 1) & ~(long) DatasetFormat.BLOCK_MASK;
+        if (mid <= from || mid >= to) return null;
+        RowSpliterator prefix = new RowSpliterator(from, mid);
+        from = mid;
+        return prefix;
+    }
+
+    @Override
+    public boolean tryAdvance(LongConsumer action) {
+        if (from >= to) return false;
+        action.accept(from++);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(LongConsumer action) {
+        long end = to;
+        for (long row = from; row < end; row++) action.accept(row);
+        from = end;
+    }
+
+    @Override
+    public long estimateSize() {
+        return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL | DISTINCT | SORTED;
+    }
+
+    @Override
+    public Comparator<? super Long> getComparator() {
+        return null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.game2048.event;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 把一个监听者挪到别的线程：引擎线程只把批次复制进环形缓冲区就返回，不会被阻塞
+// 单生产者 (引擎线程) / 单消费者 (executor 上的排空任务)；槽位预先分配，稳定后不再分配
+// 缓冲区满时丢弃新批次并计数，监听者可以通过批次序号的跳跃发现丢失
+public final class AsyncEventDispatcher implements GameEventListener {
+    private final GameEventListener delegate;
+    private final Executor executor;
+    private final EventBatch[] slots;
+    private final int mask;
+
+    // head 只由消费者推进，tail 只由生产者推进
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public AsyncEventDispatcher(GameEventListener delegate, Executor executor) {
+        this(delegate, executor, 64);
+    }
+
+    public AsyncEventDispatcher(GameEventListener delegate, Executor executor, int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.delegate = delegate;
+        this.executor = executor;
+        slots = new EventBatch[capacity];
+        for (int i = 0; i < capacity; i++) slots[i] = new EventBatch();
+        mask = capacity - 1;
+    }
+
+    @Override
+    public void onBatch(EventBatch batch) {
+        long t = tail.get();
+        if (t - head.get() >= slots.length) {
+            dropped.incrementAndGet();
+            return;
+        }
+        slots[(int) (t & mask)].copyFrom(batch);
+        tail.lazySet(t + 1);
+        schedule();
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) executor.execute(this::drain);
+    }
+
+    private void drain() {
+        long h = head.get();
+        while (h < tail.get()) {
+            try {
+                delegate.onBatch(slots[(int) (h & mask)]);
+            } catch (RuntimeException e) {
+                System.err.println("事件监听器出错: " + e);
+            }
+            head.lazySet(++h);
+        }
+        scheduled.set(false);
+        // 清标记和生产者写入之间可能漏掉一个批次，再检查一次
+        if (h < tail.get()) schedule();
+    }
+}
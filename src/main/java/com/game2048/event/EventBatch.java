@@ -0,0 +1,141 @@
+package com.game2048.event;
+
+import com.game2048.core.Direction;
+
+import java.util.Arrays;
+
+// 一次移动产生的全部事件，按发生顺序排列
+// 事件存成几列平铺的 int 数组，引擎反复复用同一个批次，稳定后不再分配
+// 批次只在 onBatch 回调期间有效，需要跨线程保存时用 copyFrom 复制
+public final class EventBatch {
+    private static final EventType[] TYPES = EventType.values();
+
+    private long sequence;
+    private Direction direction;
+    private int size;
+    private byte[] types = new byte[16];
+    private int[] from = new int[16];
+    private int[] to = new int[16];
+    private int[] values = new int[16];
+
+    // 引擎发布的批次序号，从 1 开始递增
+    public long sequence() {
+        return sequence;
+    }
+
+    // 触发本批次的移动方向；新开一局、撤销等非移动操作为 null
+    public Direction direction() {
+        return direction;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public EventType type(int i) {
+        return TYPES[types[i]];
+    }
+
+    public int from(int i) {
+        return from[i];
+    }
+
+    public int to(int i) {
+        return to[i];
+    }
+
+    public int value(int i) {
+        return values[i];
+    }
+
+    public int count(EventType type) {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (types[i] == type.ordinal()) n++;
+        }
+        return n;
+    }
+
+    public boolean contains(EventType type) {
+        for (int i = 0; i < size; i++) {
+            if (types[i] == type.ordinal()) return true;
+        }
+        return false;
+    }
+
+    // --- 写入：由引擎调用 ---
+
+    public void begin(long sequence, Direction direction) {
+        this.sequence = sequence;
+        this.direction = direction;
+        size = 0;
+    }
+
+    public void tileMoved(int fromIndex, int toIndex, int value) {
+        add(EventType.TILE_MOVED, fromIndex, toIndex, value);
+    }
+
+    public void tilesMerged(int fromIndex, int toIndex, int value) {
+        add(EventType.TILES_MERGED, fromIndex, toIndex, value);
+    }
+
+    public void tileSpawned(int index, int value) {
+        add(EventType.TILE_SPAWNED, -1, index, value);
+    }
+
+    public void scoreChanged(int delta, int score) {
+        add(EventType.SCORE_CHANGED, delta, -1, score);
+    }
+
+    public void gameOver(boolean won) {
+        add(EventType.GAME_OVER, -1, -1, won ? 1 : 0);
+    }
+
+    public void boardReset() {
+        add(EventType.BOARD_RESET, -1, -1, 0);
+    }
+
+    public void newGame() {
+        add(EventType.NEW_GAME, -1, -1, 0);
+    }
+
+    public void copyFrom(EventBatch other) {
+        sequence = other.sequence;
+        direction = other.direction;
+        size = 0;
+        ensureCapacity(other.size);
+        System.arraycopy(other.types, 0, types, 0, other.size);
+        System.arraycopy(other.from, 0, from, 0, other.size);
+        System.arraycopy(other.to, 0, to, 0, other.size);
+        System.arraycopy(other.values, 0, values, 0, other.size);
+        size = other.size;
+    }
+
+    private void add(EventType type, int fromIndex, int toIndex, int value) {
+        ensureCapacity(size + 1);
+        types[size] = (byte) type.ordinal();
+        from[size] = fromIndex;
+        to[size] = toIndex;
+        values[size] = value;
+        size++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= types.length) return;
+        int n = Math.max(capacity, types.length * 2);
+        types = Arrays.copyOf(types, n);
+        from = Arrays.copyOf(from, n);
+        to = Arrays.copyOf(to, n);
+        values = Arrays.copyOf(values, n);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("EventBatch#").append(sequence).append(' ').append(direction).append(" [");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(type(i)).append('(').append(from[i]).append(',').append(to[i]).append(',').append(values[i]).append(')');
+        }
+        return sb.append(']').toString();
+    }
+}
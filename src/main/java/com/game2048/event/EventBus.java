@@ -0,0 +1,31 @@
+package com.game2048.event;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// 一对多分发：发布时遍历快照，监听者可以在回调中增删而不影响本次分发
+// 单个监听者抛出的异常只打印，不会打断引擎或其它监听者
+public final class EventBus {
+    private final CopyOnWriteArrayList<GameEventListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void addListener(GameEventListener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(GameEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    public void publish(EventBatch batch) {
+        for (GameEventListener listener : listeners) {
+            try {
+                listener.onBatch(batch);
+            } catch (RuntimeException e) {
+                System.err.println("事件监听器出错: " + e);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.game2048.event;
+
+// 一次移动内可能产生的事件；格子都用一维下标 row * side + col 表示
+public enum EventType {
+    // from -> to，value 为方块数值
+    TILE_MOVED,
+    // from 的方块并入 to，value 为合并后的数值
+    TILES_MERGED,
+    // to 处生成新方块，value 为数值
+    TILE_SPAWNED,
+    // value 为新分数，from 位置记本次增量
+    SCORE_CHANGED,
+    // 无法再移动；value 为 1 表示已经达到目标方块
+    GAME_OVER,
+    // 整个棋盘被替换 (新开一局、撤销、重做、载入)，监听者应按引擎当前状态重建
+    BOARD_RESET,
+    // 新开一局，总是与 BOARD_RESET 出现在同一个批次里；撤销、重做、载入不带这个事件
+    NEW_GAME
+}
@@ -0,0 +1,7 @@
+package com.game2048.event;
+
+// 每次移动回调一次；在引擎所在线程上同步调用，耗时的处理请包一层 AsyncEventDispatcher
+@FunctionalInterface
+public interface GameEventListener {
+    void onBatch(EventBatch batch);
+}
@@ -0,0 +1,91 @@
+package com.game2048.metrics;
+
+// MXBean 实现，只是把 Metrics 里的静态数据换算后暴露出来
+final class EngineMetrics implements EngineMetricsMXBean {
+
+    @Override
+    public boolean isEnabled() {
+        return Metrics.ENABLED;
+    }
+
+    @Override
+    public long getMoveCount() {
+        return Metrics.MOVE.count();
+    }
+
+    @Override
+    public long getMoveP50Micros() {
+        return Metrics.MOVE.percentile(50) / 1000;
+    }
+
+    @Override
+    public long getMoveP99Micros() {
+        return Metrics.MOVE.percentile(99) / 1000;
+    }
+
+    @Override
+    public long getSpawnCount() {
+        return Metrics.SPAWN.count();
+    }
+
+    @Override
+    public long getSpawnP99Micros() {
+        return Metrics.SPAWN.percentile(99) / 1000;
+    }
+
+    @Override
+    public long getAnimationTickP99Micros() {
+        return Metrics.ANIMATION_TICK.percentile(99) / 1000;
+    }
+
+    @Override
+    public long getFrameCount() {
+        return Metrics.FRAME.count();
+    }
+
+    @Override
+    public long getFrameP50Micros() {
+        return Metrics.FRAME.percentile(50) / 1000;
+    }
+
+    @Override
+    public long getFrameP99Micros() {
+        return Metrics.FRAME.percentile(99) / 1000;
+    }
+
+    @Override
+    public long getFrameP999Micros() {
+        return Metrics.FRAME.percentile(99.9) / 1000;
+    }
+
+    @Override
+    public long getLateFrames() {
+        return Metrics.LATE_FRAMES.get();
+    }
+
+    @Override
+    public long getDroppedFrames() {
+        return Metrics.DROPPED_FRAMES.get();
+    }
+
+    @Override
+    public double getMergesPerMove() {
+        long moves = Metrics.MOVE.count();
+        return moves == 0 ? 0 : (double) Metrics.MERGES.get() / moves;
+    }
+
+    @Override
+    public long getAllocatedBytesPerFrameP50() {
+        return Metrics.threadAllocatedBytes() < 0 ? -1 : Metrics.FRAME_ALLOCATION.percentile(50);
+    }
+
+    @Override
+    public long getAllocatedBytesPerFrameP99() {
+        return Metrics.threadAllocatedBytes() < 0 ? -1 : Metrics.FRAME_ALLOCATION.percentile(99);
+    }
+
+    @Override
+    public void reset() {
+        Metrics.reset();
+    }
+}
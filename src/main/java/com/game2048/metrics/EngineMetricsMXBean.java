@@ -0,0 +1,32 @@
+package com.game2048.metrics;
+
+// JMX 视图：时间统一用微秒，分位数取自对应直方图
+public interface EngineMetricsMXBean {
+    boolean isEnabled();
+
+    long getMoveCount();
+    long getMoveP50Micros();
+    long getMoveP99Micros();
+
+    long getSpawnCount();
+    long getSpawnP99Micros();
+
+    long getAnimationTickP99Micros();
+
+    long getFrameCount();
+    long getFrameP50Micros();
+    long getFrameP99Micros();
+    long getFrameP999Micros();
+
+    // 帧间隔超过 16ms 预算一半以上记为迟到；每整段错过的 16ms 记一次丢帧
+    long getLateFrames();
+    long getDroppedFrames();
+
+    double getMergesPerMove();
+
+    // JVM 不支持线程级分配统计时为 -1
+    long getAllocatedBytesPerFrameP50();
+    long getAllocatedBytesPerFrameP99();
+
+    void reset();
+}
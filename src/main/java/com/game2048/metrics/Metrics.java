@@ -0,0 +1,120 @@
+package com.game2048.metrics;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 引擎和界面的运行指标
+// 开关是启动参数 -Dgame2048.metrics=true；ENABLED 是编译期常量式的 static final，关闭时 JIT 会把埋点整段消掉
+// -Dgame2048.metrics.dump=N 每 N 秒往 stderr 打一行摘要；JMX 名称 com.game2048:type=EngineMetrics
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("game2048.metrics");
+
+    public static final long FRAME_BUDGET_NANOS = 16_000_000L;
+
+    public static final LatencyHistogram MOVE = new LatencyHistogram("move");
+    public static final LatencyHistogram SPAWN = new LatencyHistogram("spawn");
+    public static final LatencyHistogram ANIMATION_TICK = new LatencyHistogram("tick");
+    public static final LatencyHistogram FRAME = new LatencyHistogram("frame");
+    // 借用直方图记录每帧分配的字节数
+    public static final LatencyHistogram FRAME_ALLOCATION = new LatencyHistogram("frameAlloc");
+
+    static final AtomicLong MERGES = new AtomicLong();
+    static final AtomicLong LATE_FRAMES = new AtomicLong();
+    static final AtomicLong DROPPED_FRAMES = new AtomicLong();
+
+    // 关闭时不碰 ManagementFactory，省掉启动时加载管理类的开销
+    private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = ENABLED ? allocationBean() : null;
+    private static long lastFrameStart;
+
+    static {
+        if (ENABLED) {
+            register();
+            long period = Long.getLong("game2048.metrics.dump", 0L);
+            if (period > 0) startDump(period);
+        }
+    }
+
+    private Metrics() {
+    }
+
+    public static void recordMove(long nanos, int merges) {
+        MOVE.record(nanos);
+        MERGES.addAndGet(merges);
+    }
+
+    // 在每一帧定时器回调开头调用，按实际间隔统计迟到和丢帧
+    public static void frameTick(long now) {
+        long last = lastFrameStart;
+        lastFrameStart = now;
+        if (last == 0) return;
+        long interval = now - last;
+        if (interval > FRAME_BUDGET_NANOS * 3 / 2) LATE_FRAMES.incrementAndGet();
+        long missed = interval / FRAME_BUDGET_NANOS - 1;
+        if (missed > 0) DROPPED_FRAMES.addAndGet(missed);
+    }
+
+    // 帧循环停下后调用，避免把空闲时间算成丢帧
+    public static void frameIdle() {
+        lastFrameStart = 0;
+    }
+
+    // 当前线程累计分配的字节数；不支持时返回 -1
+    public static long threadAllocatedBytes() {
+        if (ALLOCATION_BEAN == null) return -1;
+        return ALLOCATION_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public static void reset() {
+        MOVE.reset();
+        SPAWN.reset();
+        ANIMATION_TICK.reset();
+        FRAME.reset();
+        FRAME_ALLOCATION.reset();
+        MERGES.set(0);
+        LATE_FRAMES.set(0);
+        DROPPED_FRAMES.set(0);
+    }
+
+    public static String summary() {
+        long moves = MOVE.count();
+        return String.format("moves=%d move.p99=%dus spawn.p99=%dus tick.p99=%dus frames=%d frame.p50=%dus frame.p99=%dus "
+                        + "late=%d dropped=%d merges/move=%.2f alloc/frame.p50=%dB",
+                moves, MOVE.percentile(99) / 1000, SPAWN.percentile(99) / 1000, ANIMATION_TICK.percentile(99) / 1000,
+                FRAME.count(), FRAME.percentile(50) / 1000, FRAME.percentile(99) / 1000,
+                LATE_FRAMES.get(), DROPPED_FRAMES.get(), moves == 0 ? 0.0 : (double) MERGES.get() / moves,
+                ALLOCATION_BEAN == null ? -1 : FRAME_ALLOCATION.percentile(50));
+    }
+
+    public static void startDump(long periodSeconds) {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "2048-metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.scheduleAtFixedRate(() -> System.err.println("[metrics] " + summary()),
+                periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    private static void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(new EngineMetrics(), new ObjectName("com.game2048:type=EngineMetrics"));
+        } catch (Exception e) {
+            System.err.println("指标 MBean 注册失败: " + e.getMessage());
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+        com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) bean;
+        if (!sun.isThreadAllocatedMemorySupported()) return null;
+        sun.setThreadAllocatedMemoryEnabled(true);
+        return sun;
+    }
+}
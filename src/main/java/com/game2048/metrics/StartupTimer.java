@@ -0,0 +1,58 @@
+package com.game2048.metrics;
+
+import java.lang.management.ManagementFactory;
+
+// 启动耗时：从 JVM 启动到第一帧画出来
+// -Dgame2048.startup=true 在第一帧后往 stderr 打一行，各阶段是相对 JVM 启动的毫秒数，便于跟踪回归
+// -Dgame2048.startup.exit=true 画完第一帧就退出，供生成 CDS 归档的训练运行使用
+// JVM 启动时间要用 RuntimeMXBean 取，加载管理类本身也要时间，所以放到第一帧之后的后台线程里再算
+public final class StartupTimer {
+    public static final boolean ENABLED = Boolean.getBoolean("game2048.startup");
+    public static final boolean EXIT_AFTER_FIRST_FRAME = Boolean.getBoolean("game2048.startup.exit");
+
+    private static final int MAX_PHASES = 16;
+    private static final String[] names = new String[MAX_PHASES];
+    private static final long[] nanos = new long[MAX_PHASES];
+    private static int count;
+    // 第一个阶段的墙上时间，用来与 JVM 启动时间对齐
+    private static long firstMillis;
+    private static volatile boolean firstFrameSeen;
+
+    private StartupTimer() {
+    }
+
+    // 记录一个阶段的完成时刻，可在任意线程调用
+    public static synchronized void mark(String phase) {
+        if (!ENABLED || count == MAX_PHASES) return;
+        if (count == 0) firstMillis = System.currentTimeMillis();
+        names[count] = phase;
+        nanos[count] = System.nanoTime();
+        count++;
+    }
+
+    // 在 paintComponent 末尾调用，只有第一次生效
+    public static void firstFrame() {
+        if (firstFrameSeen) return;
+        firstFrameSeen = true;
+        if (!ENABLED && !EXIT_AFTER_FIRST_FRAME) return;
+        mark("firstFrame");
+        Thread t = new Thread(() -> {
+            if (ENABLED) System.err.println("[startup] " + summary());
+            if (EXIT_AFTER_FIRST_FRAME) System.exit(0);
+        }, "2048-startup");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public static synchronized String summary() {
+        if (count == 0) return "";
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        long base = firstMillis - jvmStart;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(names[i]).append('=').append(base + (nanos[i] - nanos[0]) / 1_000_000).append("ms");
+        }
+        return sb.toString();
+    }
+}
@@ -1,71 +1,231 @@
 package com.game2048.model;
 
-import com.game2048.config.Config;
+import com.game2048.core.BitBoard;
+import com.game2048.core.Direction;
+import com.game2048.core.Game;
+import com.game2048.core.GameState;
+import com.game2048.core.GridState;
+import com.game2048.core.RandomSource;
+import com.game2048.core.Rules;
+import com.game2048.core.Snapshot;
+import com.game2048.core.SplittableRandomSource;
+import com.game2048.event.EventBatch;
+import com.game2048.event.EventBus;
+import com.game2048.event.EventType;
+import com.game2048.event.GameEventListener;
+import com.game2048.metrics.Metrics;
+import com.game2048.replay.ReplayWriter;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+// 带动画的游戏引擎：规则全部委托给 core.Game，这里只维护 Tile 视图
+// 4x4 且目标不超过 2^15 时走位压缩的 GameState，其它尺寸走一维数组的 GridState
 public class GameEngine {
     public List<Tile> tiles = new ArrayList<>();
     public int score = 0;
     public boolean isGameStopped = false;
     public boolean isWon = false;
 
-    // 控制是否需要在动画结束后生成新方块
+    // 新方块在移动时就已落到逻辑棋盘上，视图等动画结束后再显示
     private boolean needNewTile = false;
+    private int pendingSpawn = -1;
+    // 关闭后 (加速模式) 每步的视图直接落到终点，不播放动画
+    private boolean animated = true;
 
-    private Runnable mergeSoundCallback;
+    private final int side;
+    private final int targetTile;
+
+    // 逻辑棋盘：真正的规则状态，tiles 只是它上面的动画视图
+    private final Game game;
+    // 4x4 时与 game 是同一个对象，否则为 null
+    private final GameState packed;
+    // 所有生成都走这一个随机源：同一种子 + 同样的操作序列得到完全相同的对局
+    private final RandomSource random;
+    // 随机源的种子，写进回放文件头；直接传入随机源时未知，为 0
+    private long seed;
+    // 按格子下标索引的视图
+    private final Tile[] grid;
+    // 本次移动中已合并过的格子，避免每次移动分配列表
+    private final boolean[] merged;
+
+    // 事件：每次移动的全部事件收集进同一个批次，移动结束时发布一次
+    private final EventBus events = new EventBus();
+    private final EventBatch batch = new EventBatch();
+    private long sequence;
+
+    private static final int HISTORY_LIMIT = 4096;
+    private final MoveHistory undoStack = new MoveHistory(HISTORY_LIMIT);
+    private final MoveHistory redoStack = new MoveHistory(HISTORY_LIMIT);
+
+    // 回放录制：每次移动连同它生成的新方块作为一个回合写入
+    // 退出钩子会从别的线程摘下写入器，对 replay 的读写都在 replayLock 下
+    private final Object replayLock = new Object();
+    private ReplayWriter replay;
+    // 本次移动的得分增量
+    private int turnDelta;
 
     public GameEngine() {
+        this(BitBoard.SIDE, Rules.WIN_TILE);
+    }
+
+    public GameEngine(int side, int targetTile) {
+        this(side, targetTile, System.nanoTime() ^ System.currentTimeMillis());
+    }
+
+    public GameEngine(int side, int targetTile, long seed) {
+        this(side, targetTile, new SplittableRandomSource(seed));
+        this.seed = seed;
+    }
+
+    public GameEngine(int side, int targetTile, RandomSource random) {
+        if (targetTile < 4 || Integer.bitCount(targetTile) != 1) {
+            throw new IllegalArgumentException("targetTile must be a power of two >= 4: " + targetTile);
+        }
+        this.side = side;
+        this.targetTile = targetTile;
+        this.random = random;
+        if (side == BitBoard.SIDE && targetTile <= 1 << BitBoard.MAX_EXPONENT) {
+            packed = new GameState();
+            game = packed;
+        } else {
+            packed = null;
+            game = new GridState(side);
+        }
+        grid = new Tile[side * side];
+        merged = new boolean[side * side];
         createGame();
     }
 
-    public void setMergeSoundCallback(Runnable callback) {
-        this.mergeSoundCallback = callback;
+    public int getSide() {
+        return side;
+    }
+
+    public int getTargetTile() {
+        return targetTile;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // 最近一个已发布批次的序号
+    public long getSequence() {
+        return sequence;
+    }
+
+    // 监听者在引擎线程上同步收到每个批次，不能阻塞；耗时处理请用 AsyncEventDispatcher 包装
+    public void addListener(GameEventListener listener) {
+        events.addListener(listener);
+    }
+
+    public void removeListener(GameEventListener listener) {
+        events.removeListener(listener);
+    }
+
+    // 从当前局面开始录制 (仅 4x4)；新开一局时会自动结束并关闭
+    // 可以在任意线程调用，传 null 即结束录制并把缓冲写出
+    public void setReplayWriter(ReplayWriter writer) {
+        synchronized (replayLock) {
+            closeReplay();
+            replay = writer;
+            if (writer != null) writer.begin(getBoard(), score);
+        }
+    }
+
+    private void closeReplay() {
+        synchronized (replayLock) {
+            if (replay == null) return;
+            try {
+                replay.close();
+            } catch (IOException e) {
+                System.err.println("回放写入失败: " + e.getMessage());
+            }
+            replay = null;
+        }
     }
 
     public void createGame() {
+        closeReplay();
+        undoStack.clear();
+        redoStack.clear();
         tiles.clear();
+        Arrays.fill(grid, null);
+        game.reset();
         score = 0;
         isGameStopped = false;
         isWon = false;
         needNewTile = false;
+        batch.begin(++sequence, null);
+        batch.boardReset();
+        batch.newGame();
         // 初始生成两个
-        spawnNewTileImmediately();
-        spawnNewTileImmediately();
+        showSpawnedTile(spawnTile());
+        showSpawnedTile(spawnTile());
+        if (!animated) finishAnimations();
+        events.publish(batch);
     }
 
-    // 内部私有方法，直接生成
-    private void spawnNewTileImmediately() {
-        if (getMaxTileValue() == 2048 && !isWon) isWon = true;
-
-        List<int[]> emptyCells = new ArrayList<>();
-        for (int i = 0; i < Config.SIDE; i++) {
-            for (int j = 0; j < Config.SIDE; j++) {
-                if (getTileAt(i, j) == null) {
-                    emptyCells.add(new int[]{i, j});
-                }
-            }
-        }
+    // 直接生成一个新方块并立即显示，作为单独的一个批次发布
+    public void spawnNewTileImmediately() {
+        batch.begin(++sequence, null);
+        showSpawnedTile(spawnTile());
+        events.publish(batch);
+    }
 
-        if (emptyCells.isEmpty()) return;
+    // 在逻辑棋盘上生成一个方块并记入当前批次；棋盘已满时返回 -1
+    private int spawnTile() {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        if (getMaxTileValue() >= targetTile && !isWon) isWon = true;
 
-        int[] p = emptyCells.get((int) (Math.random() * emptyCells.size()));
-        int value = Math.random() < 0.9 ? 2 : 4;
+        int index = game.spawn(random);
+        if (index >= 0) batch.tileSpawned(index, 1 << game.exponentAt(index));
+        if (Metrics.ENABLED) Metrics.SPAWN.record(System.nanoTime() - start);
+        return index;
+    }
 
-        Tile newTile = new Tile(value, p[0], p[1]);
+    private void showSpawnedTile(int index) {
+        if (index < 0) return;
+        Tile newTile = new Tile(1 << game.exponentAt(index), index / side, index % side);
         newTile.setNew();
         tiles.add(newTile);
+        grid[index] = newTile;
     }
 
-    private Tile getTileAt(int row, int col) {
-        for (Tile t : tiles) {
-            if (t.getRow() == row && t.getCol() == col) return t;
+    // 直接载入一个 4x4 局面，按棋盘重建所有方块 (无动画)
+    public void loadBoard(long board, int score) {
+        requirePacked().set(board, score);
+        rebuildTiles();
+        publishReset();
+    }
+
+    private void publishReset() {
+        batch.begin(++sequence, null);
+        batch.boardReset();
+        events.publish(batch);
+    }
+
+    private void rebuildTiles() {
+        score = game.score();
+        tiles.clear();
+        Arrays.fill(grid, null);
+        for (int i = 0; i < grid.length; i++) {
+            int exponent = game.exponentAt(i);
+            if (exponent == 0) continue;
+            Tile t = new Tile(1 << exponent, i / side, i % side);
+            tiles.add(t);
+            grid[i] = t;
         }
-        return null;
+        isGameStopped = false;
+        isWon = getMaxTileValue() >= targetTile;
+        needNewTile = false;
+        pendingSpawn = -1;
     }
 
     // --- 每一帧调用的逻辑 ---
     public void updateAnimations() {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
         boolean allFinished = true;
         for (Tile t : tiles) {
             t.update();
@@ -76,9 +236,24 @@ public class GameEngine {
 
         // 只有当所有方块静止，且有生成需求时，才生成新数字
         if (allFinished && needNewTile) {
-            spawnNewTileImmediately();
-            needNewTile = false;
+            settlePendingSpawn();
         }
+        if (Metrics.ENABLED) Metrics.ANIMATION_TICK.record(System.nanoTime() - start);
+    }
+
+    public boolean isAnimated() {
+        return animated;
+    }
+
+    public void setAnimated(boolean animated) {
+        this.animated = animated;
+        if (!animated) finishAnimations();
+    }
+
+    // 快进所有动画：显示待生成的方块，所有方块直接跳到终点
+    public void finishAnimations() {
+        settlePendingSpawn();
+        for (int i = 0; i < tiles.size(); i++) tiles.get(i).finishAnimation();
     }
 
     public boolean areAnimationsDone() {
@@ -88,164 +263,327 @@ public class GameEngine {
         return true;
     }
 
-    // --- 核心移动逻辑 (触发 needNewTile 而不是直接生成) ---
+    // 动画全部结束且没有待生成的方块：界面可以停掉帧循环
+    public boolean isIdle() {
+        return !needNewTile && areAnimationsDone();
+    }
 
-    public boolean moveLeft() {
-        boolean isChanged = false;
-        List<Tile> mergedTiles = new ArrayList<>();
+    // --- 撤销 / 重做 / 快照 ---
 
-        for (int i = 0; i < Config.SIDE; i++) {
-            for (int j = 1; j < Config.SIDE; j++) {
-                Tile current = getTileAt(i, j);
-                if (current == null) continue;
+    // 当前逻辑局面 (新方块在移动时已经生成，总是一个完整回合之后的状态)
+    public Snapshot snapshot() {
+        settlePendingSpawn();
+        return game.snapshot();
+    }
 
-                int targetCol = j;
-                for (int k = j - 1; k >= 0; k--) {
-                    Tile prev = getTileAt(i, k);
-                    if (prev == null) {
-                        targetCol = k;
-                    } else if (prev.getValue() == current.getValue() && !mergedTiles.contains(prev)) {
-                        performMerge(current, prev, mergedTiles);
-                        isChanged = true;
-                        targetCol = -1;
-                        break;
-                    } else {
-                        break;
-                    }
-                }
-                if (targetCol != -1 && targetCol != j) {
-                    current.setPosition(i, targetCol);
-                    isChanged = true;
-                }
-            }
+    // 跳到任意局面 (可撤销)，方块按新局面重建
+    public void restore(Snapshot snapshot) {
+        settlePendingSpawn();
+        undoStack.push(game.snapshot());
+        redoStack.clear();
+        restoreState(snapshot);
+    }
+
+    // 快照能否放进这个引擎：尺寸相同，且压缩与否与规则层的实现一致 (目标超过 32768 的 4x4 不压缩)
+    public boolean accepts(Snapshot snapshot) {
+        return snapshot.side == side && snapshot.isPacked() == (packed != null);
+    }
+
+    // 续玩：直接换成保存的局面，清空撤销历史 (与 restore 不同，不能撤销回换之前的对局)
+    public void resume(Snapshot snapshot) {
+        undoStack.clear();
+        redoStack.clear();
+        restoreState(snapshot);
+    }
+
+    public boolean canUndo() {
+        return !undoStack.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redoStack.isEmpty();
+    }
+
+    public boolean undo() {
+        if (undoStack.isEmpty()) return false;
+        settlePendingSpawn();
+        redoStack.push(game.snapshot());
+        restoreState(undoStack.pop());
+        return true;
+    }
+
+    public boolean redo() {
+        if (redoStack.isEmpty()) return false;
+        settlePendingSpawn();
+        undoStack.push(game.snapshot());
+        restoreState(redoStack.pop());
+        return true;
+    }
+
+    private void restoreState(Snapshot snapshot) {
+        // 回放格式只能顺序追加，跳转后停止录制
+        closeReplay();
+        game.restore(snapshot);
+        rebuildTiles();
+        publishReset();
+    }
+
+    // --- 观战 ---
+
+    // 把远端引擎的一个批次放到本地视图上播放，after 是这个批次之后的局面
+    // 含 BOARD_RESET 的批次 (关键帧) 直接换成 after；否则按事件移动方块，动画与本地移动一致
+    // 事件与本地方块对不上时 (不应发生) 按 after 重建视图，逻辑局面总以 after 为准
+    public void applyRemote(EventBatch remote, Snapshot after) {
+        if (remote.contains(EventType.BOARD_RESET)) {
+            resume(after);
+        } else {
+            settlePendingSpawn();
+            game.restore(after);
+            score = game.score();
+            if (!replayRemote(remote)) rebuildTiles();
+            if (!animated) finishAnimations();
+            batch.copyFrom(remote);
+            events.publish(batch);
+        }
+        isGameStopped = remote.contains(EventType.GAME_OVER);
+        for (int i = 0; i < remote.size(); i++) {
+            if (remote.type(i) == EventType.GAME_OVER) isWon = remote.value(i) != 0;
         }
-        if (isChanged) needNewTile = true; // 标记需要新方块
-        return isChanged;
     }
 
-    public boolean moveRight() {
-        boolean isChanged = false;
-        List<Tile> mergedTiles = new ArrayList<>();
-        for (int i = 0; i < Config.SIDE; i++) {
-            for (int j = Config.SIDE - 2; j >= 0; j--) {
-                Tile current = getTileAt(i, j);
-                if (current == null) continue;
-                int targetCol = j;
-                for (int k = j + 1; k < Config.SIDE; k++) {
-                    Tile next = getTileAt(i, k);
-                    if (next == null) {
-                        targetCol = k;
-                    } else if (next.getValue() == current.getValue() && !mergedTiles.contains(next)) {
-                        performMerge(current, next, mergedTiles);
-                        isChanged = true;
-                        targetCol = -1;
-                        break;
-                    } else {
-                        break;
-                    }
+    private boolean replayRemote(EventBatch remote) {
+        for (int i = 0; i < remote.size(); i++) {
+            int from = remote.from(i);
+            int to = remote.to(i);
+            switch (remote.type(i)) {
+                case TILE_MOVED: {
+                    Tile t = grid[from];
+                    if (t == null) return false;
+                    grid[from] = null;
+                    t.setPosition(to / side, to % side);
+                    grid[to] = t;
+                    break;
                 }
-                if (targetCol != -1 && targetCol != j) {
-                    current.setPosition(i, targetCol);
-                    isChanged = true;
+                case TILES_MERGED: {
+                    Tile current = grid[from];
+                    Tile target = grid[to];
+                    if (current == null || target == null) return false;
+                    target.setValue(remote.value(i));
+                    target.setMerging();
+                    grid[from] = null;
+                    current.setPosition(target.getRow(), target.getCol());
+                    tiles.remove(current);
+                    break;
                 }
+                case TILE_SPAWNED:
+                    pendingSpawn = to;
+                    needNewTile = true;
+                    break;
+                default:
+                    break;
             }
         }
-        if (isChanged) needNewTile = true;
-        return isChanged;
+        // 视图必须与新局面逐格一致 (待显示的新方块除外)
+        for (int i = 0; i < grid.length; i++) {
+            int expected = i == pendingSpawn ? 0 : game.exponentAt(i);
+            int shown = grid[i] == null ? 0 : Integer.numberOfTrailingZeros(grid[i].getValue());
+            if (shown != expected) return false;
+        }
+        return true;
     }
 
-    public boolean moveUp() {
-        boolean isChanged = false;
-        List<Tile> mergedTiles = new ArrayList<>();
-        for (int j = 0; j < Config.SIDE; j++) {
-            for (int i = 1; i < Config.SIDE; i++) {
-                Tile current = getTileAt(i, j);
-                if (current == null) continue;
-                int targetRow = i;
-                for (int k = i - 1; k >= 0; k--) {
-                    Tile prev = getTileAt(k, j);
-                    if (prev == null) {
-                        targetRow = k;
-                    } else if (prev.getValue() == current.getValue() && !mergedTiles.contains(prev)) {
-                        performMerge(current, prev, mergedTiles);
-                        isChanged = true;
-                        targetRow = -1;
-                        break;
-                    } else {
-                        break;
+    // 把移动时已经生成的新方块显示出来
+    private void settlePendingSpawn() {
+        if (needNewTile) {
+            showSpawnedTile(pendingSpawn);
+            needNewTile = false;
+            pendingSpawn = -1;
+        }
+    }
+
+    // --- 核心移动逻辑 (新方块在逻辑层立即生成，视图在动画结束后显示) ---
+
+    // 逻辑层先走一步；合法时记录撤销点并开始收集本次移动的事件
+    private boolean applyMove(Direction direction) {
+        // 不合法的方向直接返回，不用先做快照
+        if (!Rules.isLegal(game.legalMoves(), direction)) return false;
+        settlePendingSpawn();
+        Snapshot before = game.snapshot();
+        int delta = game.move(direction);
+        if (delta == Rules.ILLEGAL) return false;
+        undoStack.push(before);
+        redoStack.clear();
+        score = game.score();
+        turnDelta = delta;
+        batch.begin(++sequence, direction);
+        return true;
+    }
+
+    // 视图更新完之后收尾：得分、生成新方块、录制回放、判断结束，然后发布整个批次
+    private void finishTurn() {
+        if (turnDelta > 0) batch.scoreChanged(turnDelta, score);
+        int index = spawnTile();
+        if (index >= 0) {
+            pendingSpawn = index;
+            needNewTile = true;
+        }
+
+        if (index >= 0) {
+            synchronized (replayLock) {
+                if (replay != null) {
+                    try {
+                        replay.turn(batch.direction(), index, game.exponentAt(index));
+                    } catch (IOException e) {
+                        // 录制失败不影响游戏本身
+                        System.err.println("回放写入失败，停止录制: " + e.getMessage());
+                        replay = null;
                     }
                 }
-                if (targetRow != -1 && targetRow != i) {
-                    current.setPosition(targetRow, j);
-                    isChanged = true;
-                }
             }
         }
-        if (isChanged) needNewTile = true;
-        return isChanged;
+
+        if (game.isTerminal()) batch.gameOver(isWon);
+        events.publish(batch);
+    }
+
+    public boolean move(Direction direction) {
+        if (!Metrics.ENABLED) return dispatchMove(direction);
+        long start = System.nanoTime();
+        boolean moved = dispatchMove(direction);
+        if (moved) Metrics.recordMove(System.nanoTime() - start, batch.count(EventType.TILES_MERGED));
+        return moved;
+    }
+
+    private boolean dispatchMove(Direction direction) {
+        switch (direction) {
+            case LEFT:  return moveLeft();
+            case RIGHT: return moveRight();
+            case UP:    return moveUp();
+            case DOWN:  return moveDown();
+            default:    return false;
+        }
+    }
+
+    public boolean moveLeft() {
+        return moveTiles(Direction.LEFT);
+    }
+
+    public boolean moveRight() {
+        return moveTiles(Direction.RIGHT);
+    }
+
+    public boolean moveUp() {
+        return moveTiles(Direction.UP);
     }
 
     public boolean moveDown() {
+        return moveTiles(Direction.DOWN);
+    }
+
+    // 四个方向共用的视图滑动：每条线从最前端往回扫，方块向前找空位或可合并的同值方块
+    private boolean moveTiles(Direction direction) {
+        if (!applyMove(direction)) return false; // 棋盘不变，视图无需遍历
+        Arrays.fill(merged, false);
         boolean isChanged = false;
-        List<Tile> mergedTiles = new ArrayList<>();
-        for (int j = 0; j < Config.SIDE; j++) {
-            for (int i = Config.SIDE - 2; i >= 0; i--) {
-                Tile current = getTileAt(i, j);
+
+        int first = direction.leadCell(side);
+        int lineStep = direction.lineStep(side);
+        int cellStep = direction.cellStep(side);
+        for (int line = 0; line < side; line++) {
+            int lead = first + line * lineStep;
+            for (int k = 1; k < side; k++) {
+                Tile current = grid[lead + k * cellStep];
                 if (current == null) continue;
-                int targetRow = i;
-                for (int k = i + 1; k < Config.SIDE; k++) {
-                    Tile next = getTileAt(k, j);
-                    if (next == null) {
-                        targetRow = k;
-                    } else if (next.getValue() == current.getValue() && !mergedTiles.contains(next)) {
-                        performMerge(current, next, mergedTiles);
+
+                int target = k;
+                for (int j = k - 1; j >= 0; j--) {
+                    Tile ahead = grid[lead + j * cellStep];
+                    if (ahead == null) {
+                        target = j;
+                    } else if (ahead.getValue() == current.getValue() && canMerge(current) && !isMerged(ahead)) {
+                        performMerge(current, ahead);
                         isChanged = true;
-                        targetRow = -1;
+                        target = -1;
                         break;
                     } else {
                         break;
                     }
                 }
-                if (targetRow != -1 && targetRow != i) {
-                    current.setPosition(targetRow, j);
+                if (target != -1 && target != k) {
+                    moveTile(current, lead + target * cellStep);
                     isChanged = true;
                 }
             }
         }
-        if (isChanged) needNewTile = true;
+        finishTurn();
+        if (!animated) finishAnimations();
         return isChanged;
     }
 
-    private void performMerge(Tile current, Tile target, List<Tile> mergedTiles) {
+    // 与规则层的指数上限保持一致，否则视图会和棋盘不同步
+    private boolean canMerge(Tile t) {
+        int maxExponent = packed != null ? BitBoard.MAX_EXPONENT : GridState.MAX_EXPONENT;
+        return t.getValue() < 1 << maxExponent;
+    }
+
+    private boolean isMerged(Tile t) {
+        return merged[t.getRow() * side + t.getCol()];
+    }
+
+    private void moveTile(Tile t, int index) {
+        batch.tileMoved(t.getRow() * side + t.getCol(), index, t.getValue());
+        grid[t.getRow() * side + t.getCol()] = null;
+        t.setPosition(index / side, index % side);
+        grid[index] = t;
+    }
+
+    // 得分已由 GameState 计算，这里只更新视图
+    private void performMerge(Tile current, Tile target) {
+        batch.tilesMerged(current.getRow() * side + current.getCol(), target.getRow() * side + target.getCol(),
+                target.getValue() * 2);
         target.setValue(target.getValue() * 2);
-        score += target.getValue();
         target.setMerging();
-        mergedTiles.add(target);
+        merged[target.getRow() * side + target.getCol()] = true;
 
+        grid[current.getRow() * side + current.getCol()] = null;
         current.setPosition(target.getRow(), target.getCol());
         tiles.remove(current);
-
-        if (mergeSoundCallback != null) mergeSoundCallback.run();
     }
 
     public int getMaxTileValue() {
-        int max = 0;
-        for (Tile t : tiles) max = Math.max(max, t.getValue());
-        return max;
+        int max = game.maxExponent();
+        return max == 0 ? 0 : 1 << max;
     }
 
     public boolean canUserMove() {
-        if (tiles.size() < Config.SIDE * Config.SIDE) return true;
-        for (int i = 0; i < Config.SIDE; i++) {
-            for (int j = 0; j < Config.SIDE; j++) {
-                Tile t = getTileAt(i, j);
-                if (t == null) continue;
-                Tile right = getTileAt(i, j + 1);
-                Tile down = getTileAt(i + 1, j);
-                if (right != null && right.getValue() == t.getValue()) return true;
-                if (down != null && down.getValue() == t.getValue()) return true;
-            }
-        }
-        return false;
+        return !game.isTerminal();
+    }
+
+    // 当前局面的合法方向掩码 (第 direction.code 位)，由规则层增量维护，随时可查
+    public int legalMoves() {
+        return game.legalMoves();
+    }
+
+    public boolean isLegal(Direction direction) {
+        return Rules.isLegal(game.legalMoves(), direction);
+    }
+
+    // 是否是可以打包成 long 的 4x4 棋盘 (AI、回放等只支持这种)
+    public boolean isPacked() {
+        return packed != null;
+    }
+
+    // 逻辑棋盘的快照值，供无界面的模拟和 AI 使用；仅限 4x4
+    public long getBoard() {
+        return requirePacked().board();
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    private GameState requirePacked() {
+        if (packed == null) throw new IllegalStateException("not a packed 4x4 board: side=" + side);
+        return packed;
     }
-}
\ No newline at end of file
+}
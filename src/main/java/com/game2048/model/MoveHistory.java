@@ -0,0 +1,67 @@
+package com.game2048.model;
+
+import com.game2048.core.Snapshot;
+
+import java.util.Arrays;
+
+// 定长的局面栈，满了丢掉最旧的一条
+// 4x4 局面只存 long + int (每步 12 字节)，上千步也只有几十 KB；其它尺寸存快照对象
+final class MoveHistory {
+    private final int capacity;
+    private final long[] boards;
+    private final int[] scores;
+    private final Snapshot[] others;
+    private int start;
+    private int size;
+
+    MoveHistory(int capacity) {
+        this.capacity = capacity;
+        this.boards = new long[capacity];
+        this.scores = new int[capacity];
+        this.others = new Snapshot[capacity];
+    }
+
+    void push(Snapshot s) {
+        int slot;
+        if (size == capacity) {
+            slot = start;
+            start = (start + 1) % capacity;
+        } else {
+            slot = (start + size) % capacity;
+            size++;
+        }
+        if (s.isPacked()) {
+            boards[slot] = s.board;
+            scores[slot] = s.score;
+            others[slot] = null;
+        } else {
+            others[slot] = s;
+        }
+    }
+
+    Snapshot pop() {
+        if (size == 0) return null;
+        size--;
+        int slot = (start + size) % capacity;
+        Snapshot s = others[slot];
+        if (s != null) {
+            others[slot] = null;
+            return s;
+        }
+        return new Snapshot(boards[slot], scores[slot]);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        start = 0;
+        size = 0;
+        Arrays.fill(others, null);
+    }
+}
@@ -1,12 +1,6 @@
 package com.game2048.model;
 
-import com.game2048.config.Config;
-import java.awt.Color;
-import java.awt.Font;
-import java.awt.FontMetrics;
-import java.awt.Graphics2D;
-import java.awt.geom.AffineTransform;
-
+// 方块的动画视图：坐标以格子为单位，像素换算交给 ui 层的 TileRenderer
 public class Tile {
     private int value;
     private int row;
@@ -14,7 +8,7 @@ public class Tile {
 
     // 动画相关
     private double currentX, currentY;
-    private int targetX, targetY;
+    private double targetX, targetY;
     private double scale = 1.0;
 
     private boolean isNew = false;
@@ -24,13 +18,16 @@ public class Tile {
     // 动画参数
     private static final double MAX_SCALE = 1.2;
     private static final double SCALE_SPEED = 0.1;
+    // 距离阈值 (格子单位)，约合原来的 1 像素 / 2 像素
+    private static final double SNAP_DISTANCE = 0.01;
+    private static final double MOVING_DISTANCE = 0.02;
 
     public Tile(int value, int row, int col) {
         this.value = value;
         this.row = row;
         this.col = col;
-        this.targetX = col * (Config.TILE_SIZE + Config.MARGIN) + Config.MARGIN;
-        this.targetY = row * (Config.TILE_SIZE + Config.MARGIN) + Config.MARGIN;
+        this.targetX = col;
+        this.targetY = row;
         this.currentX = targetX;
         this.currentY = targetY;
     }
@@ -44,24 +41,41 @@ public class Tile {
     public void setPosition(int row, int col) {
         this.row = row;
         this.col = col;
-        this.targetX = col * (Config.TILE_SIZE + Config.MARGIN) + Config.MARGIN;
-        this.targetY = row * (Config.TILE_SIZE + Config.MARGIN) + Config.MARGIN;
+        this.targetX = col;
+        this.targetY = row;
     }
 
+    // 当前动画位置 (格子单位，可以是小数) 与缩放
+    public double getX() { return currentX; }
+    public double getY() { return currentY; }
+    public double getScale() { return scale; }
+
     public void setNew() {
         this.isNew = true;
         this.scale = 0.1;
     }
 
     public void setMerging() {
+        // 新生动画还没播完就被合并时直接让位给合并动画，否则 isNew 永远清不掉
+        this.isNew = false;
         this.isMerging = true;
         this.scale = 1.0;
         this.reachedMax = false;
     }
 
+    // 快进：直接跳到动画终点
+    public void finishAnimation() {
+        currentX = targetX;
+        currentY = targetY;
+        scale = 1.0;
+        isNew = false;
+        isMerging = false;
+        reachedMax = false;
+    }
+
     public boolean isAnimationDone() {
-        return Math.abs(currentX - targetX) < 1.0 &&
-                Math.abs(currentY - targetY) < 1.0 &&
+        return Math.abs(currentX - targetX) < SNAP_DISTANCE &&
+                Math.abs(currentY - targetY) < SNAP_DISTANCE &&
                 scale == 1.0 && !isNew && !isMerging;
     }
 
@@ -69,7 +83,7 @@ public class Tile {
     // 数字越大，画在越上面
     public int getZIndex() {
         if (isMerging) return 100; // 合并中最优先
-        if (Math.abs(currentX - targetX) > 2 || Math.abs(currentY - targetY) > 2) return 50; // 移动中次之
+        if (Math.abs(currentX - targetX) > MOVING_DISTANCE || Math.abs(currentY - targetY) > MOVING_DISTANCE) return 50; // 移动中次之
         if (isNew) return 0; // 新生的在最底下
         return 10; // 普通静止方块
     }
@@ -84,8 +98,8 @@ public class Tile {
         currentX += dx * 0.35;
         currentY += dy * 0.35;
 
-        if (Math.abs(dx) < 1.0) currentX = targetX;
-        if (Math.abs(dy) < 1.0) currentY = targetY;
+        if (Math.abs(dx) < SNAP_DISTANCE) currentX = targetX;
+        if (Math.abs(dy) < SNAP_DISTANCE) currentY = targetY;
 
         // 2. 新生动画
         if (isNew) {
@@ -112,36 +126,4 @@ public class Tile {
             }
         }
     }
-
-    // --- 核心：绘制 ---
-    public void draw(Graphics2D g) {
-        if (value == 0) return;
-
-        // 1. 保存旧的坐标系状态 (修复 bug 的关键)
-        AffineTransform oldTransform = g.getTransform();
-
-        // 2. 变换坐标系到方块中心
-        double centerX = currentX + Config.TILE_SIZE / 2.0;
-        double centerY = currentY + Config.TILE_SIZE / 2.0;
-        g.translate(centerX, centerY);
-        g.scale(scale, scale);
-        g.translate(-Config.TILE_SIZE / 2.0, -Config.TILE_SIZE / 2.0);
-
-        // 3. 绘制内容
-        g.setColor(Config.getColorByValue(value));
-        g.fillRoundRect(0, 0, Config.TILE_SIZE, Config.TILE_SIZE, 14, 14);
-
-        g.setColor(value < 8 ? new Color(0x776e65) : new Color(0xf9f6f2));
-        int fontSize = value < 100 ? 36 : (value < 1000 ? 32 : 24);
-        g.setFont(new Font(Config.FONT_NAME, Font.BOLD, fontSize));
-
-        String s = String.valueOf(value);
-        FontMetrics fm = g.getFontMetrics();
-        int txtX = (Config.TILE_SIZE - fm.stringWidth(s)) / 2;
-        int txtY = ((Config.TILE_SIZE - fm.getHeight()) / 2) + fm.getAscent();
-        g.drawString(s, txtX, txtY);
-
-        // 4. 恢复坐标系 (修复 bug 的关键)
-        g.setTransform(oldTransform);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.game2048.persist;
+
+import com.game2048.event.EventBatch;
+import com.game2048.event.EventType;
+import com.game2048.event.GameEventListener;
+import com.game2048.model.GameEngine;
+
+// 把引擎事件接到存储上：每次移动后保存当前局面供续玩，对局结束时记入玩家统计
+// 在引擎线程上同步调用，但 PersistentStore 的写入都不阻塞
+public final class GameRecorder implements GameEventListener {
+    private final GameEngine engine;
+    private final PersistentStore store;
+    private final String player;
+    private int moves;
+    private boolean finished;
+
+    public GameRecorder(GameEngine engine, PersistentStore store, String player) {
+        this.engine = engine;
+        this.store = store;
+        this.player = player;
+    }
+
+    @Override
+    public void onBatch(EventBatch batch) {
+        // 新开一局从头计数；撤销、重做、续玩跳到还能走的局面时，对局又继续了，之后照常存档
+        if (batch.contains(EventType.NEW_GAME)) {
+            moves = 0;
+            finished = false;
+        } else if (batch.contains(EventType.BOARD_RESET) && !engine.getGame().isTerminal()) {
+            finished = false;
+        }
+        if (batch.direction() != null) moves++;
+
+        if (batch.contains(EventType.GAME_OVER)) {
+            if (!finished) store.recordGame(player, engine.score, engine.getMaxTileValue(), moves, engine.isWon);
+            finished = true;
+        } else if (!finished) {
+            // 逻辑棋盘上新方块已经生成，不必像 engine.snapshot() 那样提前结束动画
+            store.saveGame(engine.getGame().snapshot());
+        }
+    }
+}
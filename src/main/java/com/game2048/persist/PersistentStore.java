@@ -0,0 +1,284 @@
+package com.game2048.persist;
+
+import com.game2048.core.Snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// 本地持久化：最高分、每个玩家的统计、未完成对局的续玩
+// 目录下两个文件：
+//   journal  只追加的日志，每条记录一帧 (见 Record)
+//   snapshot 压缩后的完整状态 (文件头里带已包含的最大序号)，启动时内存映射读取
+// 调用方线程只更新内存状态并把编码好的帧放进队列，立即返回；后台线程批量写日志，每批只 fsync 一次
+// 日志超过 COMPACT_BYTES 后在后台压缩：写新快照 -> fsync -> 原子替换 -> 清空日志
+// 崩溃时最多丢最后一批；压缩中途崩溃则按序号跳过快照里已包含的记录，不会重复计数
+public final class PersistentStore implements Closeable {
+    private static final int MAGIC = 0x32303453; // "204S"
+    private static final int VERSION = 1;
+    private static final int JOURNAL_HEADER = 8;
+    private static final int SNAPSHOT_HEADER = 16;
+    private static final long COMPACT_BYTES = 256 * 1024;
+    private static final int MAX_PLAYER_NAME = 64;
+
+    private final Path snapshotPath;
+    private final Path tempPath;
+    private final FileChannel journal;
+
+    // 内存状态，读写都在 this 上同步
+    private final Map<String, PlayerStats> players = new HashMap<>();
+    private Snapshot savedGame;
+    private int bestScore;
+    private long lastSeq;
+
+    private final LinkedBlockingQueue<byte[]> queue = new LinkedBlockingQueue<>();
+    private static final byte[] STOP = new byte[0];
+    private final Thread writer;
+    private long journalBytes;
+    private volatile IOException failure;
+
+    public PersistentStore(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        snapshotPath = dir.resolve("snapshot");
+        tempPath = dir.resolve("snapshot.tmp");
+        Files.deleteIfExists(tempPath);
+
+        loadSnapshot();
+        journal = FileChannel.open(dir.resolve("journal"), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        replayJournal();
+
+        writer = new Thread(this::writeLoop, "2048-persist");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // --- 查询 ---
+
+    public synchronized int bestScore() {
+        return bestScore;
+    }
+
+    public synchronized PlayerStats stats(String player) {
+        PlayerStats s = players.get(normalize(player));
+        return s == null ? new PlayerStats() : new PlayerStats(s);
+    }
+
+    // 上次退出时未完成的对局，没有时为 null
+    public synchronized Snapshot savedGame() {
+        return savedGame;
+    }
+
+    // --- 写入：都不阻塞 ---
+
+    public void recordGame(String player, int score, int maxTile, int moves, boolean won) {
+        Record r;
+        synchronized (this) {
+            r = new Record(++lastSeq, Record.GAME_FINISHED);
+            r.player = normalize(player);
+            r.score = score;
+            r.maxTile = maxTile;
+            r.moves = moves;
+            r.won = won;
+            apply(r);
+        }
+        queue.add(r.encode());
+    }
+
+    public void saveGame(Snapshot game) {
+        Record r;
+        synchronized (this) {
+            r = new Record(++lastSeq, Record.GAME_SAVED);
+            r.game = game;
+            apply(r);
+        }
+        queue.add(r.encode());
+    }
+
+    public void clearGame() {
+        Record r;
+        synchronized (this) {
+            if (savedGame == null) return;
+            r = new Record(++lastSeq, Record.GAME_CLEARED);
+            apply(r);
+        }
+        queue.add(r.encode());
+    }
+
+    // 写完队列里的记录、压缩一次后关闭
+    @Override
+    public void close() throws IOException {
+        queue.add(STOP);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (failure == null) compact();
+        } finally {
+            journal.close();
+        }
+        if (failure != null) throw failure;
+    }
+
+    // --- 状态 ---
+
+    private void apply(Record r) {
+        switch (r.type) {
+            case Record.GAME_FINISHED:
+                players.computeIfAbsent(r.player, k -> new PlayerStats()).record(r.score, r.maxTile, r.moves, r.won);
+                bestScore = Math.max(bestScore, r.score);
+                savedGame = null;
+                break;
+            case Record.GAME_SAVED:
+                savedGame = r.game;
+                break;
+            case Record.GAME_CLEARED:
+                savedGame = null;
+                break;
+            case Record.PLAYER_STATS:
+                players.put(r.player, r.stats);
+                bestScore = Math.max(bestScore, r.stats.bestScore);
+                break;
+            default:
+                break;
+        }
+        lastSeq = Math.max(lastSeq, r.seq);
+    }
+
+    private static String normalize(String player) {
+        String name = player == null || player.isEmpty() ? "player" : player;
+        return name.length() > MAX_PLAYER_NAME ? name.substring(0, MAX_PLAYER_NAME) : name;
+    }
+
+    // --- 启动时读取 ---
+
+    private void loadSnapshot() throws IOException {
+        if (!Files.exists(snapshotPath)) return;
+        try (FileChannel ch = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            if (ch.size() < SNAPSHOT_HEADER) return;
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+                throw new IOException("not a 2048 snapshot: " + snapshotPath);
+            }
+            long snapshotSeq = buf.getLong();
+            Record r;
+            while ((r = Record.decode(buf)) != null) apply(r);
+            // 快照是原子替换进来的，不会半截；以文件头的序号为准
+            lastSeq = Math.max(lastSeq, snapshotSeq);
+        }
+    }
+
+    private void replayJournal() throws IOException {
+        long size = journal.size();
+        if (size < JOURNAL_HEADER) {
+            resetJournal();
+            return;
+        }
+        MappedByteBuffer buf = journal.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if (buf.getInt() != MAGIC || buf.getInt() != VERSION) throw new IOException("not a 2048 journal");
+        long snapshotSeq = lastSeq;
+        Record r;
+        while ((r = Record.decode(buf)) != null) {
+            if (r.seq > snapshotSeq) apply(r);
+        }
+        // 截掉崩溃时写了一半的尾巴，后续从这里接着追加
+        long valid = buf.position();
+        if (valid < size) journal.truncate(valid);
+        journalBytes = valid - JOURNAL_HEADER;
+        journal.position(valid);
+    }
+
+    private void resetJournal() throws IOException {
+        journal.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        journal.write(header, 0);
+        journal.position(JOURNAL_HEADER);
+        journal.force(false);
+        journalBytes = 0;
+    }
+
+    // --- 后台写入 ---
+
+    private void writeLoop() {
+        List<byte[]> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                byte[] first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch);
+                for (byte[] frame : batch) {
+                    if (frame == STOP) {
+                        running = false;
+                        continue;
+                    }
+                    if (failure != null) continue;
+                    ByteBuffer buf = ByteBuffer.wrap(frame);
+                    while (buf.hasRemaining()) journal.write(buf);
+                    journalBytes += frame.length;
+                }
+                batch.clear();
+                if (failure != null) continue;
+                // 一批只 fsync 一次
+                journal.force(false);
+                if (journalBytes > COMPACT_BYTES) compact();
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                // 写盘失败不影响游戏，只是不再持久化
+                failure = e;
+                System.err.println("存档写入失败，之后的记录不会保存: " + e.getMessage());
+            }
+        }
+    }
+
+    // 只在写线程上调用 (或写线程结束后由 close 调用)
+    private void compact() throws IOException {
+        ByteBuffer out;
+        synchronized (this) {
+            List<byte[]> frames = new ArrayList<>();
+            int size = SNAPSHOT_HEADER;
+            for (Map.Entry<String, PlayerStats> e : players.entrySet()) {
+                Record r = new Record(0, Record.PLAYER_STATS);
+                r.player = e.getKey();
+                r.stats = new PlayerStats(e.getValue());
+                frames.add(r.encode());
+            }
+            if (savedGame != null) {
+                Record r = new Record(0, Record.GAME_SAVED);
+                r.game = savedGame;
+                frames.add(r.encode());
+            }
+            for (byte[] f : frames) size += f.length;
+            out = ByteBuffer.allocate(size);
+            out.putInt(MAGIC).putInt(VERSION).putLong(lastSeq);
+            for (byte[] f : frames) out.put(f);
+            out.flip();
+        }
+
+        try (FileChannel tmp = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) tmp.write(out);
+            tmp.force(true);
+        }
+        Files.move(tempPath, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // 快照落盘后日志里的记录都已包含在内
+        resetJournal();
+    }
+}
@@ -0,0 +1,41 @@
+package com.game2048.persist;
+
+// 单个玩家的累计统计；对外给出的都是副本
+public final class PlayerStats {
+    public long games;
+    public long wins;
+    public long totalScore;
+    public long moves;
+    public int bestScore;
+    public int bestTile;
+
+    public PlayerStats() {
+    }
+
+    PlayerStats(PlayerStats other) {
+        games = other.games;
+        wins = other.wins;
+        totalScore = other.totalScore;
+        moves = other.moves;
+        bestScore = other.bestScore;
+        bestTile = other.bestTile;
+    }
+
+    void record(int score, int maxTile, int gameMoves, boolean won) {
+        games++;
+        if (won) wins++;
+        totalScore += score;
+        moves += gameMoves;
+        bestScore = Math.max(bestScore, score);
+        bestTile = Math.max(bestTile, maxTile);
+    }
+
+    public double averageScore() {
+        return games == 0 ? 0 : (double) totalScore / games;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("games=%d wins=%d best=%d bestTile=%d avg=%.1f", games, wins, bestScore, bestTile, averageScore());
+    }
+}
@@ -0,0 +1,147 @@
+package com.game2048.persist;
+
+import com.game2048.core.Snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+// 日志记录，以及它在文件里的帧格式 (大端)：
+//   int 载荷长度 | int 载荷 CRC32 | 载荷: long 序号 | byte 类型 | 各类型字段
+// 读到长度或校验不对的帧就认为是崩溃时写了一半，从这里截断
+final class Record {
+    static final byte GAME_FINISHED = 1;
+    static final byte GAME_SAVED = 2;
+    static final byte GAME_CLEARED = 3;
+    // 只出现在压缩后的快照文件里：某个玩家的完整统计
+    static final byte PLAYER_STATS = 4;
+
+    // GAME_SAVED 的尺寸字节高位：LAYOUT_FLAG 表示带了布局标记，PACKED_FLAG 表示后面是压缩的 long
+    // 旧版本写的记录没有标记，按 side == 4 判断 (当时 4x4 总是压缩存储)
+    static final int LAYOUT_FLAG = 0x80;
+    static final int PACKED_FLAG = 0x40;
+    static final int SIDE_MASK = 0x3F;
+
+    static final int FRAME_HEADER = 8;
+    static final int MAX_PAYLOAD = 1024;
+
+    final long seq;
+    final byte type;
+    String player;
+    int score;
+    int maxTile;
+    int moves;
+    boolean won;
+    Snapshot game;
+    PlayerStats stats;
+
+    Record(long seq, byte type) {
+        this.seq = seq;
+        this.type = type;
+    }
+
+    // 编码成一个完整的帧
+    byte[] encode() {
+        ByteBuffer payload = ByteBuffer.allocate(MAX_PAYLOAD);
+        payload.putLong(seq).put(type);
+        switch (type) {
+            case GAME_FINISHED:
+                putString(payload, player);
+                payload.putInt(score).putInt(maxTile).putInt(moves).put((byte) (won ? 1 : 0));
+                break;
+            case GAME_SAVED:
+                payload.put((byte) (game.side | LAYOUT_FLAG | (game.isPacked() ? PACKED_FLAG : 0))).putInt(game.score);
+                if (game.isPacked()) {
+                    payload.putLong(game.board);
+                } else {
+                    for (int i = 0; i < game.side * game.side; i++) payload.put((byte) game.exponentAt(i));
+                }
+                break;
+            case PLAYER_STATS:
+                putString(payload, player);
+                payload.putLong(stats.games).putLong(stats.wins).putLong(stats.totalScore).putLong(stats.moves)
+                        .putInt(stats.bestScore).putInt(stats.bestTile);
+                break;
+            default:
+                break;
+        }
+        payload.flip();
+        CRC32 crc = new CRC32();
+        crc.update(payload.array(), 0, payload.limit());
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + payload.limit());
+        frame.putInt(payload.limit()).putInt((int) crc.getValue()).put(payload);
+        return frame.array();
+    }
+
+    // 从 buf 当前位置读一帧；帧不完整或校验失败时返回 null，位置不动
+    static Record decode(ByteBuffer buf) {
+        int start = buf.position();
+        if (buf.remaining() < FRAME_HEADER) return null;
+        int length = buf.getInt(start);
+        int checksum = buf.getInt(start + 4);
+        if (length < 9 || length > MAX_PAYLOAD || buf.remaining() < FRAME_HEADER + length) return null;
+
+        byte[] payload = new byte[length];
+        for (int i = 0; i < length; i++) payload[i] = buf.get(start + FRAME_HEADER + i);
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, length);
+        if ((int) crc.getValue() != checksum) return null;
+
+        ByteBuffer p = ByteBuffer.wrap(payload);
+        Record r = new Record(p.getLong(), p.get());
+        try {
+            switch (r.type) {
+                case GAME_FINISHED:
+                    r.player = getString(p);
+                    r.score = p.getInt();
+                    r.maxTile = p.getInt();
+                    r.moves = p.getInt();
+                    r.won = p.get() != 0;
+                    break;
+                case GAME_SAVED: {
+                    int header = p.get() & 0xFF;
+                    int side = header & SIDE_MASK;
+                    int score = p.getInt();
+                    boolean packed = (header & LAYOUT_FLAG) != 0 ? (header & PACKED_FLAG) != 0 : side == 4;
+                    if (packed) {
+                        r.game = new Snapshot(p.getLong(), score);
+                    } else {
+                        byte[] cells = new byte[side * side];
+                        p.get(cells);
+                        r.game = new Snapshot(side, cells, score);
+                    }
+                    break;
+                }
+                case PLAYER_STATS:
+                    r.player = getString(p);
+                    r.stats = new PlayerStats();
+                    r.stats.games = p.getLong();
+                    r.stats.wins = p.getLong();
+                    r.stats.totalScore = p.getLong();
+                    r.stats.moves = p.getLong();
+                    r.stats.bestScore = p.getInt();
+                    r.stats.bestTile = p.getInt();
+                    break;
+                case GAME_CLEARED:
+                    break;
+                default:
+                    return null;
+            }
+        } catch (RuntimeException e) {
+            return null; // 校验通过但内容不对，按坏帧处理
+        }
+        buf.position(start + FRAME_HEADER + length);
+        return r;
+    }
+
+    private static void putString(ByteBuffer buf, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        buf.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.getShort() & 0xFFFF];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,69 @@
+package com.game2048.persist;
+
+import com.game2048.event.EventBatch;
+import com.game2048.event.EventType;
+import com.game2048.event.GameEventListener;
+import com.game2048.model.GameEngine;
+import com.game2048.replay.ReplayWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+// 把每一局都录成回放：当前这局写到 path，之后每开一局换一个带序号的文件 (game.bin, game-2.bin, ...)
+// 撤销、重做、载入会让引擎停止录制 (回放只能顺序追加)，录制从下一局重新开始
+// onBatch 在引擎线程上同步调用；close 可以在退出钩子里调用，先从引擎摘下写入器，不会和正在写的回合交错
+public final class ReplayRecorder implements GameEventListener, Closeable {
+    private final GameEngine engine;
+    private final Path path;
+    private int games;
+    private ReplayWriter writer;
+    private boolean closed;
+
+    public ReplayRecorder(GameEngine engine, Path path) {
+        if (!engine.isPacked()) throw new IllegalArgumentException("replay only supports 4x4 boards");
+        this.engine = engine;
+        this.path = path;
+    }
+
+    // 从引擎的当前局面开始录第一局
+    public void start() {
+        next();
+    }
+
+    @Override
+    public void onBatch(EventBatch batch) {
+        // 引擎新开一局时已经关掉了上一局的写入器
+        if (batch.contains(EventType.NEW_GAME)) next();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        engine.setReplayWriter(null);
+        if (writer != null) writer.close();
+    }
+
+    private synchronized void next() {
+        // 关闭之后引擎再开新局也不再录制
+        if (closed) return;
+        Path file = fileFor(++games);
+        try {
+            writer = ReplayWriter.create(file, engine.getSeed());
+            engine.setReplayWriter(writer);
+        } catch (IOException e) {
+            System.err.println("回放文件创建失败，本局不录制: " + file + ": " + e.getMessage());
+            writer = null;
+        }
+    }
+
+    private Path fileFor(int game) {
+        if (game == 1) return path;
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String numbered = dot > 0
+                ? name.substring(0, dot) + "-" + game + name.substring(dot)
+                : name + "-" + game;
+        return path.resolveSibling(numbered);
+    }
+}
@@ -0,0 +1,46 @@
+package com.game2048.replay;
+
+import java.nio.ByteBuffer;
+
+// 回放文件格式 (仅 4x4)：
+//   文件头: int MAGIC, byte VERSION, long seed
+//   之后是若干块，每块:
+//     varint 首个回合号 | long 关键帧棋盘 | varint 关键帧分数 | varint 回合数 | 回合数 * 7 bit 的紧凑记录 (补齐到字节)
+//   每个回合 7 bit: 方向 2 bit | 生成位置 4 bit | 生成值 1 bit (0 = 2, 1 = 4)
+// 每块开头都有完整棋盘，读取任意回合只需从所在块的关键帧解码
+final class ReplayFormat {
+    static final int MAGIC = 0x32303438; // "2048"
+    static final byte VERSION = 1;
+    static final int HEADER_BYTES = 4 + 1 + 8;
+    static final int BITS_PER_TURN = 7;
+    static final int DEFAULT_BLOCK_TURNS = 1024;
+
+    private ReplayFormat() {
+    }
+
+    static int encodeTurn(int direction, int spawnIndex, int spawnExponent) {
+        return direction | (spawnIndex << 2) | ((spawnExponent - 1) << 6);
+    }
+
+    static int packedBytes(int turns) {
+        return (turns * BITS_PER_TURN + 7) >>> 3;
+    }
+
+    static void putVarint(ByteBuffer buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    static long getVarint(ByteBuffer buf) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buf.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+            if (shift > 56) throw new IllegalStateException("varint too long");
+        }
+    }
+}
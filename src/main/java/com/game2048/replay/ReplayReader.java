@@ -0,0 +1,138 @@
+package com.game2048.replay;
+
+import com.game2048.core.BitBoard;
+import com.game2048.core.Direction;
+import com.game2048.core.GameState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// 回放读取器：打开时只扫描块头建立索引，定位任意回合 = 二分找块 + 从关键帧解码不超过一块的记录
+public class ReplayReader implements Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer data;
+    private final long seed;
+
+    // 块索引
+    private int blocks;
+    private long[] firstTurn = new long[16];
+    private long[] keyBoard = new long[16];
+    private int[] keyScore = new int[16];
+    private int[] turnCount = new int[16];
+    private int[] bitsOffset = new int[16];
+
+    public ReplayReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        data = mapped;
+        if (data.remaining() < ReplayFormat.HEADER_BYTES || data.getInt() != ReplayFormat.MAGIC) {
+            throw new IOException("not a replay file: " + path);
+        }
+        byte version = data.get();
+        if (version != ReplayFormat.VERSION) throw new IOException("unsupported replay version: " + version);
+        seed = data.getLong();
+        indexBlocks();
+    }
+
+    private void indexBlocks() {
+        while (data.hasRemaining()) {
+            if (blocks == firstTurn.length) grow();
+            firstTurn[blocks] = ReplayFormat.getVarint(data);
+            keyBoard[blocks] = data.getLong();
+            keyScore[blocks] = (int) ReplayFormat.getVarint(data);
+            turnCount[blocks] = (int) ReplayFormat.getVarint(data);
+            bitsOffset[blocks] = data.position();
+            data.position(data.position() + ReplayFormat.packedBytes(turnCount[blocks]));
+            blocks++;
+        }
+    }
+
+    private void grow() {
+        int n = firstTurn.length * 2;
+        firstTurn = Arrays.copyOf(firstTurn, n);
+        keyBoard = Arrays.copyOf(keyBoard, n);
+        keyScore = Arrays.copyOf(keyScore, n);
+        turnCount = Arrays.copyOf(turnCount, n);
+        bitsOffset = Arrays.copyOf(bitsOffset, n);
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    public long turns() {
+        return blocks == 0 ? 0 : firstTurn[blocks - 1] + turnCount[blocks - 1];
+    }
+
+    // 第 turn 个回合开始前的局面 (turn == turns() 时为终局)，写入 out
+    public void stateAt(long turn, GameState out) {
+        if (blocks == 0 || turn < 0 || turn > turns()) throw new IndexOutOfBoundsException("turn: " + turn);
+        int b = findBlock(turn);
+        long board = keyBoard[b];
+        int score = keyScore[b];
+        int steps = (int) (turn - firstTurn[b]);
+        int base = bitsOffset[b];
+        for (int i = 0; i < steps; i++) {
+            int rec = record(base, i);
+            int dir = rec & 3;
+            score += BitBoard.scoreOf(board, dir);
+            board = BitBoard.withExponent(BitBoard.move(board, dir), (rec >>> 2) & 0xF, (rec >>> 6) + 1);
+        }
+        out.set(board, score);
+    }
+
+    public Direction direction(long turn) {
+        int b = findBlock(turn);
+        if (turn >= firstTurn[b] + turnCount[b]) throw new IndexOutOfBoundsException("turn: " + turn);
+        return Direction.of(record(bitsOffset[b], (int) (turn - firstTurn[b])) & 3);
+    }
+
+    // 从头到尾顺序解码，返回终局；用于校验和吞吐测试
+    public void replayAll(GameState out) {
+        long board = 0;
+        int score = 0;
+        for (int b = 0; b < blocks; b++) {
+            board = keyBoard[b];
+            score = keyScore[b];
+            int base = bitsOffset[b];
+            for (int i = 0; i < turnCount[b]; i++) {
+                int rec = record(base, i);
+                int dir = rec & 3;
+                score += BitBoard.scoreOf(board, dir);
+                board = BitBoard.withExponent(BitBoard.move(board, dir), (rec >>> 2) & 0xF, (rec >>> 6) + 1);
+            }
+        }
+        out.set(board, score);
+    }
+
+    private int record(int base, int i) {
+        long bit = (long) i * ReplayFormat.BITS_PER_TURN;
+        int pos = base + (int) (bit >>> 3);
+        int offset = (int) (bit & 7);
+        int lo = data.get(pos) & 0xFF;
+        int hi = offset + ReplayFormat.BITS_PER_TURN > 8 ? (data.get(pos + 1) & 0xFF) << 8 : 0;
+        return ((lo | hi) >>> offset) & 0x7F;
+    }
+
+    private int findBlock(long turn) {
+        int lo = 0;
+        int hi = blocks - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (firstTurn[mid] <= turn) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,136 @@
+package com.game2048.replay;
+
+import com.game2048.core.BitBoard;
+import com.game2048.core.Direction;
+import com.game2048.core.Rules;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// 只追加的回放写入器：回合先按 7 bit 压进当前块，块满后整块写入缓冲，缓冲满了再写到 channel
+// 不是线程安全的，一局游戏一个实例
+public class ReplayWriter implements Closeable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final int blockTurns;
+    private final byte[] bits;
+
+    private boolean begun;
+    private boolean closed;
+    private long turn;
+    // 当前块的关键帧
+    private long blockStartTurn;
+    private long blockBoard;
+    private int blockScore;
+    private int blockCount;
+    private long bitPos;
+    // 写入器自己跟踪的棋盘，用于生成下一块的关键帧
+    private long board;
+    private int score;
+
+    public ReplayWriter(WritableByteChannel channel, long seed) throws IOException {
+        this(channel, seed, ReplayFormat.DEFAULT_BLOCK_TURNS);
+    }
+
+    public ReplayWriter(WritableByteChannel channel, long seed, int blockTurns) throws IOException {
+        if (blockTurns <= 0) throw new IllegalArgumentException("blockTurns: " + blockTurns);
+        this.channel = channel;
+        this.blockTurns = blockTurns;
+        this.bits = new byte[ReplayFormat.packedBytes(blockTurns) + 1];
+        out.putInt(ReplayFormat.MAGIC);
+        out.put(ReplayFormat.VERSION);
+        out.putLong(seed);
+    }
+
+    public static ReplayWriter create(Path path, long seed) throws IOException {
+        return new ReplayWriter(FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), seed);
+    }
+
+    // 记录起始局面 (开局两个方块已生成之后)
+    public void begin(long board, int score) {
+        if (begun) throw new IllegalStateException("already begun");
+        begun = true;
+        this.board = board;
+        this.score = score;
+        startBlock();
+    }
+
+    // 记录一个回合：移动方向以及随后生成的方块
+    public void turn(Direction direction, int spawnIndex, int spawnExponent) throws IOException {
+        if (!begun) throw new IllegalStateException("begin() not called");
+        if (spawnExponent != 1 && spawnExponent != 2) throw new IllegalArgumentException("spawnExponent: " + spawnExponent);
+
+        putBits(ReplayFormat.encodeTurn(direction.code, spawnIndex, spawnExponent));
+        blockCount++;
+        turn++;
+
+        score += Rules.scoreOf(board, direction);
+        board = BitBoard.withExponent(Rules.move(board, direction), spawnIndex, spawnExponent);
+
+        if (blockCount == blockTurns) {
+            writeBlock();
+            startBlock();
+        }
+    }
+
+    public long turns() {
+        return turn;
+    }
+
+    public void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) channel.write(out);
+        out.clear();
+    }
+
+    // 可以重复调用；一个回合都没有时也写出起始关键帧，文件总能读回起始局面
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (begun && (blockCount > 0 || turn == 0)) writeBlock();
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void startBlock() {
+        blockStartTurn = turn;
+        blockBoard = board;
+        blockScore = score;
+        blockCount = 0;
+        bitPos = 0;
+        Arrays.fill(bits, (byte) 0);
+    }
+
+    private void putBits(int value) {
+        int byteIndex = (int) (bitPos >>> 3);
+        int offset = (int) (bitPos & 7);
+        int shifted = value << offset;
+        bits[byteIndex] |= (byte) shifted;
+        bits[byteIndex + 1] |= (byte) (shifted >>> 8);
+        bitPos += ReplayFormat.BITS_PER_TURN;
+    }
+
+    private void writeBlock() throws IOException {
+        int packed = ReplayFormat.packedBytes(blockCount);
+        // 块头最多 10 + 8 + 5 + 5 字节
+        if (out.remaining() < 28 + packed) flush();
+        ReplayFormat.putVarint(out, blockStartTurn);
+        out.putLong(blockBoard);
+        ReplayFormat.putVarint(out, blockScore);
+        ReplayFormat.putVarint(out, blockCount);
+        out.put(bits, 0, packed);
+    }
+}
@@ -0,0 +1,19 @@
+package com.game2048.server;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+// 一条客户端连接的读写缓冲；只在所属事件循环的线程上访问
+final class Connection {
+    final SocketChannel channel;
+    // 读缓冲处于写入模式 (position = 已读入字节数)
+    final ByteBuffer in = ByteBuffer.allocate(1024);
+    // 待发送的应答，同样处于写入模式
+    final ByteBuffer out = ByteBuffer.allocate(4096);
+    // 这条连接最近操作的会话；同一 id 的后续命令不再查共享表 (以 Long 为键的查找会装箱)
+    Session session;
+
+    Connection(SocketChannel channel) {
+        this.channel = channel;
+    }
+}
@@ -0,0 +1,143 @@
+package com.game2048.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// 单线程的 selector 循环：一个循环管理多条连接，连接之间互不阻塞
+// 应答写不出去时停止解析后续命令，等可写后再继续，避免慢客户端把缓冲撑爆
+final class EventLoop implements Runnable {
+    private final Selector selector;
+    private final LineProtocol protocol;
+    private final ConcurrentLinkedQueue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    EventLoop(LineProtocol protocol) throws IOException {
+        this.selector = Selector.open();
+        this.protocol = protocol;
+    }
+
+    // 由接收线程调用，把新连接交给本循环
+    void register(SocketChannel channel) {
+        pending.add(channel);
+        selector.wakeup();
+    }
+
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                registerPending();
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    Connection conn = (Connection) key.attachment();
+                    try {
+                        if (key.isValid() && key.isWritable()) flush(key, conn);
+                        if (key.isValid() && key.isReadable()) read(key, conn);
+                    } catch (IOException e) {
+                        close(key, conn);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) System.err.println("事件循环异常退出: " + e);
+        } finally {
+            for (SelectionKey key : selector.keys()) close(key, (Connection) key.attachment());
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void registerPending() {
+        SocketChannel channel;
+        while ((channel = pending.poll()) != null) {
+            try {
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+            } catch (IOException e) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private void read(SelectionKey key, Connection conn) throws IOException {
+        int n = conn.channel.read(conn.in);
+        if (n < 0) {
+            close(key, conn);
+            return;
+        }
+        process(key, conn);
+    }
+
+    // 处理读缓冲里所有完整的行，然后尽量把应答写出去
+    private void process(SelectionKey key, Connection conn) throws IOException {
+        ByteBuffer in = conn.in;
+        ByteBuffer out = conn.out;
+        int limit = in.position();
+        int lineStart = 0;
+        for (int i = 0; i < limit; i++) {
+            if (in.get(i) != '\n') continue;
+            if (out.remaining() < LineProtocol.MAX_LINE) break;
+            protocol.handle(conn, lineStart, i);
+            lineStart = i + 1;
+        }
+
+        // 未处理的部分挪到缓冲开头
+        int rest = limit - lineStart;
+        for (int i = 0; i < rest; i++) in.put(i, in.get(lineStart + i));
+        in.position(rest);
+        if (rest >= LineProtocol.MAX_LINE && indexOf(in, rest) < 0) {
+            close(key, conn); // 超长的行，不是合法客户端
+            return;
+        }
+        flush(key, conn);
+    }
+
+    private void flush(SelectionKey key, Connection conn) throws IOException {
+        ByteBuffer out = conn.out;
+        out.flip();
+        conn.channel.write(out);
+        out.compact();
+        if (out.position() > 0) {
+            // 还有积压：只等可写，暂停读取
+            key.interestOps(SelectionKey.OP_WRITE);
+        } else {
+            key.interestOps(SelectionKey.OP_READ);
+            // 可能有因为输出缓冲满而没处理的行
+            if (indexOf(conn.in, conn.in.position()) >= 0) process(key, conn);
+        }
+    }
+
+    private static int indexOf(ByteBuffer in, int limit) {
+        for (int i = 0; i < limit; i++) {
+            if (in.get(i) == '\n') return i;
+        }
+        return -1;
+    }
+
+    private static void close(SelectionKey key, Connection conn) {
+        key.cancel();
+        try {
+            conn.channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.game2048.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// 无界面的对局服务：规则在服务端执行，客户端只发方向
+// 一个接收线程 + 若干 selector 事件循环 (默认每核一个)，会话放在共享表里，后台定时淘汰空闲会话
+// Java 8 没有虚拟线程，这里用固定数量的事件循环代替每连接一个线程
+public final class GameServer implements Closeable {
+    private final InetSocketAddress address;
+    private final SessionStore sessions;
+    private final EventLoop[] loops;
+    private final long idleTimeoutNanos;
+
+    private ServerSocketChannel server;
+    private Thread acceptor;
+    private ScheduledExecutorService sweeper;
+
+    public GameServer(InetSocketAddress address, int loopCount, int maxSessions, long idleTimeoutMillis) throws IOException {
+        if (loopCount < 1) throw new IllegalArgumentException("loops: " + loopCount);
+        this.address = address;
+        this.sessions = new SessionStore(maxSessions);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        LineProtocol protocol = new LineProtocol(sessions);
+        loops = new EventLoop[loopCount];
+        for (int i = 0; i < loopCount; i++) loops[i] = new EventLoop(protocol);
+    }
+
+    public void start() throws IOException {
+        server = ServerSocketChannel.open();
+        server.bind(address, 1024);
+        for (int i = 0; i < loops.length; i++) {
+            Thread t = new Thread(loops[i], "2048-loop-" + i);
+            t.setDaemon(true);
+            t.start();
+        }
+
+        acceptor = new Thread(this::acceptLoop, "2048-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "2048-evict");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1, TimeUnit.NANOSECONDS.toMillis(idleTimeoutNanos) / 4);
+        sweeper.scheduleAtFixedRate(() -> sessions.evictIdle(System.nanoTime(), idleTimeoutNanos),
+                period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void acceptLoop() {
+        int next = 0;
+        while (server.isOpen()) {
+            try {
+                SocketChannel channel = server.accept();
+                // 每条命令都很短，关掉 Nagle 保证单步延迟
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                loops[next].register(channel);
+                next = (next + 1) % loops.length;
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("接受连接失败: " + e.getMessage());
+            }
+        }
+    }
+
+    // 实际监听的端口 (构造时传 0 则由系统分配)
+    public int port() {
+        return server.socket().getLocalPort();
+    }
+
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (sweeper != null) sweeper.shutdownNow();
+        if (server != null) server.close();
+        for (EventLoop loop : loops) loop.shutdown();
+    }
+}
@@ -0,0 +1,169 @@
+package com.game2048.server;
+
+import com.game2048.core.Direction;
+import com.game2048.core.GameState;
+import com.game2048.core.Rules;
+
+import java.nio.ByteBuffer;
+
+// 文本行协议，每条命令一行 (\n 结尾，\r 可有可无)，数字都是十六进制，棋盘是 16 位十六进制的打包 long
+//   NEW             -> OK <id> <board> <score>
+//   MOVE <id> L|R|U|D -> OK <board> <score> | OVER <board> <score> | ILLEGAL | ERR ...
+//   STATE <id>      -> OK <board> <score>
+//   QUIT <id>       -> BYE
+//   PING            -> PONG
+// 解析和应答都直接在 ByteBuffer 上按字节进行；会话按连接缓存，同一会话连续移动时不查共享表，不分配对象
+final class LineProtocol {
+    // 单行最长字节数，超过视为协议错误
+    static final int MAX_LINE = 128;
+
+    private final SessionStore sessions;
+
+    LineProtocol(SessionStore sessions) {
+        this.sessions = sessions;
+    }
+
+    // 处理 conn.in 中 [start, end) 的一行 (不含换行)，应答写入 conn.out；out 至少要留 MAX_LINE 字节
+    void handle(Connection conn, int start, int end) {
+        ByteBuffer in = conn.in;
+        ByteBuffer out = conn.out;
+        while (end > start && (in.get(end - 1) == '\r' || in.get(end - 1) == ' ')) end--;
+        int p = start;
+        int cmdEnd = p;
+        while (cmdEnd < end && in.get(cmdEnd) != ' ') cmdEnd++;
+        int argStart = cmdEnd + 1;
+
+        if (matches(in, p, cmdEnd, "MOVE")) {
+            int idEnd = argStart;
+            while (idEnd < end && in.get(idEnd) != ' ') idEnd++;
+            long id = parseHex(in, argStart, idEnd);
+            Direction direction = idEnd + 2 == end ? direction(in.get(idEnd + 1)) : null;
+            if (id < 0 || direction == null) {
+                error(out, "usage: MOVE <id> L|R|U|D");
+                return;
+            }
+            move(conn, id, direction, out);
+        } else if (matches(in, p, cmdEnd, "NEW")) {
+            Session session = sessions.create(System.nanoTime());
+            if (session == null) {
+                error(out, "server full");
+                return;
+            }
+            conn.session = session;
+            put(out, "OK ");
+            putHex(out, session.id, 1);
+            out.put((byte) ' ');
+            putState(out, session.state);
+        } else if (matches(in, p, cmdEnd, "STATE")) {
+            Session session = lookup(conn, in, argStart, end, out);
+            if (session == null) return;
+            put(out, "OK ");
+            synchronized (session) {
+                putState(out, session.state);
+            }
+        } else if (matches(in, p, cmdEnd, "QUIT")) {
+            long id = parseHex(in, argStart, end);
+            if (id >= 0) sessions.remove(id);
+            put(out, "BYE\n");
+        } else if (matches(in, p, cmdEnd, "PING")) {
+            put(out, "PONG\n");
+        } else {
+            error(out, "unknown command");
+        }
+    }
+
+    private void move(Connection conn, long id, Direction direction, ByteBuffer out) {
+        Session session = resolve(conn, id);
+        if (session == null) {
+            error(out, "unknown session");
+            return;
+        }
+        session.lastActive = System.nanoTime();
+        // 同一会话可能被多个连接同时操作，按会话加锁 (无竞争时几乎没有开销)
+        synchronized (session) {
+            GameState state = session.state;
+            if (state.move(direction) == Rules.ILLEGAL) {
+                put(out, "ILLEGAL\n");
+                return;
+            }
+            state.spawn(session.random);
+            put(out, state.isTerminal() ? "OVER " : "OK ");
+            putState(out, state);
+        }
+    }
+
+    private Session lookup(Connection conn, ByteBuffer in, int start, int end, ByteBuffer out) {
+        long id = parseHex(in, start, end);
+        Session session = id < 0 ? null : resolve(conn, id);
+        if (session == null) {
+            error(out, "unknown session");
+            return null;
+        }
+        session.lastActive = System.nanoTime();
+        return session;
+    }
+
+    // 先看连接里缓存的会话，id 不同或已被移除时才查共享表
+    private Session resolve(Connection conn, long id) {
+        Session session = conn.session;
+        if (session == null || session.id != id || session.removed) {
+            session = sessions.get(id);
+            conn.session = session;
+        }
+        return session;
+    }
+
+    private static Direction direction(byte b) {
+        switch (b) {
+            case 'L': return Direction.LEFT;
+            case 'R': return Direction.RIGHT;
+            case 'U': return Direction.UP;
+            case 'D': return Direction.DOWN;
+            default:  return null;
+        }
+    }
+
+    private static boolean matches(ByteBuffer in, int start, int end, String word) {
+        if (end - start != word.length()) return false;
+        for (int i = 0; i < word.length(); i++) {
+            if (in.get(start + i) != word.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // 1..16 位十六进制；格式不对返回 -1
+    private static long parseHex(ByteBuffer in, int start, int end) {
+        if (end <= start || end - start > 16) return -1;
+        long v = 0;
+        for (int i = start; i < end; i++) {
+            int d = Character.digit(in.get(i), 16);
+            if (d < 0) return -1;
+            v = (v << 4) | d;
+        }
+        return v;
+    }
+
+    private static void putState(ByteBuffer out, GameState state) {
+        putHex(out, state.board(), 16);
+        out.put((byte) ' ');
+        putHex(out, state.score(), 1);
+        out.put((byte) '\n');
+    }
+
+    private static void putHex(ByteBuffer out, long v, int minDigits) {
+        int digits = Math.max(minDigits, (67 - Long.numberOfLeadingZeros(v)) / 4);
+        for (int i = digits - 1; i >= 0; i--) {
+            out.put((byte) Character.forDigit((int) ((v >>> (4 * i)) & 0xF), 16));
+        }
+    }
+
+    private static void put(ByteBuffer out, String ascii) {
+        for (int i = 0; i < ascii.length(); i++) out.put((byte) ascii.charAt(i));
+    }
+
+    private static void error(ByteBuffer out, String message) {
+        put(out, "ERR ");
+        put(out, message);
+        out.put((byte) '\n');
+    }
+}
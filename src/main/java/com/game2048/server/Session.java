@@ -0,0 +1,24 @@
+package com.game2048.server;
+
+import com.game2048.core.GameState;
+import com.game2048.core.XoroshiroRandomSource;
+
+// 一局服务端对局：只用规则层的 GameState，不带 GameEngine 的方块视图和撤销栈
+// 加上随机源和时间戳一共约 100 字节，10 万局也只占十几 MB
+final class Session {
+    final long id;
+    final GameState state = new GameState();
+    final XoroshiroRandomSource random;
+    // 最近一次操作的 System.nanoTime()，空闲淘汰用
+    volatile long lastActive;
+    // 已从会话表移除 (退出或空闲淘汰)；连接里缓存的引用据此失效
+    volatile boolean removed;
+
+    Session(long id, long seed, long now) {
+        this.id = id;
+        this.random = new XoroshiroRandomSource(seed);
+        this.lastActive = now;
+        state.spawn(random);
+        state.spawn(random);
+    }
+}
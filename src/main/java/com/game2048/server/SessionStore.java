@@ -0,0 +1,59 @@
+package com.game2048.server;
+
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 所有连接共享的会话表；会话 id 和对局种子都由服务端随机生成，客户端无法预测或伪造
+final class SessionStore {
+    private final ConcurrentHashMap<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom ids = new SecureRandom();
+    private final int maxSessions;
+
+    SessionStore(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    // 会话数已满时返回 null
+    Session create(long now) {
+        if (sessions.size() >= maxSessions) return null;
+        while (true) {
+            long id;
+            long seed;
+            synchronized (ids) {
+                id = ids.nextLong() & Long.MAX_VALUE;
+                seed = ids.nextLong();
+            }
+            Session session = new Session(id, seed, now);
+            if (sessions.putIfAbsent(id, session) == null) return session;
+        }
+    }
+
+    Session get(long id) {
+        return sessions.get(id);
+    }
+
+    void remove(long id) {
+        Session session = sessions.remove(id);
+        if (session != null) session.removed = true;
+    }
+
+    int size() {
+        return sessions.size();
+    }
+
+    // 淘汰超过 idleNanos 没有操作的会话，返回淘汰数量
+    int evictIdle(long now, long idleNanos) {
+        int evicted = 0;
+        Iterator<Session> it = sessions.values().iterator();
+        while (it.hasNext()) {
+            Session session = it.next();
+            if (now - session.lastActive > idleNanos) {
+                it.remove();
+                session.removed = true;
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+}
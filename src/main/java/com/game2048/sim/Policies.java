@@ -0,0 +1,78 @@
+package com.game2048.sim;
+
+import com.game2048.ai.ExpectimaxSearcher;
+import com.game2048.ai.SearchConfig;
+import com.game2048.core.BitBoard;
+import com.game2048.core.Direction;
+import com.game2048.core.RandomSource;
+import com.game2048.core.Rules;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+// 内置策略，按名字创建；返回 Supplier 以便每个线程各建一份
+public final class Policies {
+
+    private Policies() {
+    }
+
+    public static Supplier<Policy> byName(String name) {
+        switch (name) {
+            case "random":     return Policies::random;
+            case "greedy":     return Policies::greedy;
+            case "expectimax": return Policies::expectimax;
+            default: throw new IllegalArgumentException("unknown policy: " + name);
+        }
+    }
+
+    // 在合法方向里均匀随机
+    public static Policy random() {
+        return (board, random) -> {
+            int legal = BitBoard.legalMoves(board);
+            if (legal != 0) {
+                int k = random.nextInt(Integer.bitCount(legal));
+                for (; k > 0; k--) legal &= legal - 1;
+                return Direction.of(Integer.numberOfTrailingZeros(legal));
+            }
+            throw new IllegalStateException("no legal move");
+        };
+    }
+
+    // 只看一步得分，平手时取第一个合法方向
+    public static Policy greedy() {
+        return (board, random) -> {
+            int legal = BitBoard.legalMoves(board);
+            Direction best = null;
+            int bestScore = -1;
+            for (Direction d : Direction.ALL) {
+                if (!Rules.isLegal(legal, d)) continue;
+                int s = Rules.scoreOf(board, d);
+                if (s > bestScore) {
+                    best = d;
+                    bestScore = s;
+                }
+            }
+            return best;
+        };
+    }
+
+    // 每个线程单独的搜索器，搜索本身串行，由外层的多局并行吃满核心；close 时关掉它的单线程池
+    public static Policy expectimax() {
+        SearchConfig config = new SearchConfig();
+        config.depth = 2;
+        config.tableBits = 16;
+        config.pool = new ForkJoinPool(1);
+        ExpectimaxSearcher searcher = new ExpectimaxSearcher(config);
+        return new Policy() {
+            @Override
+            public Direction choose(long board, RandomSource random) {
+                return searcher.search(board).direction;
+            }
+
+            @Override
+            public void close() {
+                config.pool.shutdown();
+            }
+        };
+    }
+}
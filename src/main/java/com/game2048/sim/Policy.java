@@ -0,0 +1,15 @@
+package com.game2048.sim;
+
+import com.game2048.core.Direction;
+import com.game2048.core.RandomSource;
+
+// 模拟时的走法策略；每个工作线程持有自己的实例，不要求线程安全
+// 用完后调用 close 释放策略自己持有的线程等资源
+public interface Policy extends AutoCloseable {
+    // 只会在还有合法走法时调用
+    Direction choose(long board, RandomSource random);
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,100 @@
+package com.game2048.sim;
+
+import com.game2048.core.BitBoard;
+import com.game2048.core.Direction;
+import com.game2048.core.GameState;
+import com.game2048.core.RandomSource;
+import com.game2048.dataset.DatasetWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+// 无界面批量对局：每个线程独立的随机源、策略和统计，彼此不共享可变状态
+// 局数静态平分给各线程，只在全部结束后合并一次统计
+public class SimulationRunner {
+    private final int threads;
+    private final Supplier<Policy> policyFactory;
+    private final RandomSource root;
+
+    // 每个线程从 root 依次 split 一份；线程数和种子相同则结果完全可复现
+    public SimulationRunner(int threads, Supplier<Policy> policyFactory, RandomSource root) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1: " + threads);
+        this.threads = threads;
+        this.policyFactory = policyFactory;
+        this.root = root;
+    }
+
+    public SimulationStats run(long games) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "2048-sim");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<SimulationStats>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                long share = games / threads + (i < games % threads ? 1 : 0);
+                RandomSource random = root.split();
+                futures.add(pool.submit(() -> {
+                    try (Policy policy = policyFactory.get()) {
+                        return playGames(share, random, policy);
+                    }
+                }));
+            }
+            SimulationStats total = new SimulationStats();
+            for (Future<SimulationStats> f : futures) total.merge(f.get());
+            return total;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("simulation worker failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    static SimulationStats playGames(long games, RandomSource random, Policy policy) {
+        SimulationStats stats = new SimulationStats();
+        GameState state = new GameState();
+        for (long g = 0; g < games; g++) {
+            state.reset();
+            state.spawn(random);
+            state.spawn(random);
+            int moves = 0;
+            while (!state.isTerminal()) {
+                state.move(policy.choose(state.board(), random));
+                state.spawn(random);
+                moves++;
+            }
+            stats.record(state.score(), BitBoard.maxExponent(state.board()), moves);
+        }
+        return stats;
+    }
+
+    // 与 playGames 相同，但把每一步 (走之前的棋盘, 方向, 得分增量, 是否结束) 写进数据集
+    public static SimulationStats recordGames(long games, RandomSource random, Policy policy, DatasetWriter out)
+            throws IOException {
+        SimulationStats stats = new SimulationStats();
+        GameState state = new GameState();
+        for (long g = 0; g < games; g++) {
+            state.reset();
+            state.spawn(random);
+            state.spawn(random);
+            int moves = 0;
+            while (!state.isTerminal()) {
+                long board = state.board();
+                Direction direction = policy.choose(board, random);
+                int delta = state.move(direction);
+                state.spawn(random);
+                out.append(board, direction, delta, state.isTerminal());
+                moves++;
+            }
+            stats.record(state.score(), BitBoard.maxExponent(state.board()), moves);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,41 @@
+package com.game2048.sim;
+
+import com.game2048.core.BitBoard;
+
+// 单个工作线程的统计，线程内独占写入，结束后用 merge 汇总
+public class SimulationStats {
+    // 分数按 2 的幂分桶：第 i 桶是 [2^(i-1), 2^i)
+    public final long[] scoreHistogram = new long[32];
+    // 最大方块的指数分布
+    public final long[] maxTileHistogram = new long[BitBoard.MAX_EXPONENT + 1];
+    public long games;
+    public long moves;
+    public long totalScore;
+    public int bestScore;
+
+    public void record(int score, int maxExponent, int gameMoves) {
+        scoreHistogram[32 - Integer.numberOfLeadingZeros(score)]++;
+        maxTileHistogram[maxExponent]++;
+        games++;
+        moves += gameMoves;
+        totalScore += score;
+        bestScore = Math.max(bestScore, score);
+    }
+
+    public void merge(SimulationStats other) {
+        for (int i = 0; i < scoreHistogram.length; i++) scoreHistogram[i] += other.scoreHistogram[i];
+        for (int i = 0; i < maxTileHistogram.length; i++) maxTileHistogram[i] += other.maxTileHistogram[i];
+        games += other.games;
+        moves += other.moves;
+        totalScore += other.totalScore;
+        bestScore = Math.max(bestScore, other.bestScore);
+    }
+
+    // 最大方块达到 tile 及以上的局数占比
+    public double rateAtLeast(int tile) {
+        int exponent = 31 - Integer.numberOfLeadingZeros(tile);
+        long n = 0;
+        for (int i = exponent; i < maxTileHistogram.length; i++) n += maxTileHistogram[i];
+        return games == 0 ? 0 : (double) n / games;
+    }
+}
@@ -0,0 +1,218 @@
+package com.game2048.spectate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.game2048.spectate.StreamFormat.*;
+
+// 观战广播：一个 selector 线程负责接入和所有观众的写出，发布方 (引擎线程) 只把帧放进收件箱
+// 每个观众有自己的发送队列，积压超过 MAX_QUEUED_BYTES 时清空队列、跳过后续增量，等下一个关键帧再接上，
+// 慢观众不会拖住发布方，也不会让服务端内存无限增长
+// 新观众先收到最近的关键帧和它之后的增量，立即与当前局面同步
+public final class BroadcastServer implements Closeable {
+    // 单个观众允许积压的字节数，约几百步
+    static final int MAX_QUEUED_BYTES = 64 * 1024;
+
+    private final InetSocketAddress address;
+    private final ConcurrentLinkedQueue<ByteBuffer> inbox = new ConcurrentLinkedQueue<>();
+    // 最近的关键帧及其后的增量，只在 selector 线程上访问
+    private final List<ByteBuffer> sinceKeyframe = new ArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile int subscribers;
+    private volatile boolean running = true;
+
+    private Selector selector;
+    private ServerSocketChannel server;
+    private Thread loop;
+
+    public BroadcastServer(InetSocketAddress address) {
+        this.address = address;
+    }
+
+    public void start() throws IOException {
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        loop = new Thread(this::run, "2048-broadcast");
+        loop.setDaemon(true);
+        loop.start();
+    }
+
+    // 实际监听的端口 (构造时传 0 则由系统分配)
+    public int port() {
+        return server.socket().getLocalPort();
+    }
+
+    public int subscriberCount() {
+        return subscribers;
+    }
+
+    // 因观众落后而没有发出的帧数 (按观众累计)
+    public long droppedFrames() {
+        return dropped.get();
+    }
+
+    // 发布一个完整帧 (含长度前缀)，可在任意线程调用；帧内容会被复制，调用方可以立即复用缓冲
+    public void publish(ByteBuffer frame) {
+        ByteBuffer copy = ByteBuffer.allocate(frame.remaining());
+        copy.put(frame.duplicate()).flip();
+        inbox.add(copy);
+        if (selector != null) selector.wakeup();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                deliverInbox();
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    try {
+                        if (key.isValid() && key.isAcceptable()) accept();
+                        if (key.isValid() && key.isReadable()) read(key);
+                        if (key.isValid() && key.isWritable()) flush(key);
+                    } catch (IOException e) {
+                        close(key);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) System.err.println("广播线程异常退出: " + e);
+        } finally {
+            for (SelectionKey key : selector.keys()) close(key);
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Subscriber sub = new Subscriber();
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ, sub);
+            subscribers++;
+            for (ByteBuffer frame : sinceKeyframe) offer(sub, frame);
+            flush(key);
+        }
+    }
+
+    // 观众不发数据，读只是为了发现断开
+    private void read(SelectionKey key) throws IOException {
+        Subscriber sub = (Subscriber) key.attachment();
+        sub.discard.clear();
+        if (((SocketChannel) key.channel()).read(sub.discard) < 0) close(key);
+    }
+
+    private void deliverInbox() {
+        ByteBuffer frame;
+        while ((frame = inbox.poll()) != null) {
+            // 还没有关键帧时增量对新观众没用，不缓存
+            if (typeOf(frame) == KEYFRAME) sinceKeyframe.clear();
+            if (typeOf(frame) == KEYFRAME || !sinceKeyframe.isEmpty()) sinceKeyframe.add(frame);
+            for (SelectionKey key : selector.keys()) {
+                if (!(key.attachment() instanceof Subscriber) || !key.isValid()) continue;
+                offer((Subscriber) key.attachment(), frame);
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            if (!(key.attachment() instanceof Subscriber) || !key.isValid()) continue;
+            try {
+                flush(key);
+            } catch (IOException e) {
+                close(key);
+            }
+        }
+    }
+
+    // 按积压情况决定这一帧是排队、丢弃，还是清空队列后从关键帧重新开始
+    private void offer(Subscriber sub, ByteBuffer frame) {
+        boolean keyframe = typeOf(frame) == KEYFRAME;
+        if (!keyframe && sub.awaitingKeyframe) {
+            dropped.incrementAndGet();
+            return;
+        }
+        if (sub.queuedBytes + frame.remaining() > MAX_QUEUED_BYTES) {
+            dropPending(sub);
+            if (!keyframe) {
+                sub.awaitingKeyframe = true;
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+        sub.awaitingKeyframe = false;
+        sub.queue.add(frame.duplicate());
+        sub.queuedBytes += frame.remaining();
+    }
+
+    // 清空发送队列；已经写出一部分的队首帧必须写完，否则流会错位
+    private void dropPending(Subscriber sub) {
+        ByteBuffer head = sub.queue.peekFirst();
+        boolean keepHead = head != null && head.position() > 0;
+        dropped.addAndGet(sub.queue.size() - (keepHead ? 1 : 0));
+        sub.queue.clear();
+        sub.queuedBytes = 0;
+        if (keepHead) {
+            sub.queue.add(head);
+            sub.queuedBytes = head.remaining();
+        }
+    }
+
+    private void flush(SelectionKey key) throws IOException {
+        Subscriber sub = (Subscriber) key.attachment();
+        SocketChannel channel = (SocketChannel) key.channel();
+        ByteBuffer head;
+        while ((head = sub.queue.peekFirst()) != null) {
+            int written = channel.write(head);
+            sub.queuedBytes -= written;
+            if (head.hasRemaining()) break;
+            sub.queue.pollFirst();
+        }
+        key.interestOps(sub.queue.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    private void close(SelectionKey key) {
+        if (key.attachment() instanceof Subscriber && key.isValid()) subscribers--;
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (selector != null) selector.wakeup();
+        if (server != null) server.close();
+    }
+
+    // 一个观众的发送状态，只在 selector 线程上访问
+    private static final class Subscriber {
+        final ArrayDeque<ByteBuffer> queue = new ArrayDeque<>();
+        final ByteBuffer discard = ByteBuffer.allocate(256);
+        int queuedBytes;
+        boolean awaitingKeyframe;
+    }
+}
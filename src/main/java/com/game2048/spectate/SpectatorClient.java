@@ -0,0 +1,94 @@
+package com.game2048.spectate;
+
+import com.game2048.core.Snapshot;
+import com.game2048.event.EventBatch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import java.util.function.BiConsumer;
+
+import static com.game2048.spectate.StreamFormat.*;
+
+// 观众端连接：阻塞读取帧、解码，把每个需要应用的批次连同之后的局面交给监听者
+// 监听者在接收线程上调用，批次对象会被复用，需要跨线程保存时用 EventBatch.copyFrom 复制
+public final class SpectatorClient implements Closeable {
+    private final SocketChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocate(4 * MAX_FRAME).order(ByteOrder.LITTLE_ENDIAN);
+    private final StreamDecoder decoder = new StreamDecoder();
+    private final EventBatch batch = new EventBatch();
+    // awaitKeyframe 读到的第一帧，start 时先交给监听者
+    private boolean firstPending;
+    private volatile long frames;
+    private Thread reader;
+
+    public SpectatorClient(InetSocketAddress address) throws IOException {
+        channel = SocketChannel.open(address);
+        in.flip();
+    }
+
+    // 阻塞到第一个关键帧，返回它的局面 (用来确定棋盘尺寸)
+    public Snapshot awaitKeyframe() throws IOException {
+        while (!nextFrame() || decoder.side() == 0) {
+        }
+        firstPending = true;
+        return decoder.snapshot();
+    }
+
+    // 广播方的目标方块，awaitKeyframe 之后有效；观众的引擎要用同样的目标，快照形式才对得上
+    public int targetTile() {
+        return decoder.targetTile();
+    }
+
+    // 后台线程持续接收；连接断开或数据出错时打印原因后停止
+    public void start(BiConsumer<EventBatch, Snapshot> listener) {
+        reader = new Thread(() -> {
+            try {
+                if (firstPending) listener.accept(batch, decoder.snapshot());
+                while (channel.isOpen()) {
+                    if (nextFrame()) listener.accept(batch, decoder.snapshot());
+                }
+            } catch (IOException e) {
+                if (channel.isOpen()) System.err.println("观战连接中断: " + e.getMessage());
+            }
+        }, "2048-spectate");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    // 已收到的帧数 (含被忽略的)
+    public long frames() {
+        return frames;
+    }
+
+    // 读一帧并解码；返回这一帧是否需要应用
+    private boolean nextFrame() throws IOException {
+        fill(LENGTH_BYTES);
+        int length = in.getShort() & 0xFFFF;
+        if (length > MAX_FRAME) throw new IOException("frame too large: " + length);
+        fill(length);
+        ByteBuffer body = in.slice().order(ByteOrder.LITTLE_ENDIAN);
+        body.limit(length);
+        in.position(in.position() + length);
+        frames++;
+        return decoder.decode(body, batch);
+    }
+
+    // 保证读缓冲里至少有 n 个未读字节
+    private void fill(int n) throws IOException {
+        if (in.remaining() >= n) return;
+        in.compact();
+        while (in.position() < n) {
+            if (channel.read(in) < 0) throw new IOException("connection closed");
+        }
+        in.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
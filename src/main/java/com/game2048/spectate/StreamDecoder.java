@@ -0,0 +1,124 @@
+package com.game2048.spectate;
+
+import com.game2048.core.Direction;
+import com.game2048.core.Snapshot;
+import com.game2048.event.EventBatch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static com.game2048.spectate.StreamFormat.*;
+
+// 观众端：维护一份镜像局面，把收到的帧还原成事件批次
+// 增量帧必须紧接着上一帧 (序号连续)，否则说明中间被丢过帧，忽略到下一个关键帧为止
+// 与已同步局面完全相同的周期关键帧也忽略，不打断正在播放的动画
+final class StreamDecoder {
+    private int side;
+    private int targetExponent;
+    private boolean packed;
+    private byte[] cells;
+    private int score;
+    private long sequence;
+    private boolean synced;
+
+    int side() {
+        return side;
+    }
+
+    int targetTile() {
+        return 1 << targetExponent;
+    }
+
+    // 解码一帧 (不含长度前缀) 写进 out；返回 false 表示这一帧不需要应用
+    boolean decode(ByteBuffer body, EventBatch out) throws IOException {
+        if (body.remaining() < HEADER_BYTES) throw new IOException("short frame");
+        byte type = body.get();
+        long seq = body.getLong();
+        int newScore = body.getInt();
+        int flags = body.get();
+        if (type == KEYFRAME) return keyframe(body, seq, newScore, flags, out);
+        if (type == DELTA) return delta(body, seq, newScore, flags, out);
+        throw new IOException("unknown frame type " + type);
+    }
+
+    private boolean keyframe(ByteBuffer body, long seq, int newScore, int flags, EventBatch out) throws IOException {
+        int newSide = body.get() & 0xFF;
+        int newTarget = body.get();
+        if (newSide < 2 || newSide > MAX_SIDE || newTarget < 2 || newTarget > 30
+                || body.remaining() != newSide * newSide) throw new IOException("bad keyframe");
+        boolean newPacked = (flags & FLAG_PACKED) != 0;
+        if (newPacked && newSide != 4) throw new IOException("bad keyframe");
+        if (synced && seq == sequence && newSide == side && newTarget == targetExponent && newPacked == packed
+                && newScore == score && sameCells(body)) return false;
+        targetExponent = newTarget;
+        packed = newPacked;
+        if (cells == null || newSide != side) cells = new byte[newSide * newSide];
+        side = newSide;
+        body.get(cells);
+        score = newScore;
+        sequence = seq;
+        synced = true;
+        out.begin(seq, null);
+        out.boardReset();
+        if ((flags & FLAG_GAME_OVER) != 0) out.gameOver((flags & FLAG_WON) != 0);
+        return true;
+    }
+
+    private boolean delta(ByteBuffer body, long seq, int newScore, int flags, EventBatch out) throws IOException {
+        if (body.remaining() < 2) throw new IOException("short delta");
+        byte dir = body.get();
+        int ops = body.get() & 0xFF;
+        if (body.remaining() != ops * OP_BYTES) throw new IOException("bad delta length");
+        if (!synced || seq != sequence + 1) {
+            synced = false;
+            return false;
+        }
+        out.begin(seq, dir == NO_DIRECTION ? null : Direction.of(dir & 3));
+        int n = cells.length;
+        for (int k = 0; k < ops; k++) {
+            byte op = body.get();
+            int from = body.get() & 0xFF;
+            int to = body.get() & 0xFF;
+            int exponent = body.get();
+            if (from >= n || to >= n || exponent < 1 || exponent > (packed ? 15 : 30)) throw new IOException("bad delta op");
+            switch (op) {
+                case OP_MOVED:
+                    cells[to] = cells[from];
+                    cells[from] = 0;
+                    out.tileMoved(from, to, 1 << exponent);
+                    break;
+                case OP_MERGED:
+                    cells[to] = (byte) exponent;
+                    cells[from] = 0;
+                    out.tilesMerged(from, to, 1 << exponent);
+                    break;
+                case OP_SPAWNED:
+                    cells[to] = (byte) exponent;
+                    out.tileSpawned(to, 1 << exponent);
+                    break;
+                default:
+                    throw new IOException("unknown delta op " + op);
+            }
+        }
+        if (newScore != score) out.scoreChanged(newScore - score, newScore);
+        if ((flags & FLAG_GAME_OVER) != 0) out.gameOver((flags & FLAG_WON) != 0);
+        score = newScore;
+        sequence = seq;
+        return true;
+    }
+
+    // 镜像局面，形式与广播方一致：只有广播方是位压缩的 4x4 时才压缩
+    Snapshot snapshot() {
+        if (!packed) return new Snapshot(side, cells, score);
+        long board = 0;
+        for (int i = 0; i < cells.length; i++) board |= (long) cells[i] << (4 * i);
+        return new Snapshot(board, score);
+    }
+
+    private boolean sameCells(ByteBuffer body) {
+        for (int i = 0; i < cells.length; i++) {
+            if (body.get(body.position() + i) != cells[i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,110 @@
+package com.game2048.spectate;
+
+import com.game2048.core.Game;
+import com.game2048.event.EventBatch;
+import com.game2048.event.EventType;
+import com.game2048.event.GameEventListener;
+import com.game2048.model.GameEngine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.Consumer;
+
+import static com.game2048.spectate.StreamFormat.*;
+
+// 把引擎的事件批次编码成观战帧：每步移动一帧增量，新开一局或跳转局面时发关键帧，
+// 另外每 keyframeInterval 个增量补发一个关键帧，落后被丢帧的观众最多等这么多步就能重新同步
+// 在引擎线程上同步调用；帧写在同一个缓冲里交给 sink，sink 返回后缓冲即被复用
+public final class StreamEncoder implements GameEventListener {
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 32;
+
+    private final GameEngine engine;
+    private final Consumer<ByteBuffer> sink;
+    private final int keyframeInterval;
+    private final ByteBuffer frame = ByteBuffer.allocate(MAX_FRAME).order(ByteOrder.LITTLE_ENDIAN);
+    private int sinceKeyframe;
+    // 最近一个批次的序号，关键帧沿用它；从引擎当前的序号开始，第一个关键帧之后的增量才接得上
+    private long sequence;
+
+    public StreamEncoder(GameEngine engine, Consumer<ByteBuffer> sink, int keyframeInterval) {
+        if (engine.getSide() > MAX_SIDE) throw new IllegalArgumentException("side too large to stream: " + engine.getSide());
+        this.engine = engine;
+        this.sink = sink;
+        this.keyframeInterval = keyframeInterval;
+        this.sequence = engine.getSequence();
+    }
+
+    public StreamEncoder(GameEngine engine, Consumer<ByteBuffer> sink) {
+        this(engine, sink, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    @Override
+    public void onBatch(EventBatch batch) {
+        sequence = batch.sequence();
+        if (batch.contains(EventType.BOARD_RESET) || opCount(batch) > MAX_OPS) {
+            keyframe();
+            return;
+        }
+        delta(batch);
+        if (++sinceKeyframe >= keyframeInterval) keyframe();
+    }
+
+    // 立即发一个当前局面的关键帧；开始广播时先调用一次，观众不必等到下一次重开
+    public void keyframe() {
+        Game game = engine.getGame();
+        int cells = game.side() * game.side();
+        begin(KEYFRAME);
+        frame.put((byte) game.side());
+        frame.put((byte) Integer.numberOfTrailingZeros(engine.getTargetTile()));
+        for (int i = 0; i < cells; i++) frame.put((byte) game.exponentAt(i));
+        finish();
+        sinceKeyframe = 0;
+    }
+
+    private void delta(EventBatch batch) {
+        begin(DELTA);
+        frame.put(batch.direction() == null ? NO_DIRECTION : (byte) batch.direction().code);
+        int countAt = frame.position();
+        frame.put((byte) 0);
+        int ops = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            byte op;
+            switch (batch.type(i)) {
+                case TILE_MOVED:   op = OP_MOVED; break;
+                case TILES_MERGED: op = OP_MERGED; break;
+                case TILE_SPAWNED: op = OP_SPAWNED; break;
+                default: continue; // 分数和结束放在帧头里
+            }
+            frame.put(op);
+            frame.put((byte) Math.max(batch.from(i), 0));
+            frame.put((byte) batch.to(i));
+            frame.put((byte) Integer.numberOfTrailingZeros(batch.value(i)));
+            ops++;
+        }
+        frame.put(countAt, (byte) ops);
+        finish();
+    }
+
+    private void begin(byte type) {
+        frame.clear();
+        frame.putShort((short) 0);
+        frame.put(type);
+        frame.putLong(sequence);
+        frame.putInt(engine.score);
+        int flags = 0;
+        if (engine.getGame().isTerminal()) flags |= FLAG_GAME_OVER;
+        if (engine.isWon) flags |= FLAG_WON;
+        if (type == KEYFRAME && engine.isPacked()) flags |= FLAG_PACKED;
+        frame.put((byte) flags);
+    }
+
+    private void finish() {
+        frame.putShort(0, (short) (frame.position() - LENGTH_BYTES));
+        frame.flip();
+        sink.accept(frame);
+    }
+
+    private static int opCount(EventBatch batch) {
+        return batch.count(EventType.TILE_MOVED) + batch.count(EventType.TILES_MERGED) + batch.count(EventType.TILE_SPAWNED);
+    }
+}
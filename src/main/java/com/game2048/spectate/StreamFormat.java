@@ -0,0 +1,43 @@
+package com.game2048.spectate;
+
+import java.nio.ByteBuffer;
+
+// 观战流的帧格式 (小端)，每帧自带长度，可以直接在 TCP 流上首尾相接：
+//   short 帧长 (不含这两个字节) | byte 类型 | long 批次序号 | int 分数 | byte 标志
+//   关键帧: byte 边长 | byte 目标方块的指数 | byte[边长^2] 各格指数；标志里的 FLAG_PACKED 表示广播方是位压缩的 4x4
+//   增量帧: byte 方向 (Direction.code，非移动为 NO_DIRECTION) | byte 操作数 | 每个操作 4 字节: 种类, 起点, 终点, 指数
+// 格子下标和指数都放得进一个字节 (边长最大 16，指数最大 30)，一步移动通常只有几十字节
+final class StreamFormat {
+    static final int LENGTH_BYTES = 2;
+
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+
+    // 类型之后的公共头: 序号 + 分数 + 标志
+    static final int HEADER_BYTES = 1 + 8 + 4 + 1;
+    static final int FLAG_GAME_OVER = 0x1;
+    static final int FLAG_WON = 0x2;
+    // 只出现在关键帧里；观众按它决定快照的形式 (目标超过 32768 的 4x4 不压缩，指数可能超出半字节)
+    static final int FLAG_PACKED = 0x4;
+
+    static final byte NO_DIRECTION = -1;
+    static final byte OP_MOVED = 1;
+    static final byte OP_MERGED = 2;
+    static final byte OP_SPAWNED = 3;
+    static final int OP_BYTES = 4;
+    // 一帧最多这么多操作 (操作数是一个无符号字节)；大棋盘上超出时改发关键帧
+    static final int MAX_OPS = 255;
+
+    static final int MAX_SIDE = 16;
+    static final int MAX_KEYFRAME = LENGTH_BYTES + HEADER_BYTES + 2 + MAX_SIDE * MAX_SIDE;
+    static final int MAX_DELTA = LENGTH_BYTES + HEADER_BYTES + 2 + MAX_OPS * OP_BYTES;
+    static final int MAX_FRAME = Math.max(MAX_KEYFRAME, MAX_DELTA);
+
+    private StreamFormat() {
+    }
+
+    // 完整帧 (含长度前缀) 的类型
+    static byte typeOf(ByteBuffer frame) {
+        return frame.get(frame.position() + LENGTH_BYTES);
+    }
+}
@@ -0,0 +1,34 @@
+package com.game2048.ui;
+
+import com.game2048.config.Config;
+
+// 按棋盘边长算出的像素布局：4x4 及以下沿用 Config 的尺寸，更大的棋盘等比缩小方块，保持窗口大小不变
+final class BoardLayout {
+    final int side;
+    final int tileSize;
+    final int margin;
+    final int arc;
+    // 棋盘区域 (不含顶部分数栏)
+    final int boardWidth;
+    final int boardHeight;
+    // 整个面板
+    final int width;
+    final int height;
+
+    BoardLayout(int side) {
+        this.side = side;
+        int cell = Config.TILE_SIZE + Config.MARGIN;
+        if (side > Config.SIDE) cell = cell * Config.SIDE / side;
+        this.tileSize = cell * Config.TILE_SIZE / (Config.TILE_SIZE + Config.MARGIN);
+        this.margin = cell - tileSize;
+        this.arc = Math.max(4, tileSize * 14 / Config.TILE_SIZE);
+        this.boardWidth = cell * side + margin;
+        this.boardHeight = boardWidth;
+        this.width = boardWidth;
+        this.height = boardHeight + Config.HEADER_HEIGHT;
+    }
+
+    double toPixel(double cell) {
+        return cell * (tileSize + margin) + margin;
+    }
+}
@@ -1,53 +1,264 @@
 package com.game2048.ui;
 
+import com.game2048.ai.Evaluator;
+import com.game2048.ai.ExpectimaxSearcher;
+import com.game2048.ai.SearchConfig;
+import com.game2048.ai.SearchResult;
+import com.game2048.ai.book.BookIndex;
 import com.game2048.config.Config;
+import com.game2048.core.Direction;
+import com.game2048.event.AsyncEventDispatcher;
+import com.game2048.event.EventBatch;
+import com.game2048.event.EventType;
+import com.game2048.metrics.Metrics;
+import com.game2048.metrics.StartupTimer;
 import com.game2048.model.GameEngine;
 import com.game2048.model.Tile;
+import com.game2048.spectate.SpectatorClient;
 
 import javax.sound.sampled.*;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
 
 public class GamePanel extends JPanel {
 
     private GameEngine engine;
     private Timer animationTimer;
+    // dispose 之后不再启动帧循环，也不再往音频线程提交任务
+    private volatile boolean disposed;
+    // 音效在第一帧之后才在音频线程上加载，之后只在该线程上访问
     private Clip mergeSoundClip;
+    private boolean soundLoaded = false;
+    // 音效在独立线程上播放，不占用 EDT
+    private final ExecutorService audioExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "2048-audio");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // 绘制用的常量和可复用对象，稳定状态下每帧不分配
+    private static final Font HEADER_FONT = new Font(Config.FONT_NAME, Font.BOLD, 18);
+    private static final Font TITLE_FONT = new Font(Config.FONT_NAME, Font.BOLD, 48);
+    private static final Font HINT_FONT = new Font(Config.FONT_NAME, Font.PLAIN, 18);
+    private static final Comparator<Tile> BY_Z_INDEX = Comparator.comparingInt(Tile::getZIndex);
+
+    private final BoardLayout layout;
+    private final TileSprites sprites;
+    private final ArrayList<Tile> renderList = new ArrayList<>();
+    private int shownScore = -1;
+    private String scoreText = "";
+    // 历史最高分来源 (持久化存储)，没有时不显示
+    private IntSupplier bestScore;
+    private int shownBest = -1;
+    private String bestText = "";
+
+    // 空棋盘背景只画一次
+    private BufferedImage boardBackground;
+    // 第一帧画出之前帧循环不启动
+    private boolean firstFramePainted = false;
+    // 本帧的脏区域 (棋盘坐标，像素)，minX > maxX 表示为空
+    private int dirtyMinX, dirtyMinY, dirtyMaxX, dirtyMaxY;
+
+    // 方向输入队列：键盘和脚本都往这里放，在 EDT 上统一取出执行；满了就拒绝新输入
+    private static final int INPUT_QUEUE_LIMIT = 16;
+    private final ArrayBlockingQueue<Direction> inputQueue = new ArrayBlockingQueue<>(INPUT_QUEUE_LIMIT);
+    // 已经安排了一次 EDT 上的取队列，避免每次提交都 invokeLater
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    // AI 自动游戏：按 A 开关，搜索在后台线程进行，结果回到 EDT 执行
+    private boolean autoPlay = false;
+    private boolean aiThinking = false;
+    private ExpectimaxSearcher searcher;
+    private ExecutorService aiExecutor;
+    private String aiStatus = "";
+
+    // 观战模式：局面来自远端广播，本地只播放动画，不接受移动输入
+    private boolean viewer = false;
+
+    // H 键提示：先查开局库 / 残局库，查不到再现场搜一次；只对给出提示时的局面显示
+    private BookIndex[] books = new BookIndex[0];
+    // 搜索叶子的估值，null 时用默认启发式
+    private Evaluator evaluator;
+    private String hintText = "";
+    private long hintBoard;
 
     public GamePanel() {
-        engine = new GameEngine();
-        loadSound();
-        engine.setMergeSoundCallback(this::playMergeSound);
+        this(new GameEngine());
+    }
 
-        setPreferredSize(new Dimension(Config.WIDTH, Config.HEIGHT));
-        setBackground(new Color(0xbbada0));
+    public GamePanel(GameEngine engine) {
+        this.engine = engine;
+        this.layout = new BoardLayout(engine.getSide());
+        this.sprites = new TileSprites(layout);
+        prerenderSprites(engine.getTargetTile());
+        engine.addListener(new AsyncEventDispatcher(this::onGameEvents, audioExecutor));
+
+        setPreferredSize(new Dimension(layout.width, layout.height));
+        setBackground(Config.BACKGROUND_COLOR);
         setFocusable(true);
 
         addKeyListener(new KeyAdapter() {
             @Override
             public void keyPressed(KeyEvent e) {
-                // 如果正在移动中，不允许新的输入，防止动画错乱
-                if (!engine.areAnimationsDone()) return;
+                // 动画进行中也接受输入：方向键进队列后立即执行，上一步没播完的动画直接快进
                 handleInput(e);
+                drainInput();
+                // 输入可能改变任何位置 (合并后消失的方块、重开)，整体重画一次并唤醒帧循环
+                repaint();
+                wake();
             }
         });
 
-        // 60 FPS 动画循环
-        animationTimer = new Timer(16, e -> {
-            engine.updateAnimations();
-            repaint();
+        // 60 FPS 动画循环，所有方块静止后自动停下，有输入时再唤醒；第一帧画完才启动
+        animationTimer = new Timer(16, e -> onFrame());
+    }
+
+    // 贴图在后台线程上渲染，渲染好再回到 EDT 装进缓存；没等到时第一帧在 EDT 上现画
+    private void prerenderSprites(int maxValue) {
+        Thread t = new Thread(() -> {
+            BufferedImage[] rendered = sprites.prerender(maxValue);
+            SwingUtilities.invokeLater(() -> sprites.install(rendered));
+        }, "2048-prewarm");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void onFrame() {
+        if (Metrics.ENABLED) Metrics.frameTick(System.nanoTime());
+        // 更新前后的包围盒都要重画：旧位置要擦掉，新位置要画上
+        dirtyMinX = dirtyMinY = Integer.MAX_VALUE;
+        dirtyMaxX = dirtyMaxY = Integer.MIN_VALUE;
+        addAnimatingBounds();
+        engine.updateAnimations();
+        if (autoPlay) requestAiMove();
+        addAnimatingBounds();
+
+        if (dirtyMinX <= dirtyMaxX) {
+            repaint(dirtyMinX, dirtyMinY + Config.HEADER_HEIGHT, dirtyMaxX - dirtyMinX, dirtyMaxY - dirtyMinY);
+        }
+        repaint(0, 0, getWidth(), Config.HEADER_HEIGHT);
+
+        // 自动游戏时要靠帧循环发起下一次搜索，不能停
+        if (!autoPlay && engine.isIdle() && inputQueue.isEmpty()) {
+            animationTimer.stop();
+            if (Metrics.ENABLED) Metrics.frameIdle();
+        }
+    }
+
+    private void addAnimatingBounds() {
+        for (int i = 0; i < engine.tiles.size(); i++) {
+            Tile t = engine.tiles.get(i);
+            if (t.isAnimationDone()) continue;
+            // 合并动画最多放大到 1.2 倍，按最大尺寸算，多留 1 像素给抗锯齿
+            int pad = layout.tileSize / 10 + 1;
+            int x = (int) layout.toPixel(t.getX());
+            int y = (int) layout.toPixel(t.getY());
+            dirtyMinX = Math.min(dirtyMinX, x - pad);
+            dirtyMinY = Math.min(dirtyMinY, y - pad);
+            dirtyMaxX = Math.max(dirtyMaxX, x + layout.tileSize + pad + 1);
+            dirtyMaxY = Math.max(dirtyMaxY, y + layout.tileSize + pad + 1);
+        }
+    }
+
+    private void wake() {
+        if (!disposed && !animationTimer.isRunning()) animationTimer.start();
+    }
+
+    // 提交一步移动，可在任意线程调用；队列已满时返回 false
+    // 其它线程 (脚本) 提交的输入不等下一帧，尽快在 EDT 上执行
+    public boolean submit(Direction direction) {
+        if (!inputQueue.offer(direction)) return false;
+        if (!SwingUtilities.isEventDispatchThread() && drainScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                drainScheduled.set(false);
+                drainInput();
+                repaint();
+                wake();
+            });
+        }
+        return true;
+    }
+
+    // 在 EDT 上按顺序执行队列里的移动；逻辑层立即生效，视图只播放最后一步的动画
+    private void drainInput() {
+        Direction direction;
+        while ((direction = inputQueue.poll()) != null) {
+            if (engine.isGameStopped) {
+                inputQueue.clear();
+                return;
+            }
+            if (!engine.canUserMove()) {
+                engine.isGameStopped = true;
+                inputQueue.clear();
+                return;
+            }
+            if (!engine.isLegal(direction)) continue;
+            if (!engine.areAnimationsDone()) engine.finishAnimations();
+            engine.move(direction);
+        }
+    }
+
+    public void setBooks(BookIndex[] books) {
+        this.books = books;
+    }
+
+    public void setEvaluator(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    // 切换到观战模式，之后的局面都来自 client；引擎的棋盘尺寸必须与广播方一致
+    public void spectate(SpectatorClient client) {
+        viewer = true;
+        autoPlay = false;
+        client.start((batch, after) -> {
+            if (!engine.accepts(after)) {
+                System.err.println("广播方棋盘尺寸或目标已改变，忽略: " + after.side);
+                return;
+            }
+            // 批次对象属于接收线程，复制一份交给 EDT
+            EventBatch copy = new EventBatch();
+            copy.copyFrom(batch);
+            SwingUtilities.invokeLater(() -> {
+                // 和本地输入一样：上一步没播完的动画直接快进
+                if (!engine.areAnimationsDone()) engine.finishAnimations();
+                engine.applyRemote(copy, after);
+                repaint();
+                wake();
+            });
         });
-        animationTimer.start();
+        repaint();
     }
 
+    public void setBestScore(IntSupplier bestScore) {
+        this.bestScore = bestScore;
+        repaint();
+    }
+
+    // 停止动画循环和后台线程，面板不再使用时调用
+    public void dispose() {
+        disposed = true;
+        animationTimer.stop();
+        audioExecutor.shutdownNow();
+        if (aiExecutor != null) aiExecutor.shutdownNow();
+    }
+
+    // 只在音频线程上调用
     private void loadSound() {
+        if (soundLoaded) return;
+        soundLoaded = true;
         try {
             // 请确保 resources 目录下有 merge.wav
             URL soundURL = getClass().getResource("/merge.wav");
@@ -61,17 +272,117 @@ public class GamePanel extends JPanel {
         }
     }
 
+    // 一次移动不管合并几次只响一声
+    private void onGameEvents(EventBatch batch) {
+        if (batch.contains(EventType.TILES_MERGED)) playMergeSound();
+    }
+
     private void playMergeSound() {
+        loadSound();
         if (mergeSoundClip != null) {
             mergeSoundClip.setFramePosition(0);
             mergeSoundClip.start();
         }
     }
 
+    private void requestAiMove() {
+        if (aiThinking || engine.isGameStopped || !engine.areAnimationsDone()) return;
+        if (!engine.canUserMove()) {
+            engine.isGameStopped = true;
+            return;
+        }
+        ensureSearcher();
+        aiThinking = true;
+        long board = engine.getBoard();
+        aiExecutor.execute(() -> {
+            SearchResult result = searcher.search(board);
+            SwingUtilities.invokeLater(() -> {
+                aiThinking = false;
+                aiStatus = String.format("AI %.1fM nodes/s", result.nodesPerSecond() / 1e6);
+                // 搜索期间玩家可能已重开或关闭自动模式
+                if (autoPlay && result.direction != null && engine.getBoard() == board) {
+                    engine.move(result.direction);
+                    repaint();
+                }
+                wake();
+            });
+        });
+    }
+
+    private void ensureSearcher() {
+        if (searcher != null) return;
+        SearchConfig config = new SearchConfig();
+        config.timeBudgetMillis = 100;
+        config.books = books;
+        if (evaluator != null) config.evaluator = evaluator;
+        searcher = new ExpectimaxSearcher(config);
+        aiExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "2048-ai");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // 方向总是来自搜索器 (开局库命中时由它直接给出)；残局库收录的局面附上合成目标数字的概率
+    private void showHint() {
+        long board = engine.getBoard();
+        ensureSearcher();
+        aiExecutor.execute(() -> {
+            SearchResult result = searcher.search(board);
+            String text = result.direction == null ? "Hint: -" : "Hint: " + result.direction;
+            if (result.fromBook) text += " (book)";
+            for (BookIndex book : books) {
+                if (book.kind() != BookIndex.KIND_TABLEBASE || !book.contains(board)) continue;
+                text += String.format(" (%d: %.0f%%)", 1 << book.goalExponent(), book.value(board) * 100);
+                break;
+            }
+            String hint = text;
+            SwingUtilities.invokeLater(() -> {
+                hintText = hint;
+                hintBoard = board;
+                repaint(0, 0, getWidth(), Config.HEADER_HEIGHT);
+            });
+        });
+    }
+
     private void handleInput(KeyEvent e) {
+        // 观战时只能切换加速模式
+        if (viewer) {
+            if (e.getKeyCode() == KeyEvent.VK_T) engine.setAnimated(!engine.isAnimated());
+            return;
+        }
+
+        // AI 只支持 4x4 位压缩棋盘
+        if (e.getKeyCode() == KeyEvent.VK_A && engine.isPacked()) {
+            autoPlay = !autoPlay;
+            if (!autoPlay) aiStatus = "";
+            return;
+        }
+
+        if (e.getKeyCode() == KeyEvent.VK_H && engine.isPacked()) {
+            showHint();
+            return;
+        }
+
+        // U 撤销，R 重做 (游戏结束后也可以撤销)
+        if (e.getKeyCode() == KeyEvent.VK_U) {
+            engine.undo();
+            return;
+        }
+        if (e.getKeyCode() == KeyEvent.VK_R) {
+            engine.redo();
+            return;
+        }
+        // T 切换加速模式：不播放动画，每步立即落定
+        if (e.getKeyCode() == KeyEvent.VK_T) {
+            engine.setAnimated(!engine.isAnimated());
+            return;
+        }
+
         if (engine.isGameStopped) {
             if (e.getKeyCode() == KeyEvent.VK_SPACE) {
                 engine.createGame();
+                sprites.reset();
             }
             return;
         }
@@ -81,16 +392,24 @@ public class GamePanel extends JPanel {
             return;
         }
 
-        switch (e.getKeyCode()) {
-            case KeyEvent.VK_LEFT:  engine.moveLeft(); break;
-            case KeyEvent.VK_RIGHT: engine.moveRight(); break;
-            case KeyEvent.VK_UP:    engine.moveUp(); break;
-            case KeyEvent.VK_DOWN:  engine.moveDown(); break;
+        Direction direction = toDirection(e.getKeyCode());
+        if (direction != null) submit(direction);
+    }
+
+    private static Direction toDirection(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.VK_LEFT:  return Direction.LEFT;
+            case KeyEvent.VK_RIGHT: return Direction.RIGHT;
+            case KeyEvent.VK_UP:    return Direction.UP;
+            case KeyEvent.VK_DOWN:  return Direction.DOWN;
+            default:                return null;
         }
     }
 
     @Override
     protected void paintComponent(Graphics g) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        long allocated = Metrics.ENABLED ? Metrics.threadAllocatedBytes() : 0;
         super.paintComponent(g);
         Graphics2D g2 = (Graphics2D) g;
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
@@ -99,55 +418,109 @@ public class GamePanel extends JPanel {
         drawHeader(g2);
         g2.translate(0, Config.HEADER_HEIGHT);
 
-        // 1. 先画底层的空格子
-        for (int i = 0; i < Config.SIDE; i++) {
-            for (int j = 0; j < Config.SIDE; j++) {
-                drawEmptyTile(g2, j, i);
-            }
-        }
+        // 1. 先画底层的空格子 (缓存成一张图)
+        if (boardBackground == null) boardBackground = renderBoardBackground();
+        g2.drawImage(boardBackground, 0, 0, null);
 
-        // 2. 复制一份方块列表用于排序，以免影响逻辑层
-        java.util.List<Tile> renderList = new ArrayList<>(engine.tiles);
+        // 2. 复制一份方块列表用于排序，以免影响逻辑层 (复用同一个列表)
+        renderList.clear();
+        for (int i = 0; i < engine.tiles.size(); i++) renderList.add(engine.tiles.get(i));
 
         // 3. 根据 Z-Index 排序：Z 值小的在下面，大的在上面（后画）
-        renderList.sort(Comparator.comparingInt(Tile::getZIndex));
+        renderList.sort(BY_Z_INDEX);
 
         // 4. 绘制所有方块
-        for (Tile t : renderList) {
-            t.draw(g2);
+        for (int i = 0; i < renderList.size(); i++) {
+            TileRenderer.draw(g2, renderList.get(i), sprites, layout);
         }
 
         if (engine.isGameStopped) {
             drawGameOver(g2);
         }
+
+        if (Metrics.ENABLED) {
+            Metrics.FRAME.record(System.nanoTime() - start);
+            if (allocated >= 0) Metrics.FRAME_ALLOCATION.record(Metrics.threadAllocatedBytes() - allocated);
+        }
+        if (!firstFramePainted) onFirstFrame();
+    }
+
+    // 第一帧出来之后再启动帧循环，并在音频线程上预先加载音效，第一次合并时就不用等
+    private void onFirstFrame() {
+        firstFramePainted = true;
+        StartupTimer.firstFrame();
+        if (disposed) return;
+        wake();
+        audioExecutor.execute(this::loadSound);
+    }
+
+    private BufferedImage renderBoardBackground() {
+        int width = layout.boardWidth;
+        int height = layout.boardHeight;
+        BufferedImage image = getGraphicsConfiguration() != null
+                ? getGraphicsConfiguration().createCompatibleImage(width, height)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(Config.BACKGROUND_COLOR);
+            g.fillRect(0, 0, width, height);
+            for (int i = 0; i < layout.side; i++) {
+                for (int j = 0; j < layout.side; j++) {
+                    drawEmptyTile(g, j, i);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
     }
 
     private void drawEmptyTile(Graphics2D g, int x, int y) {
-        int xPos = x * (Config.TILE_SIZE + Config.MARGIN) + Config.MARGIN;
-        int yPos = y * (Config.TILE_SIZE + Config.MARGIN) + Config.MARGIN;
-        g.setColor(new Color(0xcdc1b5));
-        g.fillRoundRect(xPos, yPos, Config.TILE_SIZE, Config.TILE_SIZE, 14, 14);
+        int xPos = (int) layout.toPixel(x);
+        int yPos = (int) layout.toPixel(y);
+        g.setColor(Config.EMPTY_TILE_COLOR);
+        g.fillRoundRect(xPos, yPos, layout.tileSize, layout.tileSize, layout.arc, layout.arc);
     }
 
     private void drawHeader(Graphics2D g) {
-        g.setColor(new Color(0xbbada0));
+        g.setColor(Config.BACKGROUND_COLOR);
         g.fillRect(0, 0, getWidth(), Config.HEADER_HEIGHT);
-        g.setColor(new Color(0xf9f6f2));
-        g.setFont(new Font(Config.FONT_NAME, Font.BOLD, 18));
-        g.drawString("Score: " + engine.score, 20, 35);
+        g.setColor(Config.LIGHT_TEXT_COLOR);
+        g.setFont(HEADER_FONT);
+        // 分数变了才重新拼字符串
+        if (shownScore != engine.score) {
+            shownScore = engine.score;
+            scoreText = "Score: " + shownScore;
+        }
+        g.drawString(scoreText, 20, 35);
+        if (viewer) {
+            g.drawString("Live", getWidth() - 20 - g.getFontMetrics().stringWidth("Live"), 35);
+        } else if (bestScore != null && !autoPlay) {
+            int best = Math.max(bestScore.getAsInt(), engine.score);
+            if (shownBest != best) {
+                shownBest = best;
+                bestText = "Best: " + best;
+            }
+            g.drawString(bestText, getWidth() - 20 - g.getFontMetrics().stringWidth(bestText), 35);
+        }
+        if (autoPlay) g.drawString(aiStatus, getWidth() - 200, 35);
+        else if (!hintText.isEmpty() && hintBoard == engine.getBoard()) {
+            g.drawString(hintText, (getWidth() - g.getFontMetrics().stringWidth(hintText)) / 2, 35);
+        }
     }
 
     private void drawGameOver(Graphics2D g) {
-        g.setColor(new Color(255, 255, 255, 150));
+        g.setColor(Config.OVERLAY_COLOR);
         g.fillRoundRect(0, 0, getWidth(), getHeight() - Config.HEADER_HEIGHT, 0, 0);
-        g.setColor(new Color(0x776e65));
-        g.setFont(new Font(Config.FONT_NAME, Font.BOLD, 48));
+        g.setColor(Config.DARK_TEXT_COLOR);
+        g.setFont(TITLE_FONT);
         String msg = engine.isWon ? "You Win!" : "Game Over";
         FontMetrics fm = g.getFontMetrics();
         g.drawString(msg, (getWidth() - fm.stringWidth(msg)) / 2, getHeight() / 2);
 
-        g.setFont(new Font(Config.FONT_NAME, Font.PLAIN, 18));
-        String subMsg = "Press SPACE to Restart";
+        g.setFont(HINT_FONT);
+        String subMsg = viewer ? "Waiting for the next game" : "Press SPACE to Restart";
         g.drawString(subMsg, (getWidth() - g.getFontMetrics().stringWidth(subMsg)) / 2, getHeight() / 2 + 40);
     }
 }
\ No newline at end of file
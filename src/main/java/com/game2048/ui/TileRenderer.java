@@ -0,0 +1,25 @@
+package com.game2048.ui;
+
+import com.game2048.model.Tile;
+
+import java.awt.*;
+
+// 把 Tile 的格子坐标换算成像素，按当前缩放贴上缓存好的方块图
+// 直接算出缩放后的目标矩形，不再保存/恢复 AffineTransform
+final class TileRenderer {
+
+    private TileRenderer() {
+    }
+
+    static void draw(Graphics2D g, Tile tile, TileSprites sprites, BoardLayout layout) {
+        int value = tile.getValue();
+        if (value == 0) return;
+
+        // 以方块中心为原点缩放
+        double size = layout.tileSize * tile.getScale();
+        double x = layout.toPixel(tile.getX()) + (layout.tileSize - size) / 2.0;
+        double y = layout.toPixel(tile.getY()) + (layout.tileSize - size) / 2.0;
+        int s = (int) Math.round(size);
+        g.drawImage(sprites.get(value), (int) Math.round(x), (int) Math.round(y), s, s, null);
+    }
+}
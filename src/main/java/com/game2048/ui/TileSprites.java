@@ -0,0 +1,101 @@
+package com.game2048.ui;
+
+import com.game2048.config.Config;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// 方块贴图缓存：每个数值只渲染一次 (底色 + 文字)，之后每帧直接贴图
+// 用 GraphicsConfiguration 创建兼容图像，Java2D 会把它作为托管图像缓存在显存里
+// reset() 时淘汰自上次 reset 以来没有用到过的数值
+final class TileSprites {
+    private static final int MAX_EXPONENT = 31;
+
+    private final BufferedImage[] sprites = new BufferedImage[MAX_EXPONENT + 1];
+    private final int tileSize;
+    private final int arc;
+    // 按指数记录本局用到过的贴图
+    private long usedMask;
+
+    TileSprites(BoardLayout layout) {
+        this.tileSize = layout.tileSize;
+        this.arc = layout.arc;
+    }
+
+    BufferedImage get(int value) {
+        int exponent = Integer.numberOfTrailingZeros(value);
+        usedMask |= 1L << exponent;
+        BufferedImage sprite = sprites[exponent];
+        if (sprite == null) {
+            sprite = render(value);
+            sprites[exponent] = sprite;
+        }
+        return sprite;
+    }
+
+    // 新的一局开始时调用
+    void reset() {
+        for (int i = 0; i < sprites.length; i++) {
+            if (sprites[i] != null && (usedMask & (1L << i)) == 0) {
+                sprites[i].flush();
+                sprites[i] = null;
+            }
+        }
+        usedMask = 0;
+    }
+
+    // 预先渲染 2 到 maxValue 的贴图，只读取不可变字段，可在非 EDT 线程调用
+    BufferedImage[] prerender(int maxValue) {
+        BufferedImage[] rendered = new BufferedImage[MAX_EXPONENT + 1];
+        for (int v = 2; v > 0 && v <= maxValue; v <<= 1) {
+            rendered[Integer.numberOfTrailingZeros(v)] = render(v);
+        }
+        return rendered;
+    }
+
+    // 把 prerender 的结果装进缓存，在 EDT 上调用；已经现画过的保留原来的
+    void install(BufferedImage[] rendered) {
+        for (int i = 0; i < sprites.length; i++) {
+            if (sprites[i] == null) {
+                sprites[i] = rendered[i];
+            } else if (rendered[i] != null) {
+                rendered[i].flush();
+            }
+        }
+    }
+
+    private BufferedImage render(int value) {
+        BufferedImage image = createImage(tileSize, tileSize);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+            g.setColor(Config.getColorByValue(value));
+            g.fillRoundRect(0, 0, tileSize, tileSize, arc, arc);
+
+            g.setColor(value < 8 ? Config.DARK_TEXT_COLOR : Config.LIGHT_TEXT_COLOR);
+            int fontSize = value < 100 ? 36 : (value < 1000 ? 32 : (value < 100000 ? 24 : 18));
+            fontSize = Math.max(8, fontSize * tileSize / Config.TILE_SIZE);
+            g.setFont(new Font(Config.FONT_NAME, Font.BOLD, fontSize));
+
+            String s = String.valueOf(value);
+            FontMetrics fm = g.getFontMetrics();
+            int txtX = (tileSize - fm.stringWidth(s)) / 2;
+            int txtY = ((tileSize - fm.getHeight()) / 2) + fm.getAscent();
+            g.drawString(s, txtX, txtY);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static BufferedImage createImage(int width, int height) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+}
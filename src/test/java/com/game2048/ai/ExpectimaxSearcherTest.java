@@ -0,0 +1,95 @@
+package com.game2048.ai;
+
+import com.game2048.core.BitBoard;
+import com.game2048.core.Direction;
+import com.game2048.core.Rules;
+import com.game2048.core.Symmetry;
+import com.game2048.core.TestBoards;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// 与不带置换表、不分任务的朴素递归比较：并行拆分和按代表元共用表项都不能改变结果
+class ExpectimaxSearcherTest {
+    private static final double TWO = 1.0 - Rules.SPAWN_FOUR_PROBABILITY;
+    private static final double FOUR = Rules.SPAWN_FOUR_PROBABILITY;
+
+    @Test
+    void heuristicIsSymmetric() {
+        Random random = new Random(1);
+        for (int n = 0; n < 1000; n++) {
+            long board = TestBoards.randomBoard(random, 12, 0.4);
+            float expected = Heuristic.evaluate(board);
+            // 8 行/列各带 20 万的基数，按不同顺序相加只差浮点舍入
+            for (int s = 0; s < Symmetry.COUNT; s++) {
+                assertEquals(expected, Heuristic.evaluate(Symmetry.apply(board, s)), 1.0f);
+            }
+        }
+    }
+
+    @Test
+    void matchesNaiveExpectimax() {
+        Random random = new Random(2);
+        for (int depth = 1; depth <= 2; depth++) {
+            SearchConfig config = new SearchConfig();
+            config.depth = depth;
+            config.probabilityCutoff = 0;
+            config.tableBits = 12;
+            config.pool = new ForkJoinPool(2);
+            ExpectimaxSearcher searcher = new ExpectimaxSearcher(config);
+            try {
+                for (int n = 0; n < 20; n++) {
+                    long board = TestBoards.randomBoard(random, 8, 0.5);
+                    if (BitBoard.legalMoves(board) == 0) continue;
+                    SearchResult result = searcher.search(board);
+                    assertNotNull(result.direction);
+
+                    double best = Double.NEGATIVE_INFINITY;
+                    for (Direction d : Direction.ALL) {
+                        long next = Rules.move(board, d);
+                        if (next != board) best = Math.max(best, spawnAverage(next, depth - 1));
+                    }
+                    double chosen = spawnAverage(Rules.move(board, result.direction), depth - 1);
+                    assertEquals(best, result.value, Math.abs(best) * 1e-5, "value of " + Long.toHexString(board));
+                    assertEquals(best, chosen, Math.abs(best) * 1e-5, "move of " + Long.toHexString(board));
+                }
+            } finally {
+                config.pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void noLegalMoveGivesNullDirection() {
+        long board = 0x1212_2121_1212_2121L;
+        assertEquals(0, BitBoard.legalMoves(board));
+        assertNull(new ExpectimaxSearcher().search(board).direction);
+    }
+
+    // 生成节点：在各个空格上平均，2 和 4 按概率加权
+    private static double spawnAverage(long board, int depth) {
+        int empty = BitBoard.countEmpty(board);
+        double sum = 0;
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            if (BitBoard.exponentAt(board, i) != 0) continue;
+            sum += TWO * maxNode(BitBoard.withExponent(board, i, 1), depth)
+                    + FOUR * maxNode(BitBoard.withExponent(board, i, 2), depth);
+        }
+        return sum / empty;
+    }
+
+    private static double maxNode(long board, int depth) {
+        double best = 0;
+        for (int dir = 0; dir < 4; dir++) {
+            long next = BitBoard.move(board, dir);
+            if (next == board) continue;
+            best = Math.max(best, depth <= 0 ? Heuristic.evaluate(next) : spawnAverage(next, depth - 1));
+        }
+        return best;
+    }
+}
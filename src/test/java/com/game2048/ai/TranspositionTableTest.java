@@ -0,0 +1,41 @@
+package com.game2048.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TranspositionTableTest {
+
+    @Test
+    void probeReturnsStoredValueForSameOrShallowerDepth() {
+        TranspositionTable table = new TranspositionTable(8);
+        table.store(0x1234_5678_9ABC_DEF0L, 3, 42.5f);
+        assertEquals(42.5f, table.probe(0x1234_5678_9ABC_DEF0L, 3));
+        assertEquals(42.5f, table.probe(0x1234_5678_9ABC_DEF0L, 1));
+        assertTrue(Float.isNaN(table.probe(0x1234_5678_9ABC_DEF0L, 4)));
+    }
+
+    @Test
+    void missAndClear() {
+        TranspositionTable table = new TranspositionTable(8);
+        assertTrue(Float.isNaN(table.probe(0x21L, 0)));
+        table.store(0x21L, 2, -7f);
+        assertEquals(-7f, table.probe(0x21L, 2));
+        table.clear();
+        assertTrue(Float.isNaN(table.probe(0x21L, 0)));
+    }
+
+    @Test
+    void collidingBoardsNeverReturnEachOthersValue() {
+        // 表很小，大量局面必然落到同一槽位；命中时必须是自己存进去的值
+        TranspositionTable table = new TranspositionTable(2);
+        for (long board = 1; board <= 1000; board++) {
+            table.store(board, 1, board);
+            for (long other = Math.max(1, board - 8); other <= board; other++) {
+                float v = table.probe(other, 1);
+                assertTrue(Float.isNaN(v) || v == other, "board " + other);
+            }
+        }
+    }
+}
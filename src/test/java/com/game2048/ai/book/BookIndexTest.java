@@ -0,0 +1,256 @@
+package com.game2048.ai.book;
+
+import com.game2048.core.BitBoard;
+import com.game2048.core.Direction;
+import com.game2048.core.Rules;
+import com.game2048.core.Symmetry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 小残局库 (目标 8，总和不超过 MAX_SUM)：生成器的值与直白的递归求解一致，
+// 写盘后用 BookIndex 映射读回，查询结果与生成器相同，方向换回原局面后仍是最优的
+class BookIndexTest {
+    private static final int GOAL = 3;
+    private static final int MAX_SUM = 20;
+
+    @TempDir
+    static Path dir;
+    private static Tablebase tablebase;
+    private static Path file;
+
+    @BeforeAll
+    static void build() throws IOException {
+        tablebase = new Tablebase(GOAL, MAX_SUM);
+        tablebase.build();
+        file = dir.resolve("tablebase.book");
+        tablebase.write(file);
+    }
+
+    @Test
+    void tablebaseMatchesReference() {
+        Map<Long, Double> memo = new HashMap<>();
+        Random random = new Random(1);
+        for (int n = 0; n < 300; n++) {
+            long board = randomReachable(random);
+            if (board == 0) continue;
+            assertEquals(reference(board, memo), tablebase.value(board), 1e-6, Long.toHexString(board));
+        }
+    }
+
+    @Test
+    void indexAgreesWithTablebase() throws IOException {
+        try (BookIndex index = new BookIndex(file)) {
+            assertEquals(BookIndex.KIND_TABLEBASE, index.kind());
+            assertEquals(GOAL, index.goalExponent());
+            assertEquals(tablebase.positions(), index.size());
+
+            Random random = new Random(2);
+            int nonCanonical = 0;
+            for (int n = 0; n < 2000; n++) {
+                long board = randomReachable(random);
+                if (board == 0) continue;
+                // 同一局面的任意对称像都要查得到
+                long image = Symmetry.apply(board, random.nextInt(Symmetry.COUNT));
+                if (image != Symmetry.canonical(image)) nonCanonical++;
+
+                float value = tablebase.value(image);
+                assertEquals(value, index.value(image), Long.toHexString(image));
+                assertTrue(index.contains(image));
+                Direction best = index.bestMove(image);
+                if (BitBoard.legalMoves(image) == 0) {
+                    assertNull(best);
+                    continue;
+                }
+                // 换回原局面的方向必须合法，而且它的期望值就是局面的值
+                assertNotNull(best);
+                assertTrue(Rules.isLegal(BitBoard.legalMoves(image), best), Long.toHexString(image) + " " + best);
+                assertEquals(value, moveValue(image, best), 1e-5, Long.toHexString(image) + " " + best);
+            }
+            assertTrue(nonCanonical > 100);
+
+            // 总和超出上限的局面不在库里
+            long big = BitBoard.withExponent(BitBoard.withExponent(0, 0, 4), 5, 4);
+            assertEquals(Float.NaN, index.value(big));
+            assertNull(index.bestMove(big));
+        }
+    }
+
+    // 四角都 >= 256 的局面，代表元的最高半字节 >= 8，作为有符号数是负的；写入和二分都要按有符号序
+    @Test
+    void negativeKeysAreSearchable() throws IOException {
+        Random random = new Random(3);
+        long[] keys = new long[500];
+        for (int i = 0; i < keys.length; i++) {
+            long board = TestBoard.random(random);
+            if (i % 2 == 0) {
+                for (int corner : new int[]{0, 3, 12, 15}) board = BitBoard.withExponent(board, corner, 8 + random.nextInt(8));
+            }
+            keys[i] = Symmetry.canonical(board);
+        }
+        keys = Arrays.stream(keys).distinct().sorted().toArray();
+        assertTrue(keys[0] < 0);
+        float[] values = new float[keys.length];
+        byte[] moves = new byte[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = i;
+            moves[i] = (byte) (i % 4);
+        }
+        Path path = dir.resolve("signed.book");
+        new BookRun(keys, values, moves).write(path, BookIndex.KIND_OPENING, 0);
+        try (BookIndex index = new BookIndex(path)) {
+            assertEquals(BookIndex.KIND_OPENING, index.kind());
+            for (int i = 0; i < keys.length; i++) {
+                assertEquals(i, index.indexOf(keys[i]));
+                int s = random.nextInt(Symmetry.COUNT);
+                long image = Symmetry.apply(keys[i], s);
+                assertEquals(i, index.value(image));
+                // 库里的方向是代表元下的，查询对称像时要换成对应的方向
+                int toCanonical = Symmetry.canonicalSymmetry(image);
+                Direction expected = Symmetry.apply(Direction.of(i % 4), Symmetry.inverse(toCanonical));
+                assertEquals(expected, index.bestMove(image));
+            }
+        }
+    }
+
+    @Test
+    void rejectsDamagedFiles() throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+
+        Path shortFile = dir.resolve("short.book");
+        Files.write(shortFile, Arrays.copyOf(bytes, BookFormat.HEADER_BYTES - 1));
+        assertThrows(IOException.class, () -> new BookIndex(shortFile));
+
+        Path truncated = dir.resolve("truncated.book");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> new BookIndex(truncated));
+
+        Path padded = dir.resolve("padded.book");
+        Files.write(padded, Arrays.copyOf(bytes, bytes.length + 13));
+        assertThrows(IOException.class, () -> new BookIndex(padded));
+
+        Path badMagic = dir.resolve("magic.book");
+        byte[] copy = bytes.clone();
+        ByteBuffer.wrap(copy).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 0x12345678);
+        Files.write(badMagic, copy);
+        assertThrows(IOException.class, () -> new BookIndex(badMagic));
+
+        Path badVersion = dir.resolve("version.book");
+        copy = bytes.clone();
+        ByteBuffer.wrap(copy).order(ByteOrder.LITTLE_ENDIAN).putInt(4, BookFormat.VERSION + 1);
+        Files.write(badVersion, copy);
+        assertThrows(IOException.class, () -> new BookIndex(badVersion));
+
+        // 条目数被改大
+        Path badCount = dir.resolve("count.book");
+        Files.write(badCount, bytes);
+        try (FileChannel ch = FileChannel.open(badCount, StandardOpenOption.WRITE)) {
+            ByteBuffer n = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(0, Long.MAX_VALUE / 16);
+            ch.write(n, 16);
+        }
+        assertThrows(IOException.class, () -> new BookIndex(badCount));
+    }
+
+    // 从开局按随机方向走到总和上限以内的某一步
+    private static long randomReachable(Random random) {
+        long board = 0;
+        for (int k = 0; k < 2; k++) board = spawn(board, random);
+        int steps = random.nextInt(8);
+        for (int s = 0; s < steps; s++) {
+            int legal = BitBoard.legalMoves(board);
+            if (legal == 0) break;
+            int dir;
+            do {
+                dir = random.nextInt(4);
+            } while ((legal & (1 << dir)) == 0);
+            long next = BitBoard.move(board, dir);
+            if (BitBoard.containsExponent(next, GOAL)) break;
+            long spawned = spawn(next, random);
+            if (Tablebase.tileSum(spawned) > MAX_SUM) break;
+            board = spawned;
+        }
+        return board;
+    }
+
+    private static long spawn(long board, Random random) {
+        int empty = BitBoard.emptyMask(board);
+        for (int k = random.nextInt(Integer.bitCount(empty)); k > 0; k--) empty &= empty - 1;
+        int cell = Integer.numberOfTrailingZeros(empty);
+        return BitBoard.withExponent(board, cell, random.nextInt(10) == 0 ? 2 : 1);
+    }
+
+    // 直接按定义递归：合出目标为 1，总和超出上限为 0，否则各方向取生成节点期望的最大者
+    private static double reference(long board, Map<Long, Double> memo) {
+        if (Tablebase.tileSum(board) > MAX_SUM) return 0;
+        Double cached = memo.get(board);
+        if (cached != null) return cached;
+        double best = 0;
+        for (int dir = 0; dir < 4; dir++) {
+            long next = BitBoard.move(board, dir);
+            if (next == board) continue;
+            double value;
+            if (BitBoard.containsExponent(next, GOAL)) {
+                value = 1;
+            } else {
+                int empty = BitBoard.emptyMask(next);
+                double sum = 0;
+                for (int m = empty; m != 0; m &= m - 1) {
+                    int cell = Integer.numberOfTrailingZeros(m);
+                    sum += 0.9 * reference(BitBoard.withExponent(next, cell, 1), memo);
+                    sum += 0.1 * reference(BitBoard.withExponent(next, cell, 2), memo);
+                }
+                value = sum / Integer.bitCount(empty);
+            }
+            best = Math.max(best, value);
+        }
+        memo.put(board, best);
+        return best;
+    }
+
+    // 在原局面上沿 direction 走一步后的期望值，后继的值从生成器里查
+    private static double moveValue(long board, Direction direction) {
+        long next = Rules.move(board, direction);
+        if (BitBoard.containsExponent(next, GOAL)) return 1;
+        int empty = BitBoard.emptyMask(next);
+        double sum = 0;
+        for (int m = empty; m != 0; m &= m - 1) {
+            int cell = Integer.numberOfTrailingZeros(m);
+            sum += 0.9 * valueOrZero(BitBoard.withExponent(next, cell, 1));
+            sum += 0.1 * valueOrZero(BitBoard.withExponent(next, cell, 2));
+        }
+        return sum / Integer.bitCount(empty);
+    }
+
+    private static double valueOrZero(long board) {
+        float v = tablebase.value(board);
+        return Float.isNaN(v) ? 0 : v;
+    }
+
+    private static final class TestBoard {
+        static long random(Random random) {
+            long board = 0;
+            for (int i = 0; i < BitBoard.CELLS; i++) {
+                if (random.nextInt(3) != 0) board = BitBoard.withExponent(board, i, 1 + random.nextInt(7));
+            }
+            return board;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.game2048.ai.ntuple;
+
+import com.game2048.core.BitBoard;
+import com.game2048.core.SplittableRandomSource;
+import com.game2048.core.Symmetry;
+import com.game2048.core.TestBoards;
+import com.game2048.sim.SimulationStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NTupleNetworkTest {
+    // 长短不一的形状走通用分支，FOUR_TUPLES 走展开的分支
+    private static final int[][] MIXED = {{0}, {0, 1}, {1, 2, 5}, {0, 4, 8, 12}, {5, 6, 9, 10, 13}};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void evaluationIsSymmetric() {
+        for (int[][] patterns : new int[][][]{NTupleNetwork.FOUR_TUPLES, MIXED}) {
+            NTupleNetwork net = trained(patterns, 1);
+            Random random = new Random(2);
+            for (int n = 0; n < 2000; n++) {
+                long board = TestBoards.randomBoard(random, 6, 0.3);
+                float v = net.evaluate(board);
+                for (int s = 1; s < Symmetry.COUNT; s++) {
+                    assertEquals(v, net.evaluate(Symmetry.apply(board, s)), Math.abs(v) * 1e-5f + 1e-6f);
+                }
+            }
+        }
+    }
+
+    // 对照实现：对每个对称像、每个形状直接读格子拼下标。一次 update 后，
+    // 另一个局面的估值 = 每个特征命中的表项被 update 加了几次 x 单步增量
+    @Test
+    void singleUpdateMatchesReferenceFeatures() {
+        for (int[][] patterns : new int[][][]{NTupleNetwork.FOUR_TUPLES, MIXED}) {
+            Random random = new Random(3);
+            for (int n = 0; n < 200; n++) {
+                NTupleNetwork net = new NTupleNetwork(patterns);
+                long updated = TestBoards.randomBoard(random, 3, 0.3);
+                float error = 8f;
+                float alpha = 0.5f;
+                net.update(updated, error, alpha);
+                float step = alpha * error / (patterns.length * Symmetry.COUNT);
+
+                Map<Long, Integer> hits = referenceFeatures(patterns, updated);
+                long probe = n % 4 == 0 ? updated : TestBoards.randomBoard(random, 3, 0.3);
+                int count = 0;
+                for (Map.Entry<Long, Integer> e : referenceFeatures(patterns, probe).entrySet()) {
+                    count += e.getValue() * hits.getOrDefault(e.getKey(), 0);
+                }
+                assertEquals(count * step, net.evaluate(probe), 1e-4f);
+            }
+        }
+    }
+
+    @Test
+    void updateMovesTowardTarget() {
+        NTupleNetwork plain = new NTupleNetwork(NTupleNetwork.FOUR_TUPLES);
+        NTupleNetwork coherent = new NTupleNetwork(NTupleNetwork.FOUR_TUPLES);
+        coherent.enableCoherence();
+        assertTrue(coherent.isCoherent());
+        Random random = new Random(4);
+        for (NTupleNetwork net : new NTupleNetwork[]{plain, coherent}) {
+            for (int n = 0; n < 200; n++) {
+                long board = TestBoards.randomBoard(random, 8, 0.3);
+                float target = random.nextFloat() * 2000 - 1000;
+                float before = Math.abs(target - net.evaluate(board));
+                net.update(board, target - net.evaluate(board), 0.1f);
+                assertTrue(Math.abs(target - net.evaluate(board)) < before);
+            }
+        }
+    }
+
+    @Test
+    void saveAndLoadRoundTrip() throws IOException {
+        // 少量更新的表按稀疏存，大量更新的短形状按稠密存
+        for (int updates : new int[]{10, 20_000}) {
+            NTupleNetwork net = trained(MIXED, updates);
+            Path file = dir.resolve("net-" + updates + ".bin");
+            net.save(file);
+            NTupleNetwork back = NTupleNetwork.load(file);
+            assertArrayEquals(MIXED, back.patterns());
+            Random random = new Random(5);
+            for (int n = 0; n < 2000; n++) {
+                long board = TestBoards.randomBoard(random, 5, 0.3);
+                assertEquals(net.evaluate(board), back.evaluate(board));
+            }
+        }
+    }
+
+    @Test
+    void loadRejectsDamagedFiles() throws IOException {
+        Path junk = dir.resolve("junk.bin");
+        Files.write(junk, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+        assertThrows(IOException.class, () -> NTupleNetwork.load(junk));
+
+        Path cut = dir.resolve("cut.bin");
+        trained(NTupleNetwork.FOUR_TUPLES, 20_000).save(cut);
+        try (FileChannel ch = FileChannel.open(cut, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() / 2);
+        }
+        assertThrows(IOException.class, () -> NTupleNetwork.load(cut));
+    }
+
+    @Test
+    void rejectsBadPatterns() {
+        assertThrows(IllegalArgumentException.class, () -> new NTupleNetwork(new int[][]{{}}));
+        assertThrows(IllegalArgumentException.class, () -> new NTupleNetwork(new int[][]{{0, 16}}));
+        assertThrows(IllegalArgumentException.class, () -> new NTupleNetwork(new int[][]{{0, 1, 2, 3, 4, 5, 6, 7}}));
+    }
+
+    @Test
+    void trainerPlaysRequestedGames() throws InterruptedException {
+        NTupleNetwork net = new NTupleNetwork(NTupleNetwork.FOUR_TUPLES);
+        SimulationStats stats = new TDTrainer(net, 0.1f, 2, new SplittableRandomSource(6)).train(21);
+        assertEquals(21, stats.games);
+        assertTrue(stats.moves > 0);
+    }
+
+    private static NTupleNetwork trained(int[][] patterns, int updates) {
+        NTupleNetwork net = new NTupleNetwork(patterns);
+        Random random = new Random(updates);
+        for (int n = 0; n < updates; n++) {
+            net.update(TestBoards.randomBoard(random, 4, 0.4), random.nextFloat() * 100 - 50, 0.5f);
+        }
+        return net;
+    }
+
+    // (形状, 表内下标) -> 在 8 个对称像里出现几次
+    private static Map<Long, Integer> referenceFeatures(int[][] patterns, long board) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (int s = 0; s < Symmetry.COUNT; s++) {
+            long image = Symmetry.apply(board, s);
+            for (int p = 0; p < patterns.length; p++) {
+                long index = 0;
+                for (int j = 0; j < patterns[p].length; j++) {
+                    index |= (long) BitBoard.exponentAt(image, patterns[p][j]) << (4 * j);
+                }
+                counts.merge(((long) p << 32) | index, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,109 @@
+package com.game2048.batch;
+
+import com.game2048.core.BitBoard;
+import com.game2048.core.Direction;
+import com.game2048.core.GameState;
+import com.game2048.core.Rules;
+import com.game2048.core.XoroshiroRandomSource;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// 第 i 路必须与 GameState + XoroshiroRandomSource(seed + i) 逐步一致，包括自动重开之后
+class BatchEngineTest {
+    private static final long SEED = 12345L;
+
+    @Test
+    void lanesMatchSingleGames() {
+        runAgainstReference(257, 400, false);
+    }
+
+    // 路数超过并行拆分阈值，多个任务各写一段
+    @Test
+    void parallelStepMatchesSingleGames() {
+        runAgainstReference(10_000, 150, true);
+    }
+
+    @Test
+    void rejectsEmptyBatch() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchEngine(0, SEED));
+    }
+
+    private static void runAgainstReference(int lanes, int steps, boolean parallel) {
+        BatchEngine batch = new BatchEngine(lanes, SEED);
+        GameState[] games = new GameState[lanes];
+        XoroshiroRandomSource[] sources = new XoroshiroRandomSource[lanes];
+        for (int i = 0; i < lanes; i++) {
+            games[i] = new GameState();
+            sources[i] = new XoroshiroRandomSource(SEED + i);
+            games[i].spawn(sources[i]);
+            games[i].spawn(sources[i]);
+            assertEquals(games[i].board(), batch.board(i), "lane " + i);
+        }
+
+        byte[] directions = new byte[lanes];
+        byte[] legal = new byte[lanes];
+        int[] delta = new int[lanes];
+        boolean[] changed = new boolean[lanes];
+        boolean[] terminal = new boolean[lanes];
+        Random policy = new Random(lanes);
+        ForkJoinPool pool = parallel ? new ForkJoinPool(4) : null;
+        try {
+            for (int step = 0; step < steps; step++) {
+                batch.legalMoves(legal);
+                for (int i = 0; i < lanes; i++) {
+                    assertEquals(games[i].legalMoves(), legal[i]);
+                    // 大多数时候随机选，也故意给一些非法方向
+                    directions[i] = (byte) policy.nextInt(4);
+                }
+                if (parallel) batch.stepParallel(pool, directions, delta, changed, terminal);
+                else batch.step(directions, delta, changed, terminal);
+
+                for (int i = 0; i < lanes; i++) {
+                    GameState game = games[i];
+                    int expected = game.move(Direction.of(directions[i]));
+                    assertEquals(expected != Rules.ILLEGAL, changed[i], "lane " + i + " step " + step);
+                    if (expected != Rules.ILLEGAL) {
+                        assertEquals(expected, delta[i]);
+                        game.spawn(sources[i]);
+                    }
+                    assertEquals(game.board(), batch.board(i), "lane " + i + " step " + step);
+                    assertEquals(game.score(), batch.score(i));
+                    assertEquals(game.isTerminal(), terminal[i]);
+                    if (terminal[i]) {
+                        game.reset();
+                        game.spawn(sources[i]);
+                        game.spawn(sources[i]);
+                    }
+                }
+                batch.resetTerminal(terminal);
+                for (int i = 0; i < lanes; i++) assertEquals(games[i].board(), batch.boards()[i]);
+            }
+        } finally {
+            if (pool != null) pool.shutdown();
+        }
+    }
+
+    // 手动重开一路只影响这一路
+    @Test
+    void resetTouchesOneLane() {
+        BatchEngine batch = new BatchEngine(4, SEED);
+        XoroshiroRandomSource source = new XoroshiroRandomSource(SEED + 2);
+        GameState game = new GameState();
+        game.spawn(source);
+        game.spawn(source);
+        long other = batch.board(1);
+        batch.reset(2);
+        game.reset();
+        game.spawn(source);
+        game.spawn(source);
+        assertEquals(game.board(), batch.board(2));
+        assertEquals(0, batch.score(2));
+        assertEquals(other, batch.board(1));
+        assertEquals(2, BitBoard.CELLS - BitBoard.countEmpty(batch.board(2)));
+    }
+}
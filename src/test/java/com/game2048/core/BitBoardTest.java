@@ -0,0 +1,106 @@
+package com.game2048.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BitBoardTest {
+    private static final int BOARDS = 20_000;
+
+    @Test
+    void fourDirectionsMatchReference() {
+        Random random = new Random(1);
+        for (int n = 0; n < BOARDS; n++) {
+            // 低指数多出相等的邻居，高指数覆盖 15 不合并的边界
+            long board = TestBoards.randomBoard(random, n % 2 == 0 ? 3 : 15, 0.35);
+            for (Direction d : Direction.ALL) {
+                int[] cells = ReferenceMoves.unpack(board);
+                int score = ReferenceMoves.move(cells, BitBoard.SIDE, d, BitBoard.MAX_EXPONENT);
+                long expected = ReferenceMoves.pack(cells);
+                assertEquals(expected, BitBoard.move(board, d.code), () -> Long.toHexString(board) + " " + d);
+                assertEquals(Math.max(score, 0), BitBoard.scoreOf(board, d.code), () -> Long.toHexString(board) + " " + d);
+            }
+        }
+    }
+
+    @Test
+    void namedMovesMatchMove() {
+        Random random = new Random(2);
+        for (int n = 0; n < 1000; n++) {
+            long board = TestBoards.randomBoard(random, 4, 0.3);
+            assertEquals(BitBoard.move(board, BitBoard.LEFT), BitBoard.moveLeft(board));
+            assertEquals(BitBoard.move(board, BitBoard.RIGHT), BitBoard.moveRight(board));
+            assertEquals(BitBoard.move(board, BitBoard.UP), BitBoard.moveUp(board));
+            assertEquals(BitBoard.move(board, BitBoard.DOWN), BitBoard.moveDown(board));
+        }
+    }
+
+    @Test
+    void maxExponentTilesDoNotMerge() {
+        long row = 0xFFL; // 两个 15 靠在一起
+        assertEquals(row, BitBoard.moveLeft(row));
+        assertEquals(0, BitBoard.scoreOf(row, BitBoard.LEFT));
+        // 两个 14 仍然合并成 15
+        assertEquals(0xF000L, BitBoard.moveRight(0xEEL));
+        assertEquals(0xFL, BitBoard.moveLeft(0xEEL));
+    }
+
+    @Test
+    void transposeSwapsRowsAndColumns() {
+        Random random = new Random(3);
+        for (int n = 0; n < 1000; n++) {
+            long board = random.nextLong();
+            long t = BitBoard.transpose(board);
+            for (int r = 0; r < 4; r++) {
+                for (int c = 0; c < 4; c++) {
+                    assertEquals(BitBoard.exponentAt(board, 4 * r + c), BitBoard.exponentAt(t, 4 * c + r));
+                }
+            }
+            assertEquals(board, BitBoard.transpose(t));
+        }
+    }
+
+    @Test
+    void queriesMatchBruteForce() {
+        Random random = new Random(4);
+        for (int n = 0; n < BOARDS; n++) {
+            long board = TestBoards.randomBoard(random, n % 2 == 0 ? 3 : 15, n % 3 == 0 ? 0.05 : 0.4);
+            int[] cells = ReferenceMoves.unpack(board);
+            int empty = 0, mask = 0, max = 0;
+            for (int i = 0; i < cells.length; i++) {
+                if (cells[i] == 0) {
+                    empty++;
+                    mask |= 1 << i;
+                }
+                max = Math.max(max, cells[i]);
+            }
+            assertEquals(empty, BitBoard.countEmpty(board));
+            assertEquals(mask, BitBoard.emptyMask(board));
+            assertEquals(max, BitBoard.maxExponent(board));
+            int legal = ReferenceMoves.legalMoves(cells, BitBoard.SIDE, BitBoard.MAX_EXPONENT);
+            assertEquals(legal, BitBoard.legalMoves(board), () -> Long.toHexString(board));
+            assertEquals(legal != 0, BitBoard.canMove(board));
+            for (int e = 1; e <= 15; e++) {
+                boolean present = false;
+                for (int c : cells) present |= c == e;
+                assertEquals(present, BitBoard.containsExponent(board, e));
+            }
+        }
+    }
+
+    @Test
+    void withExponentOnlyTouchesOneCell() {
+        long board = 0x0123_4567_89AB_CDEFL;
+        long changed = BitBoard.withExponent(board, 5, 0);
+        assertEquals(0, BitBoard.exponentAt(changed, 5));
+        for (int i = 0; i < 16; i++) {
+            if (i != 5) assertEquals(BitBoard.exponentAt(board, i), BitBoard.exponentAt(changed, i));
+        }
+        assertTrue(BitBoard.canMove(changed));
+        assertFalse(BitBoard.canMove(0x1212_2121_1212_2121L));
+    }
+}
@@ -0,0 +1,135 @@
+package com.game2048.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// 增量维护的合法方向、空格数、最大指数，每一步都要与从头数出来的结果一致
+class IncrementalStateTest {
+
+    @Test
+    void gridStateCountersMatchRecount() {
+        Random random = new Random(7);
+        SplittableRandomSource source = new SplittableRandomSource(7);
+        for (int side = GridState.MIN_SIDE; side <= 8; side++) {
+            for (int game = 0; game < 20; game++) {
+                GridState state = new GridState(side);
+                state.spawn(source);
+                state.spawn(source);
+                for (int step = 0; step < 400 && !state.isTerminal(); step++) {
+                    switch (random.nextInt(4)) {
+                        case 0:
+                            // 直接改格子，覆盖 setExponent 的局部重算
+                            state.setExponent(random.nextInt(side * side), random.nextInt(4));
+                            break;
+                        default:
+                            if (state.move(Direction.of(random.nextInt(4))) != Rules.ILLEGAL) state.spawn(source);
+                    }
+                    assertMatchesRecount(state);
+                }
+            }
+        }
+    }
+
+    @Test
+    void gridStateNearMaxExponent() {
+        Random random = new Random(8);
+        GridState state = new GridState(3);
+        for (int n = 0; n < 2000; n++) {
+            int index = random.nextInt(9);
+            state.setExponent(index, random.nextBoolean() ? 0 : GridState.MAX_EXPONENT - random.nextInt(2));
+            assertMatchesRecount(state);
+        }
+    }
+
+    @Test
+    void gameStateCountersMatchRecount() {
+        Random random = new Random(9);
+        SplittableRandomSource source = new SplittableRandomSource(9);
+        for (int game = 0; game < 200; game++) {
+            GameState state = new GameState();
+            state.spawn(source);
+            state.spawn(source);
+            while (!state.isTerminal()) {
+                if (state.move(Direction.of(random.nextInt(4))) != Rules.ILLEGAL) state.spawn(source);
+                long board = state.board();
+                assertEquals(BitBoard.legalMoves(board), state.legalMoves());
+                assertEquals(BitBoard.countEmpty(board), state.emptyCount());
+                assertEquals(BitBoard.emptyMask(board), state.emptyMask());
+                assertEquals(BitBoard.maxExponent(board), state.maxExponent());
+            }
+        }
+    }
+
+    // 已经有 15 时，合并不能把最大指数推到放不下的 16
+    @Test
+    void gameStateMaxExponentStopsAtFifteen() {
+        // 格子 0 是 32768，格子 4、5 是两个 2，格子 10 是一个 2
+        long board = BitBoard.withExponent(0L, 0, BitBoard.MAX_EXPONENT);
+        board = BitBoard.withExponent(board, 4, 1);
+        board = BitBoard.withExponent(board, 5, 1);
+        board = BitBoard.withExponent(board, 10, 1);
+        GameState state = new GameState(board, 0);
+        assertEquals(BitBoard.MAX_EXPONENT, state.maxExponent());
+        assertEquals(4, state.move(Direction.LEFT));
+        assertEquals(BitBoard.MAX_EXPONENT, state.maxExponent());
+        assertEquals(1 << BitBoard.MAX_EXPONENT, state.maxTile());
+
+        Random random = new Random(11);
+        SplittableRandomSource source = new SplittableRandomSource(11);
+        for (int game = 0; game < 200; game++) {
+            long start = BitBoard.withExponent(TestBoards.randomBoard(random, 3, 0.5), random.nextInt(16), BitBoard.MAX_EXPONENT);
+            state.set(start, 0);
+            while (!state.isTerminal()) {
+                if (state.move(Direction.of(random.nextInt(4))) != Rules.ILLEGAL) state.spawn(source);
+                assertEquals(BitBoard.maxExponent(state.board()), state.maxExponent());
+            }
+        }
+    }
+
+    // 4x4 的 GridState 与 GameState 用同一串随机数走同样的步子，结果逐步相同
+    @Test
+    void gridStateMatchesGameStateOnFourByFour() {
+        Random random = new Random(10);
+        for (int game = 0; game < 50; game++) {
+            GameState packed = new GameState();
+            GridState grid = new GridState(4);
+            SplittableRandomSource a = new SplittableRandomSource(game);
+            SplittableRandomSource b = new SplittableRandomSource(game);
+            assertEquals(packed.spawn(a), grid.spawn(b));
+            while (!packed.isTerminal()) {
+                Direction d = Direction.of(random.nextInt(4));
+                int delta = packed.move(d);
+                assertEquals(delta, grid.move(d));
+                if (delta != Rules.ILLEGAL) assertEquals(packed.spawn(a), grid.spawn(b));
+                for (int i = 0; i < 16; i++) assertEquals(packed.exponentAt(i), grid.exponentAt(i));
+                assertEquals(packed.score(), grid.score());
+                assertEquals(packed.legalMoves(), grid.legalMoves());
+                assertEquals(packed.emptyCount(), grid.emptyCount());
+                assertEquals(packed.maxExponent(), grid.maxExponent());
+            }
+            assertEquals(packed.isTerminal(), grid.isTerminal());
+        }
+    }
+
+    private static void assertMatchesRecount(GridState state) {
+        int side = state.side();
+        int[] cells = new int[side * side];
+        int empty = 0, max = 0;
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = state.exponentAt(i);
+            if (cells[i] == 0) empty++;
+            max = Math.max(max, cells[i]);
+        }
+        assertEquals(ReferenceMoves.legalMoves(cells, side, GridState.MAX_EXPONENT), state.legalMoves());
+        assertEquals(empty, state.emptyCount());
+        assertEquals(max, state.maxExponent());
+        // restore 会从头 recount，与增量结果对比
+        GridState fresh = new GridState(side);
+        fresh.restore(state.snapshot());
+        assertEquals(fresh.legalMoves(), state.legalMoves());
+        assertEquals(fresh.emptyCount(), state.emptyCount());
+    }
+}
@@ -0,0 +1,71 @@
+package com.game2048.core;
+
+// 最直白的滑动/合并实现，只给测试做参照：逐条线取出非空格，从移动方向的最前端开始两两合并
+// 两个 maxExponent 不再合并，与 4x4 位棋盘 (15) 和 GridState (30) 的上限一致
+public final class ReferenceMoves {
+
+    private ReferenceMoves() {
+    }
+
+    // 原地移动 cells，返回本步得分；棋盘不变时返回 Rules.ILLEGAL
+    public static int move(int[] cells, int side, Direction direction, int maxExponent) {
+        int score = 0;
+        boolean changed = false;
+        int[] line = new int[side];
+        for (int k = 0; k < side; k++) {
+            // line[0] 是移动方向最前端的格子
+            for (int j = 0; j < side; j++) line[j] = cells[cellOf(side, direction, k, j)];
+            int[] out = new int[side];
+            int n = 0;
+            boolean lastMerged = false;
+            for (int j = 0; j < side; j++) {
+                int e = line[j];
+                if (e == 0) continue;
+                if (n > 0 && !lastMerged && out[n - 1] == e && e < maxExponent) {
+                    out[n - 1]++;
+                    score += 1 << out[n - 1];
+                    lastMerged = true;
+                } else {
+                    out[n++] = e;
+                    lastMerged = false;
+                }
+            }
+            for (int j = 0; j < side; j++) {
+                int index = cellOf(side, direction, k, j);
+                if (cells[index] != out[j]) changed = true;
+                cells[index] = out[j];
+            }
+        }
+        return changed ? score : Rules.ILLEGAL;
+    }
+
+    public static int legalMoves(int[] cells, int side, int maxExponent) {
+        int legal = 0;
+        for (Direction d : Direction.ALL) {
+            if (move(cells.clone(), side, d, maxExponent) != Rules.ILLEGAL) legal |= 1 << d.code;
+        }
+        return legal;
+    }
+
+    public static int[] unpack(long board) {
+        int[] cells = new int[BitBoard.CELLS];
+        for (int i = 0; i < cells.length; i++) cells[i] = (int) ((board >>> (4 * i)) & 0xF);
+        return cells;
+    }
+
+    public static long pack(int[] cells) {
+        long board = 0;
+        for (int i = 0; i < cells.length; i++) board |= (long) cells[i] << (4 * i);
+        return board;
+    }
+
+    // 第 k 条线上、距移动方向最前端 j 格的下标
+    private static int cellOf(int side, Direction direction, int k, int j) {
+        switch (direction) {
+            case LEFT:  return k * side + j;
+            case RIGHT: return k * side + (side - 1 - j);
+            case UP:    return j * side + k;
+            default:    return (side - 1 - j) * side + k;
+        }
+    }
+}
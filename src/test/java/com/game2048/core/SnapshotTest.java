@@ -0,0 +1,96 @@
+package com.game2048.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotTest {
+
+    @Test
+    void gridSnapshotCopiesCells() {
+        byte[] cells = {1, 2, 3, 0};
+        Snapshot s = new Snapshot(2, cells, 10);
+        cells[0] = 9;
+        assertFalse(s.isPacked());
+        assertEquals(1, s.exponentAt(0));
+        byte[] out = new byte[4];
+        s.copyCells(out);
+        out[1] = 9;
+        assertEquals(2, s.exponentAt(1));
+    }
+
+    @Test
+    void packedSnapshotReadsNibbles() {
+        Snapshot s = new Snapshot(0x0000_0000_0000_3021L, 8);
+        assertTrue(s.isPacked());
+        assertEquals(1, s.exponentAt(0));
+        assertEquals(2, s.exponentAt(1));
+        assertEquals(0, s.exponentAt(2));
+        assertEquals(3, s.exponentAt(3));
+    }
+
+    @Test
+    void gameStateRestoresEverything() {
+        Random random = new Random(5);
+        SplittableRandomSource source = new SplittableRandomSource(5);
+        for (int n = 0; n < 200; n++) {
+            GameState state = new GameState(TestBoards.randomBoard(random, 10, 0.3), random.nextInt(10000));
+            Snapshot before = state.snapshot();
+            int legal = state.legalMoves();
+            int empty = state.emptyCount();
+            boolean terminal = state.isTerminal();
+            for (int k = 0; k < 5 && !state.isTerminal(); k++) {
+                for (Direction d : Direction.ALL) {
+                    if (state.move(d) != Rules.ILLEGAL) break;
+                }
+                state.spawn(source);
+            }
+            state.restore(before);
+            assertEquals(before.board, state.board());
+            assertEquals(before.score, state.score());
+            assertEquals(legal, state.legalMoves());
+            assertEquals(empty, state.emptyCount());
+            assertEquals(terminal, state.isTerminal());
+        }
+    }
+
+    @Test
+    void gridStateRestoresEverything() {
+        Random random = new Random(6);
+        SplittableRandomSource source = new SplittableRandomSource(6);
+        for (int side = 2; side <= 7; side++) {
+            for (int n = 0; n < 50; n++) {
+                GridState state = new GridState(side);
+                state.restore(new Snapshot(side, TestBoards.randomCells(random, side, 12, 0.3), n));
+                Snapshot before = state.snapshot();
+                int legal = state.legalMoves();
+                int empty = state.emptyCount();
+                int max = state.maxExponent();
+                for (int k = 0; k < 5 && !state.isTerminal(); k++) {
+                    for (Direction d : Direction.ALL) {
+                        if (state.move(d) != Rules.ILLEGAL) break;
+                    }
+                    state.spawn(source);
+                }
+                state.restore(before);
+                for (int i = 0; i < side * side; i++) assertEquals(before.exponentAt(i), state.exponentAt(i));
+                assertEquals(before.score, state.score());
+                assertEquals(legal, state.legalMoves());
+                assertEquals(empty, state.emptyCount());
+                assertEquals(max, state.maxExponent());
+            }
+        }
+    }
+
+    @Test
+    void restoreRejectsWrongLayout() {
+        assertThrows(IllegalArgumentException.class, () -> new GameState().restore(new Snapshot(4, new byte[16], 0)));
+        assertThrows(IllegalArgumentException.class, () -> new GridState(4).restore(new Snapshot(0L, 0)));
+        assertThrows(IllegalArgumentException.class, () -> new GridState(5).restore(new Snapshot(4, new byte[16], 0)));
+    }
+}
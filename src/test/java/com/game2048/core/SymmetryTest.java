@@ -0,0 +1,94 @@
+package com.game2048.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SymmetryTest {
+
+    @Test
+    void inverseUndoesEverySymmetry() {
+        Random random = new Random(1);
+        for (int n = 0; n < 2000; n++) {
+            long board = random.nextLong();
+            for (int s = 0; s < Symmetry.COUNT; s++) {
+                assertEquals(board, Symmetry.apply(Symmetry.apply(board, s), Symmetry.inverse(s)), "s=" + s);
+                assertEquals(board, Symmetry.apply(Symmetry.apply(board, Symmetry.inverse(s)), s), "s=" + s);
+                for (Direction d : Direction.ALL) {
+                    assertEquals(d, Symmetry.apply(Symmetry.apply(d, s), Symmetry.inverse(s)));
+                }
+            }
+        }
+    }
+
+    // 8 个编号是 8 个不同的变换，而且都是格子的置换
+    @Test
+    void eightDistinctPermutations() {
+        long board = 0;
+        for (int i = 0; i < 16; i++) board = BitBoard.withExponent(board, i, i);
+        Set<Long> images = new HashSet<>();
+        for (int s = 0; s < Symmetry.COUNT; s++) {
+            long image = Symmetry.apply(board, s);
+            images.add(image);
+            Set<Integer> seen = new HashSet<>();
+            for (int i = 0; i < 16; i++) seen.add(BitBoard.exponentAt(image, i));
+            assertEquals(16, seen.size());
+        }
+        assertEquals(Symmetry.COUNT, images.size());
+    }
+
+    @Test
+    void moveCommutesWithSymmetry() {
+        Random random = new Random(2);
+        for (int n = 0; n < 5000; n++) {
+            long board = TestBoards.randomBoard(random, 4, 0.35);
+            for (int s = 0; s < Symmetry.COUNT; s++) {
+                long image = Symmetry.apply(board, s);
+                for (Direction d : Direction.ALL) {
+                    Direction m = Symmetry.apply(d, s);
+                    assertEquals(Symmetry.apply(Rules.move(board, d), s), Rules.move(image, m), "s=" + s + " " + d);
+                    assertEquals(Rules.scoreOf(board, d), Rules.scoreOf(image, m));
+                }
+            }
+        }
+    }
+
+    @Test
+    void canonicalIsSharedByTheWholeOrbit() {
+        Random random = new Random(3);
+        for (int n = 0; n < 2000; n++) {
+            long board = TestBoards.randomBoard(random, 6, 0.4);
+            long canonical = Symmetry.canonical(board);
+            long min = board;
+            for (int s = 0; s < Symmetry.COUNT; s++) {
+                long image = Symmetry.apply(board, s);
+                assertEquals(canonical, Symmetry.canonical(image));
+                if (Long.compareUnsigned(image, min) < 0) min = image;
+            }
+            assertEquals(min, canonical);
+            assertEquals(canonical, Symmetry.apply(board, Symmetry.canonicalSymmetry(board)));
+        }
+    }
+
+    @Test
+    void flipsMatchCoordinates() {
+        Random random = new Random(4);
+        for (int n = 0; n < 500; n++) {
+            long board = random.nextLong();
+            long columns = Symmetry.flipColumns(board);
+            long rows = Symmetry.flipRows(board);
+            for (int r = 0; r < 4; r++) {
+                for (int c = 0; c < 4; c++) {
+                    int e = BitBoard.exponentAt(board, 4 * r + c);
+                    assertEquals(e, BitBoard.exponentAt(columns, 4 * r + 3 - c));
+                    assertEquals(e, BitBoard.exponentAt(rows, 4 * (3 - r) + c));
+                }
+            }
+        }
+        assertEquals(0x1L, Symmetry.apply(0x1L, Symmetry.IDENTITY));
+    }
+}
@@ -0,0 +1,28 @@
+package com.game2048.core;
+
+import java.util.Random;
+
+// 测试用的随机局面：每格按概率留空，否则随机取 1..maxExponent
+public final class TestBoards {
+
+    private TestBoards() {
+    }
+
+    public static long randomBoard(Random random, int maxExponent, double emptyProbability) {
+        long board = 0;
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            if (random.nextDouble() < emptyProbability) continue;
+            board = BitBoard.withExponent(board, i, 1 + random.nextInt(maxExponent));
+        }
+        return board;
+    }
+
+    public static byte[] randomCells(Random random, int side, int maxExponent, double emptyProbability) {
+        byte[] cells = new byte[side * side];
+        for (int i = 0; i < cells.length; i++) {
+            if (random.nextDouble() < emptyProbability) continue;
+            cells[i] = (byte) (1 + random.nextInt(maxExponent));
+        }
+        return cells;
+    }
+}
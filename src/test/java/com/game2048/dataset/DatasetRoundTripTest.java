@@ -0,0 +1,129 @@
+package com.game2048.dataset;
+
+import com.game2048.core.Direction;
+import com.game2048.core.Rules;
+import com.game2048.core.Symmetry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatasetRoundTripTest {
+    // 跨过一个完整块，最后一块不满
+    private static final int ROWS = DatasetFormat.BLOCK_ROWS + 1234;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rowsReadBackInEveryAccessPath() throws IOException {
+        Path file = dir.resolve("rows.dataset");
+        long[] boards = new long[ROWS];
+        Direction[] directions = new Direction[ROWS];
+        int[] deltas = new int[ROWS];
+        boolean[] terminal = new boolean[ROWS];
+        Random random = new Random(1);
+        try (DatasetWriter writer = new DatasetWriter(file)) {
+            for (int i = 0; i < ROWS; i++) {
+                boards[i] = random.nextLong();
+                directions[i] = Direction.of(random.nextInt(4));
+                deltas[i] = random.nextInt(1 << 17);
+                terminal[i] = random.nextInt(50) == 0;
+                writer.append(boards[i], directions[i], deltas[i], terminal[i]);
+            }
+            assertEquals(ROWS, writer.rows());
+        }
+
+        try (DatasetReader reader = new DatasetReader(file)) {
+            assertEquals(ROWS, reader.rows());
+            assertFalse(reader.isCanonical());
+            for (int i = 0; i < ROWS; i++) {
+                assertEquals(boards[i], reader.board(i));
+                assertEquals(directions[i], reader.direction(i));
+                assertEquals(deltas[i], reader.scoreDelta(i));
+                assertEquals(terminal[i], reader.isTerminal(i));
+            }
+
+            DatasetReader.Cursor cursor = reader.cursor();
+            int n = 0;
+            while (cursor.next()) {
+                assertEquals(n, cursor.row());
+                assertEquals(boards[n], cursor.board());
+                assertEquals(directions[n], cursor.direction());
+                assertEquals(deltas[n], cursor.scoreDelta());
+                assertEquals(terminal[n], cursor.isTerminal());
+                n++;
+            }
+            assertEquals(ROWS, n);
+
+            long expected = 0;
+            for (long b : boards) expected ^= b * 31 + 7;
+            assertEquals(expected, reader.boards(true).map(b -> b * 31 + 7).reduce(0, (a, b) -> a ^ b));
+            assertEquals(ROWS, reader.rowIndices(true).count());
+            long[] ordered = reader.boards(false).toArray();
+            for (int i = 0; i < ROWS; i++) assertEquals(boards[i], ordered[i]);
+
+            assertThrows(IndexOutOfBoundsException.class, () -> reader.board(ROWS));
+            assertThrows(IndexOutOfBoundsException.class, () -> reader.board(-1));
+        }
+    }
+
+    // 代表元模式：存下来的是代表元，方向换过之后走出来的局面与原局面走原方向对称
+    @Test
+    void canonicalRowsStayConsistent() throws IOException {
+        Path file = dir.resolve("canonical.dataset");
+        int rows = 5000;
+        long[] boards = new long[rows];
+        Direction[] directions = new Direction[rows];
+        Random random = new Random(2);
+        try (DatasetWriter writer = new DatasetWriter(file, true)) {
+            for (int i = 0; i < rows; i++) {
+                long board = 0;
+                for (int c = 0; c < 16; c++) {
+                    if (random.nextInt(3) != 0) board |= (long) (1 + random.nextInt(5)) << (4 * c);
+                }
+                boards[i] = board;
+                directions[i] = Direction.of(random.nextInt(4));
+                writer.append(board, directions[i], 0, false);
+            }
+        }
+        try (DatasetReader reader = new DatasetReader(file)) {
+            assertTrue(reader.isCanonical());
+            for (int i = 0; i < rows; i++) {
+                int s = Symmetry.canonicalSymmetry(boards[i]);
+                long stored = reader.board(i);
+                assertEquals(Symmetry.canonical(boards[i]), stored);
+                assertEquals(Symmetry.apply(Rules.move(boards[i], directions[i]), s),
+                        Rules.move(stored, reader.direction(i)));
+            }
+        }
+    }
+
+    @Test
+    void emptyAndTruncatedFiles() throws IOException {
+        Path empty = dir.resolve("empty.dataset");
+        new DatasetWriter(empty).close();
+        try (DatasetReader reader = new DatasetReader(empty)) {
+            assertEquals(0, reader.rows());
+            assertFalse(reader.cursor().next());
+        }
+
+        Path cut = dir.resolve("cut.dataset");
+        try (DatasetWriter writer = new DatasetWriter(cut)) {
+            for (int i = 0; i < 10; i++) writer.append(i, Direction.LEFT, i, false);
+        }
+        try (FileChannel ch = FileChannel.open(cut, StandardOpenOption.WRITE)) {
+            ch.truncate(DatasetFormat.HEADER_BYTES + 100);
+        }
+        assertThrows(IOException.class, () -> new DatasetReader(cut));
+    }
+}
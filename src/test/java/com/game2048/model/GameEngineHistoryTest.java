@@ -0,0 +1,70 @@
+package com.game2048.model;
+
+import com.game2048.core.Direction;
+import com.game2048.core.Snapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 撤销到底再重做到头，每一步都要回到当时的逻辑局面和方块视图
+class GameEngineHistoryTest {
+
+    @Test
+    void undoAndRedoRetraceEveryMove() {
+        for (int side : new int[]{4, 5}) {
+            GameEngine engine = new GameEngine(side, 2048, 11L);
+            engine.setAnimated(false);
+            Random random = new Random(side);
+            List<String> states = new ArrayList<>();
+            states.add(describe(engine));
+            while (states.size() < 60 && engine.canUserMove()) {
+                if (engine.move(Direction.of(random.nextInt(4)))) states.add(describe(engine));
+            }
+
+            for (int i = states.size() - 2; i >= 0; i--) {
+                assertTrue(engine.undo());
+                assertEquals(states.get(i), describe(engine));
+            }
+            assertFalse(engine.canUndo());
+            for (int i = 1; i < states.size(); i++) {
+                assertTrue(engine.redo());
+                assertEquals(states.get(i), describe(engine));
+            }
+            assertFalse(engine.canRedo());
+        }
+    }
+
+    @Test
+    void newMoveClearsRedo() {
+        GameEngine engine = new GameEngine(4, 2048, 3L);
+        engine.setAnimated(false);
+        Random random = new Random(3);
+        while (!engine.move(Direction.of(random.nextInt(4)))) {
+        }
+        engine.undo();
+        assertTrue(engine.canRedo());
+        while (!engine.move(Direction.of(random.nextInt(4)))) {
+        }
+        assertFalse(engine.canRedo());
+    }
+
+    // 逻辑局面、分数，以及方块视图按格子排好的数值
+    private static String describe(GameEngine engine) {
+        Snapshot s = engine.snapshot();
+        int n = engine.getSide() * engine.getSide();
+        int[] logical = new int[n];
+        int[] shown = new int[n];
+        for (int i = 0; i < n; i++) logical[i] = s.exponentAt(i);
+        for (Tile t : engine.tiles) {
+            shown[t.getRow() * engine.getSide() + t.getCol()] = Integer.numberOfTrailingZeros(t.getValue());
+        }
+        assertEquals(java.util.Arrays.toString(logical), java.util.Arrays.toString(shown));
+        return java.util.Arrays.toString(logical) + " " + s.score;
+    }
+}
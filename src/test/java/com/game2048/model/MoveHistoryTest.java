@@ -0,0 +1,36 @@
+package com.game2048.model;
+
+import com.game2048.core.Snapshot;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoveHistoryTest {
+
+    @Test
+    void popsInReverseOrderAndDropsOldestWhenFull() {
+        MoveHistory history = new MoveHistory(3);
+        for (int i = 1; i <= 5; i++) history.push(new Snapshot(i, i * 10));
+        assertEquals(3, history.size());
+        for (int i = 5; i >= 3; i--) {
+            Snapshot s = history.pop();
+            assertEquals(i, s.board);
+            assertEquals(i * 10, s.score);
+        }
+        assertTrue(history.isEmpty());
+        assertNull(history.pop());
+    }
+
+    @Test
+    void keepsGridSnapshotsAsIs() {
+        MoveHistory history = new MoveHistory(4);
+        Snapshot grid = new Snapshot(5, new byte[25], 7);
+        history.push(new Snapshot(0x21L, 4));
+        history.push(grid);
+        assertSame(grid, history.pop());
+        assertEquals(0x21L, history.pop().board);
+    }
+}
@@ -0,0 +1,83 @@
+package com.game2048.persist;
+
+import com.game2048.core.Snapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PersistentStoreTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopenRestoresStatsAndSavedGame() throws IOException {
+        try (PersistentStore store = new PersistentStore(dir)) {
+            store.recordGame("a", 100, 64, 50, false);
+            store.recordGame("a", 3000, 2048, 900, true);
+            store.recordGame("b", 500, 128, 200, false);
+            store.saveGame(new Snapshot(5, new byte[25], 42));
+        }
+        try (PersistentStore store = new PersistentStore(dir)) {
+            assertEquals(3000, store.bestScore());
+            PlayerStats a = store.stats("a");
+            assertEquals(2, a.games);
+            assertEquals(1, a.wins);
+            assertEquals(3100, a.totalScore);
+            assertEquals(2048, a.bestTile);
+            assertEquals(1, store.stats("b").games);
+            Snapshot saved = store.savedGame();
+            assertEquals(5, saved.side);
+            assertEquals(42, saved.score);
+
+            store.clearGame();
+        }
+        try (PersistentStore store = new PersistentStore(dir)) {
+            assertNull(store.savedGame());
+            assertEquals(2, store.stats("a").games);
+        }
+    }
+
+    // 模拟崩溃：压缩之后日志里又追加了一条完整记录和半条记录
+    @Test
+    void journalTailIsReplayedAndTruncated() throws IOException {
+        try (PersistentStore store = new PersistentStore(dir)) {
+            store.recordGame("a", 100, 64, 50, false);
+        }
+        Record finished = new Record(1000, Record.GAME_FINISHED);
+        finished.player = "a";
+        finished.score = 700;
+        finished.maxTile = 256;
+        finished.moves = 300;
+        Record saved = new Record(1001, Record.GAME_SAVED);
+        saved.game = new Snapshot(0x12L, 9);
+        byte[] half = saved.encode();
+
+        Path journal = dir.resolve("journal");
+        long valid;
+        try (FileChannel ch = FileChannel.open(journal, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.wrap(finished.encode()));
+            valid = ch.size();
+            ch.write(ByteBuffer.wrap(half, 0, half.length - 3));
+        }
+
+        try (PersistentStore store = new PersistentStore(dir)) {
+            assertEquals(valid, Files.size(journal));
+            assertEquals(2, store.stats("a").games);
+            assertEquals(700, store.bestScore());
+            assertNull(store.savedGame());
+        }
+        try (PersistentStore store = new PersistentStore(dir)) {
+            assertEquals(2, store.stats("a").games);
+            assertEquals(0, store.stats("a").wins);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.game2048.persist;
+
+import com.game2048.core.Snapshot;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordTest {
+
+    @Test
+    void finishedGameRoundTrips() {
+        Record r = new Record(42, Record.GAME_FINISHED);
+        r.player = "玩家一";
+        r.score = 12345;
+        r.maxTile = 2048;
+        r.moves = 987;
+        r.won = true;
+        Record back = decodeAll(r.encode());
+        assertEquals(42, back.seq);
+        assertEquals(Record.GAME_FINISHED, back.type);
+        assertEquals("玩家一", back.player);
+        assertEquals(12345, back.score);
+        assertEquals(2048, back.maxTile);
+        assertEquals(987, back.moves);
+        assertTrue(back.won);
+    }
+
+    @Test
+    void statsAndClearRoundTrip() {
+        Record r = new Record(7, Record.PLAYER_STATS);
+        r.player = "p";
+        r.stats = new PlayerStats();
+        r.stats.games = 10;
+        r.stats.wins = 2;
+        r.stats.totalScore = 1L << 40;
+        r.stats.moves = 5000;
+        r.stats.bestScore = 60000;
+        r.stats.bestTile = 4096;
+        Record back = decodeAll(r.encode());
+        assertEquals("p", back.player);
+        assertEquals(10, back.stats.games);
+        assertEquals(2, back.stats.wins);
+        assertEquals(1L << 40, back.stats.totalScore);
+        assertEquals(5000, back.stats.moves);
+        assertEquals(60000, back.stats.bestScore);
+        assertEquals(4096, back.stats.bestTile);
+
+        Record cleared = decodeAll(new Record(8, Record.GAME_CLEARED).encode());
+        assertEquals(Record.GAME_CLEARED, cleared.type);
+        assertEquals(8, cleared.seq);
+    }
+
+    // 压缩存储和按格存储的 4x4 都要按原样读回，不能靠边长猜
+    @Test
+    void savedGameKeepsLayout() {
+        Snapshot packed = new Snapshot(0x0123_4567_89AB_CDEFL, 999);
+        Snapshot back = saveAndLoad(packed);
+        assertTrue(back.isPacked());
+        assertEquals(packed.board, back.board);
+        assertEquals(999, back.score);
+
+        byte[] cells = new byte[16];
+        for (int i = 0; i < cells.length; i++) cells[i] = (byte) (i + 3);
+        Snapshot grid = saveAndLoad(new Snapshot(4, cells, 5));
+        assertFalse(grid.isPacked());
+        assertEquals(4, grid.side);
+        for (int i = 0; i < cells.length; i++) assertEquals(cells[i], grid.exponentAt(i));
+
+        Snapshot five = saveAndLoad(new Snapshot(5, new byte[25], 1));
+        assertFalse(five.isPacked());
+        assertEquals(5, five.side);
+    }
+
+    // 旧版本的尺寸字节没有布局标记：4 按压缩读，其它按格读
+    @Test
+    void legacySavedGameDecodes() {
+        ByteBuffer packed = ByteBuffer.allocate(22);
+        packed.putLong(3).put(Record.GAME_SAVED).put((byte) 4).putInt(77).putLong(0x21L);
+        Record r = decodeAll(frame(packed.array()));
+        assertTrue(r.game.isPacked());
+        assertEquals(0x21L, r.game.board);
+        assertEquals(77, r.game.score);
+
+        ByteBuffer grid = ByteBuffer.allocate(14 + 9);
+        grid.putLong(4).put(Record.GAME_SAVED).put((byte) 3).putInt(8);
+        for (int i = 0; i < 9; i++) grid.put((byte) i);
+        r = decodeAll(frame(grid.array()));
+        assertFalse(r.game.isPacked());
+        assertEquals(3, r.game.side);
+        assertEquals(8, r.game.exponentAt(8));
+    }
+
+    @Test
+    void damagedFramesAreRejected() {
+        Record r = new Record(1, Record.GAME_FINISHED);
+        r.player = "p";
+        byte[] frame = r.encode();
+
+        // 每一种截断都不完整
+        for (int n = 0; n < frame.length; n++) {
+            ByteBuffer buf = ByteBuffer.wrap(Arrays.copyOf(frame, n));
+            assertNull(Record.decode(buf));
+            assertEquals(0, buf.position());
+        }
+        // 载荷里任意一个字节被改都过不了校验
+        for (int i = Record.FRAME_HEADER; i < frame.length; i++) {
+            byte[] bad = frame.clone();
+            bad[i] ^= 0x10;
+            assertNull(Record.decode(ByteBuffer.wrap(bad)));
+        }
+        // 校验通过但类型未知
+        ByteBuffer unknown = ByteBuffer.allocate(9);
+        unknown.putLong(1).put((byte) 99);
+        assertNull(Record.decode(ByteBuffer.wrap(frame(unknown.array()))));
+    }
+
+    @Test
+    void framesDecodeBackToBack() {
+        Record a = new Record(1, Record.GAME_CLEARED);
+        Record b = new Record(2, Record.GAME_SAVED);
+        b.game = new Snapshot(0x1L, 4);
+        byte[] fa = a.encode();
+        byte[] fb = b.encode();
+        ByteBuffer buf = ByteBuffer.allocate(fa.length + fb.length + 3);
+        buf.put(fa).put(fb).put(new byte[]{0, 0, 1}).flip();
+        assertEquals(1, Record.decode(buf).seq);
+        assertEquals(2, Record.decode(buf).seq);
+        int tail = buf.position();
+        assertNull(Record.decode(buf));
+        assertEquals(tail, buf.position());
+    }
+
+    private static Snapshot saveAndLoad(Snapshot game) {
+        Record r = new Record(1, Record.GAME_SAVED);
+        r.game = game;
+        return decodeAll(r.encode()).game;
+    }
+
+    private static Record decodeAll(byte[] frame) {
+        ByteBuffer buf = ByteBuffer.wrap(frame);
+        Record r = Record.decode(buf);
+        assertEquals(frame.length, buf.position());
+        return r;
+    }
+
+    // 给手写的载荷加上长度和 CRC
+    private static byte[] frame(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        ByteBuffer frame = ByteBuffer.allocate(Record.FRAME_HEADER + payload.length);
+        frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        return frame.array();
+    }
+}
@@ -0,0 +1,83 @@
+package com.game2048.persist;
+
+import com.game2048.core.Direction;
+import com.game2048.core.GameState;
+import com.game2048.model.GameEngine;
+import com.game2048.replay.ReplayReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 退出钩子在别的线程关闭录制时，引擎线程可能正在写回合：文件要完整可读，关闭之后不再录
+class ReplayRecorderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void closeFromAnotherThreadWhileMoving() throws Exception {
+        for (long seed = 1; seed <= 5; seed++) {
+            Path file = dir.resolve("game" + seed + ".bin");
+            GameEngine engine = new GameEngine(4, 2048, seed);
+            engine.setAnimated(false);
+            ReplayRecorder recorder = new ReplayRecorder(engine, file);
+            engine.addListener(recorder);
+            recorder.start();
+
+            List<Long> boards = Collections.synchronizedList(new ArrayList<>());
+            boards.add(engine.getBoard());
+            AtomicInteger moves = new AtomicInteger();
+            Random random = new Random(seed);
+            Thread player = new Thread(() -> {
+                while (engine.canUserMove() && moves.get() < 5000) {
+                    if (engine.move(Direction.of(random.nextInt(4)))) {
+                        boards.add(engine.getBoard());
+                        moves.incrementAndGet();
+                    }
+                }
+            });
+            player.start();
+            while (moves.get() < 10 && player.isAlive()) Thread.yield();
+            recorder.close();
+            player.join();
+
+            try (ReplayReader reader = new ReplayReader(file)) {
+                assertEquals(seed, reader.seed());
+                long turns = reader.turns();
+                assertTrue(turns >= 10 && turns <= moves.get(), turns + " / " + moves.get());
+                GameState state = new GameState();
+                for (int t = 0; t <= turns; t++) {
+                    reader.stateAt(t, state);
+                    assertEquals((long) boards.get(t), state.board(), "turn " + t);
+                }
+            }
+        }
+    }
+
+    @Test
+    void noNewRecordingAfterClose() throws IOException {
+        Path file = dir.resolve("game.bin");
+        GameEngine engine = new GameEngine(4, 2048, 7L);
+        engine.setAnimated(false);
+        ReplayRecorder recorder = new ReplayRecorder(engine, file);
+        engine.addListener(recorder);
+        recorder.start();
+        engine.createGame();
+        assertTrue(Files.exists(dir.resolve("game-2.bin")));
+        recorder.close();
+        engine.createGame();
+        assertFalse(Files.exists(dir.resolve("game-3.bin")));
+        recorder.close();
+    }
+}
@@ -0,0 +1,99 @@
+package com.game2048.replay;
+
+import com.game2048.core.Direction;
+import com.game2048.core.GameState;
+import com.game2048.core.Rules;
+import com.game2048.core.SplittableRandomSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// 写一局随机游戏再读回来：每个回合开始前的局面、方向和终局都要与写入时一致
+class ReplayRoundTripTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void everyTurnReadsBack() throws IOException {
+        int[] blockTurns = {1, 3, 7, 64, ReplayFormat.DEFAULT_BLOCK_TURNS};
+        for (int i = 0; i < blockTurns.length; i++) {
+            roundTrip(dir.resolve("game" + i + ".replay"), 100L + i, blockTurns[i], Integer.MAX_VALUE);
+        }
+    }
+
+    // 回合数正好是块长的整数倍，最后一块在 close 之前已经写出
+    @Test
+    void turnsFillingWholeBlocks() throws IOException {
+        roundTrip(dir.resolve("whole.replay"), 7L, 5, 20);
+    }
+
+    @Test
+    void gameWithoutTurnsKeepsStartingBoard() throws IOException {
+        Path file = dir.resolve("empty.replay");
+        List<GameState> states = roundTrip(file, 9L, 8, 0);
+        assertEquals(1, states.size());
+        try (ReplayReader reader = new ReplayReader(file)) {
+            assertEquals(0, reader.turns());
+            assertThrows(IndexOutOfBoundsException.class, () -> reader.stateAt(1, new GameState()));
+        }
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = dir.resolve("junk.replay");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+        assertThrows(IOException.class, () -> new ReplayReader(file));
+    }
+
+    private static List<GameState> roundTrip(Path file, long seed, int blockTurns, int maxTurns) throws IOException {
+        SplittableRandomSource source = new SplittableRandomSource(seed);
+        Random policy = new Random(seed);
+        GameState state = new GameState();
+        state.spawn(source);
+        state.spawn(source);
+        List<GameState> states = new ArrayList<>();
+        List<Direction> moves = new ArrayList<>();
+        states.add(new GameState(state.board(), state.score()));
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try (ReplayWriter writer = new ReplayWriter(channel, seed, blockTurns)) {
+            writer.begin(state.board(), state.score());
+            while (moves.size() < maxTurns && !state.isTerminal()) {
+                Direction d = Direction.of(policy.nextInt(4));
+                if (state.move(d) == Rules.ILLEGAL) continue;
+                int index = state.spawn(source);
+                writer.turn(d, index, state.exponentAt(index));
+                moves.add(d);
+                states.add(new GameState(state.board(), state.score()));
+            }
+            assertEquals(moves.size(), writer.turns());
+        }
+
+        try (ReplayReader reader = new ReplayReader(file)) {
+            assertEquals(seed, reader.seed());
+            assertEquals(moves.size(), reader.turns());
+            GameState out = new GameState();
+            for (int t = 0; t < states.size(); t++) {
+                reader.stateAt(t, out);
+                assertEquals(states.get(t).board(), out.board(), "turn " + t);
+                assertEquals(states.get(t).score(), out.score(), "turn " + t);
+            }
+            for (int t = 0; t < moves.size(); t++) assertEquals(moves.get(t), reader.direction(t));
+            reader.replayAll(out);
+            assertEquals(state.board(), out.board());
+            assertEquals(state.score(), out.score());
+        }
+        return states;
+    }
+}
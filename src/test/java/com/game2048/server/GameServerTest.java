@@ -0,0 +1,200 @@
+package com.game2048.server;
+
+import com.game2048.core.BitBoard;
+import com.game2048.core.Direction;
+import com.game2048.core.Rules;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 在本机端口 0 上起服务，用阻塞 socket 按行收发
+class GameServerTest {
+    private static final String[] LETTERS = {"L", "R", "U", "D"};
+
+    private GameServer server;
+
+    @AfterEach
+    void stop() throws IOException {
+        if (server != null) server.close();
+    }
+
+    // 每步的应答与规则层一致：棋盘 = 移动结果再多一个 2 或 4，分数加上合并得分
+    @Test
+    void newMoveStateQuitRoundTrip() throws IOException {
+        start(2, 100, 60_000);
+        try (Client client = new Client()) {
+            String[] created = client.call("NEW").split(" ");
+            assertEquals("OK", created[0]);
+            String id = created[1];
+            long board = Long.parseUnsignedLong(created[2], 16);
+            int score = Integer.parseInt(created[3], 16);
+            assertEquals(14, BitBoard.countEmpty(board));
+            assertEquals(0, score);
+            assertEquals(1, server.sessionCount());
+
+            Random random = new Random(1);
+            boolean over = false;
+            for (int n = 0; n < 2000 && !over; n++) {
+                int d = random.nextInt(4);
+                String[] reply = client.call("MOVE " + id + " " + LETTERS[d]).split(" ");
+                long moved = Rules.move(board, Direction.of(d));
+                if (moved == board) {
+                    assertEquals("ILLEGAL", reply[0]);
+                    continue;
+                }
+                long next = Long.parseUnsignedLong(reply[1], 16);
+                assertSpawnedOnce(moved, next);
+                score += Rules.scoreOf(board, Direction.of(d));
+                assertEquals(score, Integer.parseInt(reply[2], 16));
+                over = reply[0].equals("OVER");
+                assertEquals(over, Rules.isTerminal(next));
+                if (!over) assertEquals("OK", reply[0]);
+                board = next;
+            }
+
+            // 另一条连接看到同一个会话
+            try (Client other = new Client()) {
+                assertEquals(String.format("OK %016x %x", board, score), other.call("STATE " + id));
+            }
+            assertEquals("BYE", client.call("QUIT " + id));
+            assertEquals(0, server.sessionCount());
+            // 连接里缓存的会话随 QUIT 失效
+            assertEquals("ERR unknown session", client.call("MOVE " + id + " L"));
+            assertEquals("ERR unknown session", client.call("STATE " + id));
+        }
+    }
+
+    // 同一连接交替操作两个会话，缓存来回切换；另一条连接退出其中一个后缓存也要失效
+    @Test
+    void cachedSessionsFollowTheSharedTable() throws IOException {
+        start(1, 100, 60_000);
+        try (Client a = new Client(); Client b = new Client()) {
+            String first = a.call("NEW").split(" ")[1];
+            String second = a.call("NEW").split(" ")[1];
+            assertNotEquals(first, second);
+            for (int n = 0; n < 20; n++) {
+                String id = n % 2 == 0 ? first : second;
+                String reply = a.call("MOVE " + id + " " + LETTERS[n % 4]);
+                assertTrue(reply.startsWith("OK ") || reply.equals("ILLEGAL") || reply.startsWith("OVER "), reply);
+                String state = a.call("STATE " + id);
+                assertEquals(state, b.call("STATE " + id));
+            }
+            // a 的连接此时缓存着 first
+            assertTrue(a.call("STATE " + first).startsWith("OK "));
+            assertEquals("BYE", b.call("QUIT " + first));
+            assertEquals("ERR unknown session", a.call("MOVE " + first + " L"));
+            assertTrue(a.call("STATE " + second).startsWith("OK "));
+        }
+    }
+
+    // 格式错误的命令只回一行 ERR，连接保持可用
+    @Test
+    void badCommandsKeepTheConnection() throws IOException {
+        start(1, 1, 60_000);
+        try (Client client = new Client()) {
+            assertEquals("ERR unknown command", client.call("HELLO"));
+            assertEquals("ERR unknown command", client.call(""));
+            assertEquals("ERR usage: MOVE <id> L|R|U|D", client.call("MOVE"));
+            assertEquals("ERR usage: MOVE <id> L|R|U|D", client.call("MOVE xyz L"));
+            assertEquals("ERR usage: MOVE <id> L|R|U|D", client.call("MOVE 1 X"));
+            assertEquals("ERR usage: MOVE <id> L|R|U|D", client.call("MOVE 1 LL"));
+            assertEquals("ERR unknown session", client.call("MOVE 1 L"));
+            assertEquals("ERR unknown session", client.call("STATE"));
+            assertEquals("PONG", client.call("PING\r"));
+            assertTrue(client.call("NEW").startsWith("OK "));
+            assertEquals("ERR server full", client.call("NEW"));
+            assertEquals("PONG", client.call("PING"));
+        }
+    }
+
+    // 一次写入多条命令，应答按顺序逐行返回
+    @Test
+    void pipelinedCommands() throws IOException {
+        start(1, 10, 60_000);
+        try (Client client = new Client()) {
+            StringBuilder batch = new StringBuilder();
+            for (int i = 0; i < 500; i++) batch.append("PING\n");
+            client.send(batch.toString());
+            for (int i = 0; i < 500; i++) assertEquals("PONG", client.reader.readLine());
+        }
+    }
+
+    @Test
+    void idleSessionsAreEvicted() throws Exception {
+        start(1, 10, 200);
+        try (Client client = new Client()) {
+            String id = client.call("NEW").split(" ")[1];
+            String kept = client.call("NEW").split(" ")[1];
+            long deadline = System.currentTimeMillis() + 10_000;
+            // kept 一直有操作，不会被淘汰
+            while (server.sessionCount() > 1) {
+                assertTrue(System.currentTimeMillis() < deadline, "idle session was not evicted");
+                assertTrue(client.call("STATE " + kept).startsWith("OK "));
+                Thread.sleep(20);
+            }
+            assertEquals("ERR unknown session", client.call("MOVE " + id + " L"));
+            assertTrue(client.call("STATE " + kept).startsWith("OK "));
+        }
+    }
+
+    private void start(int loops, int maxSessions, long idleMillis) throws IOException {
+        server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), loops, maxSessions, idleMillis);
+        server.start();
+    }
+
+    private static void assertSpawnedOnce(long moved, long next) {
+        int spawned = 0;
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            int before = BitBoard.exponentAt(moved, i);
+            int after = BitBoard.exponentAt(next, i);
+            if (before == after) continue;
+            assertEquals(0, before);
+            assertTrue(after == 1 || after == 2);
+            spawned++;
+        }
+        assertEquals(1, spawned);
+    }
+
+    private final class Client implements AutoCloseable {
+        final Socket socket;
+        final BufferedReader reader;
+        final OutputStream out;
+
+        Client() throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), server.port());
+            socket.setSoTimeout(10_000);
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out = socket.getOutputStream();
+        }
+
+        void send(String text) throws IOException {
+            out.write(text.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        String call(String line) throws IOException {
+            send(line + "\n");
+            String reply = reader.readLine();
+            if (reply == null) throw new IOException("connection closed");
+            return reply;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.game2048.spectate;
+
+import com.game2048.core.Snapshot;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 本机上的广播服务和观众：一个观众不读数据，积压超限后被清空队列、跳过增量，
+// 之后从下一个关键帧重新同步；另一个一直在读的观众最终也停在同一个局面
+class BroadcastServerTest {
+    private static final long TIMEOUT_MS = 20_000;
+
+    @Test
+    void stalledSubscriberRecoversAtNextKeyframe() throws Exception {
+        try (BroadcastServer server = new BroadcastServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            server.start();
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.port());
+            long seq = 1;
+            byte[] cells = new byte[16];
+            server.publish(keyframe(seq, 0, cells));
+
+            try (SpectatorClient fast = new SpectatorClient(address);
+                 SpectatorClient stalled = new SpectatorClient(address)) {
+                awaitTrue(() -> server.subscriberCount() == 2);
+                // 新观众先收到最近的关键帧
+                assertEquals(4, fast.awaitKeyframe().side);
+                assertEquals(4, stalled.awaitKeyframe().side);
+                assertEquals(2048, stalled.targetTile());
+
+                AtomicReference<Snapshot> fastState = new AtomicReference<>();
+                fast.start((batch, after) -> fastState.set(after));
+
+                // stalled 不再读，一直发增量直到服务端开始替它丢帧
+                int score = 0;
+                while (server.droppedFrames() == 0) {
+                    for (int i = 0; i < 100; i++) server.publish(delta(++seq, ++score, 0, 1));
+                    Thread.sleep(1);
+                    assertTrue(seq < 1_000_000, "subscriber never fell behind");
+                }
+                // 落后期间的增量对 stalled 都被丢掉
+                long droppedBefore = server.droppedFrames();
+                server.publish(delta(++seq, ++score, 0, 1));
+                awaitTrue(() -> server.droppedFrames() > droppedBefore);
+
+                cells[5] = 3;
+                server.publish(keyframe(++seq, 5000, cells));
+                server.publish(delta(++seq, 5004, 7, 2));
+                long last = seq;
+
+                AtomicReference<Snapshot> stalledState = new AtomicReference<>();
+                stalled.start((batch, after) -> {
+                    if (batch.sequence() == last) stalledState.set(after);
+                });
+                awaitTrue(() -> stalledState.get() != null);
+                awaitTrue(() -> fastState.get() != null && fastState.get().score == 5004);
+
+                for (Snapshot s : new Snapshot[]{stalledState.get(), fastState.get()}) {
+                    assertTrue(s.isPacked());
+                    assertEquals(5004, s.score);
+                    assertEquals(3, s.exponentAt(5));
+                    assertEquals(2, s.exponentAt(7));
+                    // 关键帧整盘替换，之前增量写的格子 0 被清掉
+                    assertEquals(0, s.exponentAt(0));
+                }
+                // 每个序号发了一帧；stalled 中间缺了一段
+                assertTrue(stalled.frames() < last, stalled.frames() + " of " + last);
+            }
+            awaitTrue(() -> server.subscriberCount() == 0);
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+    }
+
+    // 位压缩 4x4、目标 2048 的关键帧
+    private static ByteBuffer keyframe(long seq, int score, byte[] cells) {
+        ByteBuffer frame = begin(StreamFormat.KEYFRAME, seq, score, StreamFormat.FLAG_PACKED);
+        frame.put((byte) 4).put((byte) 11).put(cells);
+        return finish(frame);
+    }
+
+    // 最大长度的增量帧：MAX_OPS 次在 cell 上生成指数 exponent 的方块
+    private static ByteBuffer delta(long seq, int score, int cell, int exponent) {
+        ByteBuffer frame = begin(StreamFormat.DELTA, seq, score, 0);
+        frame.put(StreamFormat.NO_DIRECTION).put((byte) StreamFormat.MAX_OPS);
+        for (int i = 0; i < StreamFormat.MAX_OPS; i++) {
+            frame.put(StreamFormat.OP_SPAWNED).put((byte) 0).put((byte) cell).put((byte) exponent);
+        }
+        return finish(frame);
+    }
+
+    private static ByteBuffer begin(byte type, long seq, int score, int flags) {
+        ByteBuffer frame = ByteBuffer.allocate(StreamFormat.MAX_FRAME).order(ByteOrder.LITTLE_ENDIAN);
+        frame.putShort((short) 0).put(type).putLong(seq).putInt(score).put((byte) flags);
+        return frame;
+    }
+
+    private static ByteBuffer finish(ByteBuffer frame) {
+        frame.putShort(0, (short) (frame.position() - StreamFormat.LENGTH_BYTES));
+        frame.flip();
+        return frame;
+    }
+}
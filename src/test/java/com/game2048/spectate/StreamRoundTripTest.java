@@ -0,0 +1,194 @@
+package com.game2048.spectate;
+
+import com.game2048.core.Direction;
+import com.game2048.core.Snapshot;
+import com.game2048.event.EventBatch;
+import com.game2048.event.EventType;
+import com.game2048.model.GameEngine;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 编码器发出的每一帧交给解码器：镜像局面、目标方块和压缩形式都要与广播方一致，
+// 观众引擎按解码出的批次播放后也要与广播方逐步相同
+class StreamRoundTripTest {
+
+    @Test
+    void packedFourByFour() throws IOException {
+        Viewer v = play(new GameEngine(4, 2048, 1L), 300);
+        assertTrue(v.decoder.snapshot().isPacked());
+        assertEquals(2048, v.decoder.targetTile());
+    }
+
+    // 目标超过 32768 的 4x4 按格存储，关键帧不带 FLAG_PACKED
+    @Test
+    void unpackedFourByFour() throws IOException {
+        GameEngine engine = new GameEngine(4, 1 << 17, 2L);
+        byte[] cells = new byte[16];
+        cells[0] = 16;
+        cells[1] = 16;
+        cells[5] = 1;
+        engine.restore(new Snapshot(4, cells, 0));
+        Viewer v = play(engine, 200);
+        assertFalse(v.decoder.snapshot().isPacked());
+        assertEquals(1 << 17, v.decoder.targetTile());
+    }
+
+    @Test
+    void largerBoard() throws IOException {
+        play(new GameEngine(6, 2048, 3L), 300);
+    }
+
+    // 中间丢一帧增量：之后的增量都被忽略，直到下一个关键帧重新同步
+    @Test
+    void gapWaitsForNextKeyframe() throws IOException {
+        GameEngine engine = new GameEngine(4, 2048, 4L);
+        engine.setAnimated(false);
+        List<ByteBuffer> frames = new ArrayList<>();
+        StreamEncoder encoder = new StreamEncoder(engine, f -> frames.add(copy(f)), 8);
+        engine.addListener(encoder);
+        encoder.keyframe();
+        Random random = new Random(4);
+        while (frames.size() < 40 && engine.canUserMove()) engine.move(Direction.of(random.nextInt(4)));
+
+        StreamDecoder decoder = new StreamDecoder();
+        EventBatch batch = new EventBatch();
+        assertTrue(decode(decoder, frames.get(0), batch));
+        int gap = -1;
+        boolean resynced = false;
+        for (int i = 1; i < frames.size(); i++) {
+            ByteBuffer frame = frames.get(i);
+            boolean keyframe = StreamFormat.typeOf(frame) == StreamFormat.KEYFRAME;
+            if (gap < 0 && !keyframe && i > 2) {
+                gap = i; // 模拟这一帧在路上丢了
+                continue;
+            }
+            boolean applied = decode(decoder, frame, batch);
+            if (gap < 0) {
+                assertTrue(applied || keyframe);
+            } else if (!resynced) {
+                assertEquals(keyframe, applied, "frame " + i);
+                resynced = keyframe;
+            } else {
+                assertTrue(applied || keyframe, "frame " + i);
+            }
+        }
+        assertTrue(resynced);
+        assertSame(engine.snapshot(), decoder.snapshot());
+    }
+
+    // 一个批次的操作数超过 MAX_OPS 时改发关键帧；16x16 上一步移动最多 16*15+1 = 241 个操作，
+    // 这里直接构造一个超长的批次交给编码器
+    @Test
+    void tooManyOpsFallsBackToKeyframe() throws IOException {
+        int side = StreamFormat.MAX_SIDE;
+        GameEngine engine = new GameEngine(side, 2048, 5L);
+        engine.setAnimated(false);
+        List<ByteBuffer> frames = new ArrayList<>();
+        StreamEncoder encoder = new StreamEncoder(engine, f -> frames.add(copy(f)));
+        encoder.keyframe();
+
+        EventBatch big = new EventBatch();
+        big.begin(engine.getSequence() + 1, Direction.LEFT);
+        for (int i = 0; i <= StreamFormat.MAX_OPS; i++) big.tileMoved(i % (side * side), (i + 1) % (side * side), 2);
+        encoder.onBatch(big);
+        assertEquals(2, frames.size());
+        assertEquals(StreamFormat.KEYFRAME, StreamFormat.typeOf(frames.get(1)));
+
+        StreamDecoder decoder = new StreamDecoder();
+        EventBatch batch = new EventBatch();
+        for (ByteBuffer f : frames) assertTrue(decode(decoder, f, batch));
+        assertTrue(batch.contains(EventType.BOARD_RESET));
+        assertSame(engine.snapshot(), decoder.snapshot());
+
+        // 正好 MAX_OPS 个操作仍然是增量
+        EventBatch full = new EventBatch();
+        full.begin(engine.getSequence() + 2, Direction.LEFT);
+        for (int i = 0; i < StreamFormat.MAX_OPS; i++) full.tileSpawned(0, 2);
+        encoder.onBatch(full);
+        assertEquals(StreamFormat.DELTA, StreamFormat.typeOf(frames.get(2)));
+        assertTrue(decode(decoder, frames.get(2), batch));
+        assertEquals(StreamFormat.MAX_OPS, batch.count(EventType.TILE_SPAWNED));
+    }
+
+    private static Viewer play(GameEngine engine, int moves) throws IOException {
+        engine.setAnimated(false);
+        Viewer viewer = new Viewer();
+        StreamEncoder encoder = new StreamEncoder(engine, viewer::accept, 16);
+        engine.addListener(encoder);
+        encoder.keyframe();
+        viewer.check(engine);
+        Random random = new Random(moves);
+        for (int n = 0; n < moves && engine.canUserMove(); n++) {
+            if (!engine.move(Direction.of(random.nextInt(4)))) continue;
+            viewer.check(engine);
+            // 偶尔撤销一步，撤销发的是关键帧
+            if (n % 50 == 49 && engine.undo()) viewer.check(engine);
+        }
+        engine.createGame();
+        viewer.check(engine);
+        return viewer;
+    }
+
+    // 收帧、解码，并像 GamePanel 一样把批次放到一个观众引擎上播放
+    private static final class Viewer {
+        final StreamDecoder decoder = new StreamDecoder();
+        final EventBatch batch = new EventBatch();
+        GameEngine engine;
+
+        void accept(ByteBuffer frame) {
+            try {
+                if (!decode(decoder, frame, batch)) return;
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            Snapshot after = decoder.snapshot();
+            if (engine == null) {
+                engine = new GameEngine(decoder.side(), decoder.targetTile(), 0L);
+                engine.setAnimated(false);
+            }
+            assertTrue(engine.accepts(after));
+            engine.applyRemote(batch, after);
+        }
+
+        void check(GameEngine source) {
+            Snapshot expected = source.snapshot();
+            assertEquals(source.getTargetTile(), decoder.targetTile());
+            assertSame(expected, decoder.snapshot());
+            assertSame(expected, engine.snapshot());
+            assertEquals(source.score, engine.score);
+            // 广播方的 isGameStopped 由界面设置，这里按规则层判断
+            assertEquals(source.getGame().isTerminal(), engine.isGameStopped);
+        }
+    }
+
+    static boolean decode(StreamDecoder decoder, ByteBuffer frame, EventBatch out) throws IOException {
+        ByteBuffer body = frame.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        body.position(body.position() + StreamFormat.LENGTH_BYTES);
+        return decoder.decode(body.slice().order(ByteOrder.LITTLE_ENDIAN), out);
+    }
+
+    static ByteBuffer copy(ByteBuffer frame) {
+        ByteBuffer copy = ByteBuffer.allocate(frame.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+        copy.put(frame.duplicate()).flip();
+        return copy;
+    }
+
+    static void assertSame(Snapshot expected, Snapshot actual) {
+        assertEquals(expected.side, actual.side);
+        assertEquals(expected.isPacked(), actual.isPacked());
+        assertEquals(expected.score, actual.score);
+        for (int i = 0; i < expected.side * expected.side; i++) {
+            assertEquals(expected.exponentAt(i), actual.exponentAt(i), "cell " + i);
+        }
+    }
+}
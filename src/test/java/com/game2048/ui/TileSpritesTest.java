@@ -0,0 +1,70 @@
+package com.game2048.ui;
+
+import com.game2048.model.Tile;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TileSpritesTest {
+    private final BoardLayout layout = new BoardLayout(4);
+
+    @Test
+    void eachValueIsRenderedOnce() {
+        TileSprites sprites = new TileSprites(layout);
+        BufferedImage two = sprites.get(2);
+        assertSame(two, sprites.get(2));
+        assertNotSame(two, sprites.get(4));
+        assertEquals(layout.tileSize, two.getWidth());
+        assertEquals(layout.tileSize, two.getHeight());
+    }
+
+    @Test
+    void resetEvictsOnlyUnusedValues() {
+        TileSprites sprites = new TileSprites(layout);
+        BufferedImage two = sprites.get(2);
+        BufferedImage four = sprites.get(4);
+        sprites.reset();
+        // 重置之后只用到了 2，再次重置时 4 被淘汰
+        assertSame(two, sprites.get(2));
+        sprites.reset();
+        assertSame(two, sprites.get(2));
+        assertNotSame(four, sprites.get(4));
+    }
+
+    @Test
+    void installKeepsSpritesAlreadyDrawn() {
+        TileSprites sprites = new TileSprites(layout);
+        BufferedImage two = sprites.get(2);
+        BufferedImage[] rendered = sprites.prerender(2048);
+        sprites.install(rendered);
+        assertSame(two, sprites.get(2));
+        assertSame(rendered[11], sprites.get(2048));
+    }
+
+    @Test
+    void rendererBlitsTheSpriteAtTheTilePosition() {
+        TileSprites sprites = new TileSprites(layout);
+        Tile tile = new Tile(64, 1, 2);
+        BufferedImage canvas = new BufferedImage(layout.boardWidth, layout.boardHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = canvas.createGraphics();
+        try {
+            TileRenderer.draw(g, tile, sprites, layout);
+        } finally {
+            g.dispose();
+        }
+
+        BufferedImage sprite = sprites.get(64);
+        int x0 = (int) Math.round(layout.toPixel(2));
+        int y0 = (int) Math.round(layout.toPixel(1));
+        for (int y = 0; y < layout.tileSize; y += 3) {
+            for (int x = 0; x < layout.tileSize; x += 3) {
+                assertEquals(sprite.getRGB(x, y), canvas.getRGB(x0 + x, y0 + y), "pixel " + x + "," + y);
+            }
+        }
+    }
+}